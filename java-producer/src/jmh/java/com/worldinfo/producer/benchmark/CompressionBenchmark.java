@@ -0,0 +1,63 @@
+package com.worldinfo.producer.benchmark;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.unit.DataSize;
+
+import com.worldinfo.producer.codec.Compression;
+import com.worldinfo.producer.codec.JsonRpcRequestWriter;
+import com.worldinfo.producer.codec.PayloadCompressor;
+import com.worldinfo.producer.codec.WireFormat;
+import com.worldinfo.producer.config.CompressionProperties;
+import com.worldinfo.producer.model.JsonRpcRequest;
+
+/**
+ * Serialization plus body compression for each algorithm, forced on regardless
+ * of size. Read throughput against {@code producer.compression.ratio} from a
+ * running producer to pick an algorithm per method.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompressionBenchmark {
+
+    @Param({"medium", "large"})
+    public String payload;
+
+    @Param({"NONE", "LZ4", "ZSTD", "GZIP"})
+    public Compression algorithm;
+
+    private JsonRpcRequest request;
+    private JsonRpcRequestWriter writer;
+    private PayloadCompressor compressor;
+
+    @Setup
+    public void setUp() {
+        request = JsonRpcRequest.of(UUID.randomUUID().toString(), "fetchNewsData", Payloads.params(payload))
+                .withTracing("4bf92f3577b34da6a3ce929d0e0e4736", "00f067aa0ba902b7");
+        writer = new JsonRpcRequestWriter();
+        compressor = new PayloadCompressor(new CompressionProperties(true, algorithm, DataSize.ofBytes(0),
+                Map.of("fetchNewsData", algorithm), 3, 6));
+    }
+
+    @Benchmark
+    public byte[] writeAndCompress() {
+        return writer.write(request, WireFormat.JSON, compressor).body();
+    }
+}
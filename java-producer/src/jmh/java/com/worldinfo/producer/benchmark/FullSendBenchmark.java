@@ -0,0 +1,65 @@
+package com.worldinfo.producer.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.worldinfo.producer.config.TracingProperties;
+import com.worldinfo.producer.model.PublishReceipt;
+
+/**
+ * End-to-end {@code sendWorldInfoRequest} against the in-memory broker stand-in:
+ * executor hand-off, span, serialization, message assembly and channel publish.
+ * Run with {@code -Djmh.threads=N} to measure contention between publishers.
+ * {@code tracing} compares the legacy spans and body fields with lean mode at full and 10% sampling.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FullSendBenchmark {
+
+    @Param({"small", "medium", "large"})
+    public String payload;
+
+    @Param({"legacy", "lean", "lean-sampled"})
+    public String tracing;
+
+    private ProducerFixture fixture;
+    private Map<String, Object> params;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = switch (tracing) {
+            case "lean" -> new ProducerFixture(TracingProperties.Mode.LEAN, 1.0);
+            case "lean-sampled" -> new ProducerFixture(TracingProperties.Mode.LEAN, 0.1);
+            default -> new ProducerFixture();
+        };
+        params = Payloads.params(payload);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        fixture.close();
+    }
+
+    @Benchmark
+    public PublishReceipt sendWorldInfoRequest() {
+        return fixture.producerService.sendWorldInfoRequest("getWeatherInfo", params).join();
+    }
+}
@@ -0,0 +1,74 @@
+package com.worldinfo.producer.benchmark;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.amqp.rabbit.connection.Connection;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+
+import com.rabbitmq.client.Channel;
+
+/**
+ * Broker stand-in: a {@link ConnectionFactory} whose channels accept every
+ * {@code basicPublish} and only count the bytes, so a full send can be measured
+ * without network I/O.
+ */
+final class InMemoryConnectionFactory {
+
+    private final LongAdder publishedBytes = new LongAdder();
+    private final Channel channel = proxy(Channel.class, this::onChannelCall);
+    private final Connection connection = proxy(Connection.class, (target, method, args) ->
+            method.getName().equals("createChannel") ? channel : defaultValue(target, method, args));
+    private final ConnectionFactory connectionFactory = proxy(ConnectionFactory.class, (target, method, args) ->
+            method.getName().equals("createConnection") ? connection : defaultValue(target, method, args));
+
+    ConnectionFactory connectionFactory() {
+        return connectionFactory;
+    }
+
+    long publishedBytes() {
+        return publishedBytes.sum();
+    }
+
+    private Object onChannelCall(Object target, Method method, Object[] args) {
+        if (method.getName().equals("basicPublish")) {
+            publishedBytes.add(((byte[]) args[args.length - 1]).length);
+            return null;
+        }
+        if (method.getName().equals("getChannelNumber")) {
+            return 1;
+        }
+        return defaultValue(target, method, args);
+    }
+
+    private static Object defaultValue(Object target, Method method, Object[] args) {
+        Class<?> type = method.getReturnType();
+        if (method.getName().equals("equals")) {
+            return target == args[0];
+        }
+        if (method.getName().equals("hashCode")) {
+            return System.identityHashCode(target);
+        }
+        if (type == boolean.class) {
+            return method.getName().equals("isOpen");
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == String.class) {
+            return "in-memory";
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(InMemoryConnectionFactory.class.getClassLoader(),
+                new Class<?>[] {type}, handler);
+    }
+}
@@ -0,0 +1,66 @@
+package com.worldinfo.producer.benchmark;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageProperties;
+
+/**
+ * Building the AMQP {@link Message} around an already serialized body.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MessageAssemblyBenchmark {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+    private static final String SPAN_ID = "00f067aa0ba902b7";
+
+    @Param({"128", "1024", "65536"})
+    public int bodySize;
+
+    private byte[] body;
+
+    @Setup
+    public void setUp() {
+        body = new byte[bodySize];
+    }
+
+    @Benchmark
+    public Message messageBuilder() {
+        return MessageBuilder
+                .withBody(body)
+                .setContentType(MessageProperties.CONTENT_TYPE_JSON)
+                .setHeader("trace_id", TRACE_ID)
+                .setHeader("span_id", SPAN_ID)
+                .setTimestamp(Date.from(Instant.now()))
+                .build();
+    }
+
+    @Benchmark
+    public Message directProperties() {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        properties.setHeader("trace_id", TRACE_ID);
+        properties.setHeader("span_id", SPAN_ID);
+        properties.setTimestamp(Date.from(Instant.now()));
+        return new Message(body, properties);
+    }
+}
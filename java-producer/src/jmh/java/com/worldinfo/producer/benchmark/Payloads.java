@@ -0,0 +1,49 @@
+package com.worldinfo.producer.benchmark;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JSON-RPC params of representative sizes, selected by the {@code payload} benchmark parameter.
+ */
+final class Payloads {
+
+    private Payloads() {
+    }
+
+    static Map<String, Object> params(String size) {
+        return switch (size) {
+            // getWeatherInfo-style call, ~80 bytes
+            case "small" -> Map.of(
+                    "location", "New York",
+                    "units", "metric",
+                    "timestamp", Instant.now().toString());
+            // location lookup with a handful of options, ~1 KB
+            case "medium" -> {
+                Map<String, Object> params = new LinkedHashMap<>();
+                for (int i = 0; i < 24; i++) {
+                    params.put("option_" + i, "value-" + i + "-" + "x".repeat(24));
+                }
+                params.put("lat", 40.7128);
+                params.put("lon", -74.0060);
+                yield params;
+            }
+            // fetchNewsData-style result set, ~64 KB
+            case "large" -> {
+                List<Map<String, Object>> articles = new ArrayList<>();
+                for (int i = 0; i < 256; i++) {
+                    articles.add(Map.of(
+                            "id", i,
+                            "title", "Article " + i,
+                            "summary", "lorem ipsum dolor sit amet ".repeat(8),
+                            "url", "https://news.example.com/articles/" + i));
+                }
+                yield Map.of("category", "technology", "articles", articles);
+            }
+            default -> throw new IllegalArgumentException("Unknown payload size: " + size);
+        };
+    }
+}
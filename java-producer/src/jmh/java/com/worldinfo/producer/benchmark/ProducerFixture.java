@@ -0,0 +1,135 @@
+package com.worldinfo.producer.benchmark;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.util.unit.DataSize;
+
+import com.worldinfo.producer.claimcheck.ClaimCheck;
+import com.worldinfo.producer.claimcheck.FileSystemBlobStore;
+import com.worldinfo.producer.codec.Compression;
+import com.worldinfo.producer.codec.JsonRpcRequestWriter;
+import com.worldinfo.producer.codec.PayloadCompressor;
+import com.worldinfo.producer.codec.WireFormat;
+import com.worldinfo.producer.config.BatchPublishProperties;
+import com.worldinfo.producer.config.BrokerProperties;
+import com.worldinfo.producer.config.ClaimCheckProperties;
+import com.worldinfo.producer.config.CoalescingProperties;
+import com.worldinfo.producer.config.CompressionProperties;
+import com.worldinfo.producer.config.DeadlineProperties;
+import com.worldinfo.producer.config.MethodRegistryProperties;
+import com.worldinfo.producer.config.OutboxProperties;
+import com.worldinfo.producer.config.PartitionProperties;
+import com.worldinfo.producer.config.PriorityProperties;
+import com.worldinfo.producer.config.PublishConfirmProperties;
+import com.worldinfo.producer.config.PublishLoggingProperties;
+import com.worldinfo.producer.config.PublishMetricsProperties;
+import com.worldinfo.producer.config.RateLimitProperties;
+import com.worldinfo.producer.config.RpcDestination;
+import com.worldinfo.producer.config.TracingProperties;
+import com.worldinfo.producer.config.WireFormatProperties;
+import com.worldinfo.producer.outbox.PublishOutbox;
+import com.worldinfo.producer.service.BatchPublisher;
+import com.worldinfo.producer.service.BrokerNodes;
+import com.worldinfo.producer.service.MethodRegistry;
+import com.worldinfo.producer.service.PartitionRouter;
+import com.worldinfo.producer.service.PriorityLanes;
+import com.worldinfo.producer.service.PublishConnectionPool;
+import com.worldinfo.producer.service.PublishExecutor;
+import com.worldinfo.producer.service.PublishLog;
+import com.worldinfo.producer.service.PublishMetrics;
+import com.worldinfo.producer.service.PublishRateLimiter;
+import com.worldinfo.producer.service.PublishTracing;
+import com.worldinfo.producer.service.PublisherConfirmTracker;
+import com.worldinfo.producer.service.RequestCoalescer;
+import com.worldinfo.producer.service.RequestDeadlines;
+import com.worldinfo.producer.service.RequestIdGenerator;
+import com.worldinfo.producer.service.TimeOrderedRequestIdGenerator;
+import com.worldinfo.producer.service.WorldInfoProducerService;
+
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+
+/**
+ * Wires a {@link WorldInfoProducerService} the way the application context does,
+ * against an {@link InMemoryConnectionFactory} and a recording-but-not-exporting tracer.
+ */
+final class ProducerFixture implements AutoCloseable {
+
+    final InMemoryConnectionFactory broker = new InMemoryConnectionFactory();
+    final SdkTracerProvider tracerProvider = SdkTracerProvider.builder().build();
+    final Tracer tracer = tracerProvider.get("java-producer", "1.0.0");
+    final RabbitTemplate rabbitTemplate = new RabbitTemplate(broker.connectionFactory());
+    final PublishExecutor publishExecutor = new PublishExecutor("virtual",
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("publish-", 0).factory()));
+    final PublisherConfirmTracker confirmTracker = new PublisherConfirmTracker(
+            new PublishConfirmProperties(false, Duration.ofSeconds(10), 10_000, Duration.ofSeconds(1)),
+            rabbitTemplate);
+    final BatchPublisher batchPublisher = new BatchPublisher(rabbitTemplate, confirmTracker,
+            new BatchPublishProperties(500, Duration.ofMillis(5), 10_000, 50_000));
+    final JsonRpcRequestWriter requestWriter = new JsonRpcRequestWriter();
+    final RequestIdGenerator requestIdGenerator = new TimeOrderedRequestIdGenerator(1);
+    final PublishRateLimiter rateLimiter = new PublishRateLimiter(new RateLimitProperties(false,
+            new RateLimitProperties.Limit(1000, 2000), Map.of(), Map.of(),
+            new RateLimitProperties.Adaptive(false, Duration.ofMillis(250), 0.7, 0.05, 0.05, Duration.ofSeconds(5))));
+    final PriorityLanes priorityLanes = new PriorityLanes(new PriorityProperties(false,
+            PriorityProperties.Topology.MAX_PRIORITY, 10, Map.of(), Map.of(), "normal", 64, 10_000),
+            publishExecutor);
+    final PublishOutbox outbox = new PublishOutbox(new OutboxProperties(false, "", DataSize.ofMegabytes(64),
+            OutboxProperties.Fsync.NEVER, 1000, DataSize.ofGigabytes(1), 100, Duration.ofSeconds(10),
+            5, Duration.ofSeconds(30)), rabbitTemplate);
+    final PayloadCompressor compressor = new PayloadCompressor(new CompressionProperties(false, Compression.LZ4,
+            DataSize.ofKilobytes(16), Map.of(), 3, 6));
+    // only tracks node health: the template above publishes to the in-memory broker, so the pool never connects
+    final BrokerNodes brokerNodes = new BrokerNodes(new BrokerProperties(List.of(),
+            BrokerProperties.Selection.LEAST_OUTSTANDING, new BrokerProperties.Health(5, Duration.ofSeconds(2),
+                    Duration.ofSeconds(10), Duration.ofMinutes(5), 50)),
+            Map.of("default", new PublishConnectionPool("default", List.of(new CachingConnectionFactory()))));
+    final PublishTracing tracing;
+    final WorldInfoProducerService producerService;
+
+    ProducerFixture() {
+        this(TracingProperties.Mode.LEGACY, 1.0);
+    }
+
+    ProducerFixture(TracingProperties.Mode tracingMode, double samplingRatio) {
+        tracing = new PublishTracing(tracer,
+                new TracingProperties(true, tracingMode,
+                        new TracingProperties.Sampling(samplingRatio, Map.of(), Map.of())),
+                W3CTraceContextPropagator.getInstance());
+        producerService = new WorldInfoProducerService(
+                rabbitTemplate, tracing, priorityLanes, confirmTracker, batchPublisher, requestWriter,
+                requestIdGenerator, rateLimiter, outbox, compressor,
+                new PartitionRouter(new PartitionProperties(false, 4, PartitionProperties.Mode.ROUTING_KEY,
+                        PartitionProperties.Key.METHOD, "location")),
+                new PublishLog(new PublishLoggingProperties(10, 60000)),
+                new RequestCoalescer(new CoalescingProperties(false, Duration.ofSeconds(1), Map.of(), 10_000,
+                        List.of("timestamp"))),
+                new PublishMetrics(new PublishMetricsProperties(50, List.of(), List.of(0.5, 0.9, 0.99), true, 10_000)),
+                new MethodRegistry(new MethodRegistryProperties(true, Map.of("getWeatherInfo",
+                        // no required params, so every payload size passes the check
+                        new MethodRegistryProperties.Definition(RpcDestination.WORLD_INFO, List.of(), Map.of(),
+                                true, null))),
+                        new WireFormatProperties(WireFormat.JSON, Map.of(), Map.of()), priorityLanes),
+                brokerNodes,
+                new ClaimCheck(new ClaimCheckProperties(false, DataSize.ofKilobytes(64), "", Duration.ofHours(1),
+                        60000),
+                        new FileSystemBlobStore(Path.of(System.getProperty("java.io.tmpdir"), "producer-blobs"))),
+                new RequestDeadlines(new DeadlineProperties(true, null, Duration.ofMinutes(10),
+                        new DeadlineProperties.DeadLetter(false, "world_info.dlx", Duration.ofHours(1), true))));
+    }
+
+    @Override
+    public void close() throws Exception {
+        batchPublisher.destroy();
+        brokerNodes.destroy();
+        publishExecutor.destroy();
+        tracerProvider.close();
+    }
+}
@@ -0,0 +1,51 @@
+package com.worldinfo.producer.benchmark;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.worldinfo.producer.model.JsonRpcRequest;
+
+/**
+ * Cost of {@code JsonRpcRequest.of(...).withTracing(...)}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RequestConstructionBenchmark {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+    private static final String SPAN_ID = "00f067aa0ba902b7";
+
+    @Param({"small", "medium", "large"})
+    public String payload;
+
+    private String requestId;
+    private Map<String, Object> params;
+
+    @Setup
+    public void setUp() {
+        requestId = UUID.randomUUID().toString();
+        params = Payloads.params(payload);
+    }
+
+    @Benchmark
+    public JsonRpcRequest ofWithTracing() {
+        return JsonRpcRequest.of(requestId, "getWeatherInfo", params).withTracing(TRACE_ID, SPAN_ID);
+    }
+}
@@ -0,0 +1,42 @@
+package com.worldinfo.producer.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.worldinfo.producer.service.RandomUuidRequestIdGenerator;
+import com.worldinfo.producer.service.RequestIdGenerator;
+import com.worldinfo.producer.service.TimeOrderedRequestIdGenerator;
+
+/**
+ * Request id generation; run with {@code -Djmh.threads=N} to see {@code SecureRandom} contention.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RequestIdBenchmark {
+
+    private final RequestIdGenerator randomUuid = new RandomUuidRequestIdGenerator();
+    private final RequestIdGenerator timeOrdered = new TimeOrderedRequestIdGenerator(1);
+
+    @Benchmark
+    public String randomUuid() {
+        return randomUuid.nextId();
+    }
+
+    @Benchmark
+    public String timeOrdered() {
+        return timeOrdered.nextId();
+    }
+}
@@ -0,0 +1,60 @@
+package com.worldinfo.producer.benchmark;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+
+import com.worldinfo.producer.codec.JsonRpcRequestWriter;
+import com.worldinfo.producer.model.JsonRpcRequest;
+
+/**
+ * Request serialization: the converter round trip the service used to do,
+ * against {@link JsonRpcRequestWriter}. Compare {@code gc.alloc.rate.norm}
+ * to see the bytes allocated per message by each path.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    @Param({"small", "medium", "large"})
+    public String payload;
+
+    private JsonRpcRequest request;
+    private Jackson2JsonMessageConverter converter;
+    private JsonRpcRequestWriter writer;
+
+    @Setup
+    public void setUp() {
+        request = JsonRpcRequest.of(UUID.randomUUID().toString(), "getWeatherInfo", Payloads.params(payload))
+                .withTracing("4bf92f3577b34da6a3ce929d0e0e4736", "00f067aa0ba902b7");
+        converter = new Jackson2JsonMessageConverter();
+        writer = new JsonRpcRequestWriter();
+    }
+
+    @Benchmark
+    public byte[] converterRoundTrip() {
+        return converter.toMessage(request, new MessageProperties()).getBody();
+    }
+
+    @Benchmark
+    public byte[] requestWriter() {
+        return writer.write(request);
+    }
+}
@@ -0,0 +1,66 @@
+package com.worldinfo.producer.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.worldinfo.producer.config.RpcDestination;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+
+/**
+ * The span {@code WorldInfoProducerService} opens per publish, with an SDK
+ * tracer that samples every span but exports nothing.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SpanCreationBenchmark {
+
+    private SdkTracerProvider tracerProvider;
+    private Tracer tracer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        tracerProvider = SdkTracerProvider.builder().build();
+        tracer = tracerProvider.get("java-producer", "1.0.0");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        tracerProvider.close();
+    }
+
+    @Benchmark
+    public Span publishSpan() {
+        RpcDestination destination = RpcDestination.WORLD_INFO;
+        Span span = tracer.spanBuilder(destination.spanName())
+                .setAttribute("rpc.service", destination.service())
+                .setAttribute("rpc.method", "getWeatherInfo")
+                .setAttribute("messaging.system", "rabbitmq")
+                .setAttribute("messaging.destination", destination.queue())
+                .setAttribute("messaging.destination_kind", "queue")
+                .startSpan();
+        span.addEvent("sending_message");
+        span.addEvent("message_sent");
+        span.setStatus(io.opentelemetry.api.trace.StatusCode.OK);
+        span.end();
+        return span;
+    }
+}
@@ -0,0 +1,74 @@
+package com.worldinfo.producer.benchmark;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.unit.DataSize;
+
+import com.worldinfo.producer.codec.Compression;
+import com.worldinfo.producer.codec.JsonRpcRequestWriter;
+import com.worldinfo.producer.codec.PayloadCompressor;
+import com.worldinfo.producer.codec.WireFormat;
+import com.worldinfo.producer.config.CompressionProperties;
+import com.worldinfo.producer.model.JsonRpcRequest;
+
+/**
+ * Encode time per {@link WireFormat}, with the encoded size of each message
+ * reported as the {@code bytesPerMessage} secondary result.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WireFormatBenchmark {
+
+    @Param({"small", "medium", "large"})
+    public String payload;
+
+    @Param({"JSON", "CBOR", "SMILE", "MSGPACK"})
+    public WireFormat format;
+
+    private JsonRpcRequest request;
+    private JsonRpcRequestWriter writer;
+    private PayloadCompressor uncompressed;
+
+    /**
+     * Overwritten on every call, so the reported value is the size of one encoded message.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class EncodedSize {
+        public long bytesPerMessage;
+    }
+
+    @Setup
+    public void setUp() {
+        request = JsonRpcRequest.of(UUID.randomUUID().toString(), "fetchNewsData", Payloads.params(payload))
+                .withTracing("4bf92f3577b34da6a3ce929d0e0e4736", "00f067aa0ba902b7");
+        writer = new JsonRpcRequestWriter();
+        uncompressed = new PayloadCompressor(new CompressionProperties(false, Compression.NONE,
+                DataSize.ofBytes(0), Map.of(), 3, 6));
+    }
+
+    @Benchmark
+    public byte[] encode(EncodedSize size) {
+        byte[] body = writer.write(request, format, uncompressed).body();
+        size.bytesPerMessage = body.length;
+        return body;
+    }
+}
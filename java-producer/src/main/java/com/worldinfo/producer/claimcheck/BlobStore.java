@@ -0,0 +1,40 @@
+package com.worldinfo.producer.claimcheck;
+
+import java.io.IOException;
+import java.time.Instant;
+
+/**
+ * Content-addressed storage for claim-checked params, keyed by the SHA-256 of the content.
+ * <p>
+ * A blob expires a fixed time after it was last stored, so storing content that is
+ * already there only renews it.
+ */
+public interface BlobStore {
+
+    /**
+     * Stores {@code content} under {@code sha256}, or renews the blob already stored there.
+     *
+     * @return {@code true} if the content was written, {@code false} if it was already stored
+     */
+    boolean put(String sha256, byte[] content) throws IOException;
+
+    /**
+     * @return the stored content, or {@code null} if there is no such blob
+     */
+    byte[] get(String sha256) throws IOException;
+
+    /**
+     * Deletes the blobs last stored before {@code cutoff}.
+     *
+     * @return what was deleted
+     */
+    SweepResult sweep(Instant cutoff) throws IOException;
+
+    /**
+     * @return a short name for the store, sent in each reference
+     */
+    String name();
+
+    record SweepResult(int blobs, long bytes) {
+    }
+}
@@ -0,0 +1,196 @@
+package com.worldinfo.producer.claimcheck;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.worldinfo.producer.config.ClaimCheckProperties;
+import com.worldinfo.producer.model.JsonRpcRequest;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Moves the params of oversized requests to a {@link BlobStore}.
+ * <p>
+ * When {@code app.publish.claim-check.enabled} is set and an encoded body is larger than
+ * {@code threshold}, the params are written as JSON with map keys sorted, so identical
+ * params always give the same bytes, and stored under the SHA-256 of those bytes. The
+ * request is then sent with params holding only the reference:
+ * <pre>
+ * {"claim_check": {"store": "filesystem", "sha256": "...", "length": 81234, "content_type": "application/json"}}
+ * </pre>
+ * and the {@value #HEADER} header, so every claim-checked message has about the same small
+ * size. Identical params share one blob whose expiry each request renews; a scheduled sweep
+ * deletes blobs {@code ttl} after their last use. If the store fails, the request goes out
+ * inline rather than failing.
+ */
+@Component
+@EnableConfigurationProperties(ClaimCheckProperties.class)
+public class ClaimCheck implements MeterBinder {
+
+    public static final String HEADER = "x-claim-check-sha256";
+    public static final String PARAM = "claim_check";
+
+    private static final Logger logger = LoggerFactory.getLogger(ClaimCheck.class);
+    private static final int DIGEST_POOL_SIZE = 64;
+
+    private final ClaimCheckProperties properties;
+    private final BlobStore store;
+    private final long threshold;
+    private final ObjectMapper canonicalMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+            .build();
+    private final BlockingQueue<MessageDigest> digests = new ArrayBlockingQueue<>(DIGEST_POOL_SIZE);
+
+    private final LongAdder stored = new LongAdder();
+    private final LongAdder deduplicated = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder offloadedBytes = new LongAdder();
+    private final LongAdder sweptBlobs = new LongAdder();
+    private final LongAdder sweptBytes = new LongAdder();
+    private volatile Timer writeTimer;
+
+    /**
+     * A request whose params now only reference the blob holding them.
+     */
+    public record Offloaded(JsonRpcRequest request, String sha256) {
+    }
+
+    public ClaimCheck(ClaimCheckProperties properties, BlobStore store) {
+        this.properties = properties;
+        this.store = store;
+        this.threshold = properties.threshold().toBytes();
+    }
+
+    /**
+     * @param encodedLength size of the body about to be published
+     */
+    public boolean exceeds(int encodedLength) {
+        return properties.enabled() && encodedLength > threshold;
+    }
+
+    /**
+     * Stores {@code request}'s params and returns the request carrying the reference instead.
+     *
+     * @return {@code null} if the params could not be stored, so the caller sends them inline
+     */
+    public Offloaded offload(JsonRpcRequest request) {
+        long start = System.nanoTime();
+        try {
+            byte[] content = canonicalMapper.writeValueAsBytes(request.params());
+            String sha256 = sha256(content);
+            if (store.put(sha256, content)) {
+                stored.increment();
+                offloadedBytes.add(content.length);
+            } else {
+                deduplicated.increment();
+            }
+            Map<String, Object> reference = new LinkedHashMap<>();
+            reference.put("store", store.name());
+            reference.put("sha256", sha256);
+            reference.put("length", content.length);
+            reference.put("content_type", "application/json");
+            return new Offloaded(new JsonRpcRequest(request.jsonrpc(), request.id(), request.method(),
+                    Map.of(PARAM, reference), request.timestamp(), request.deadline(), request.traceId(),
+                    request.spanId()), sha256);
+        } catch (IOException | RuntimeException e) {
+            failed.increment();
+            logger.warn("Claim check failed, sending request {} inline: {}", request.id(), e.toString());
+            return null;
+        } finally {
+            Timer timer = writeTimer;
+            if (timer != null) {
+                timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.publish.claim-check.sweep-interval-ms:60000}")
+    public void sweep() {
+        if (!properties.enabled()) {
+            return;
+        }
+        try {
+            BlobStore.SweepResult result = store.sweep(Instant.now().minus(properties.ttl()));
+            sweptBlobs.add(result.blobs());
+            sweptBytes.add(result.bytes());
+            if (result.blobs() > 0) {
+                logger.info("Swept {} expired claim-check blobs ({} bytes)", result.blobs(), result.bytes());
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to sweep claim-check blobs", e);
+        }
+    }
+
+    private String sha256(byte[] content) {
+        MessageDigest digest = digests.poll();
+        if (digest == null) {
+            digest = newDigest();
+        }
+        try {
+            return HexFormat.of().formatHex(digest.digest(content));
+        } finally {
+            digest.reset();
+            digests.offer(digest);
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("producer.claimcheck.offloaded", stored, LongAdder::sum)
+                .description("Oversized requests by claim-check outcome")
+                .tag("result", "stored")
+                .register(registry);
+        FunctionCounter.builder("producer.claimcheck.offloaded", deduplicated, LongAdder::sum)
+                .description("Oversized requests by claim-check outcome")
+                .tag("result", "deduplicated")
+                .register(registry);
+        FunctionCounter.builder("producer.claimcheck.offloaded", failed, LongAdder::sum)
+                .description("Oversized requests by claim-check outcome")
+                .tag("result", "failed")
+                .register(registry);
+        FunctionCounter.builder("producer.claimcheck.bytes", offloadedBytes, LongAdder::sum)
+                .description("Bytes of new blobs written")
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("producer.claimcheck.swept", sweptBlobs, LongAdder::sum)
+                .description("Expired blobs deleted")
+                .register(registry);
+        FunctionCounter.builder("producer.claimcheck.swept.bytes", sweptBytes, LongAdder::sum)
+                .baseUnit("bytes")
+                .register(registry);
+        writeTimer = Timer.builder("producer.claimcheck.write.time")
+                .description("Time to encode, hash and store one request's params")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+    }
+}
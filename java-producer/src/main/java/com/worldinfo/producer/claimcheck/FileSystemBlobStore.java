@@ -0,0 +1,140 @@
+package com.worldinfo.producer.claimcheck;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * {@link BlobStore} keeping one file per blob, {@code <root>/<first two hex digits>/<sha256>}.
+ * <p>
+ * Blobs are written to a temporary file, forced to disk and renamed into place, so a
+ * blob is either absent or complete. The file's modification time is when it was last
+ * stored; storing it again only touches it. Directories are created on the first write.
+ * Puts share a lock that the sweeper takes alone around each delete, so a blob renewed
+ * while the sweep runs is not deleted under the request that just referenced it.
+ */
+public class FileSystemBlobStore implements BlobStore {
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path root;
+    private final ReadWriteLock sweepLock = new ReentrantReadWriteLock();
+
+    public FileSystemBlobStore(Path root) {
+        this.root = root;
+    }
+
+    @Override
+    public boolean put(String sha256, byte[] content) throws IOException {
+        Path path = path(sha256);
+        sweepLock.readLock().lock();
+        try {
+            return write(path, sha256, content);
+        } finally {
+            sweepLock.readLock().unlock();
+        }
+    }
+
+    private boolean write(Path path, String sha256, byte[] content) throws IOException {
+        if (Files.exists(path)) {
+            try {
+                Files.setLastModifiedTime(path, FileTime.from(Instant.now()));
+                return false;
+            } catch (NoSuchFileException e) {
+                // swept between the check and the touch; write it again
+            }
+        }
+        Path directory = path.getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, sha256, TEMP_SUFFIX);
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(content);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            }
+            // a concurrent put of the same content may win the rename; both wrote the same bytes
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return true;
+    }
+
+    @Override
+    public byte[] get(String sha256) throws IOException {
+        try {
+            return Files.readAllBytes(path(sha256));
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public SweepResult sweep(Instant cutoff) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return new SweepResult(0, 0);
+        }
+        FileTime expiredBefore = FileTime.from(cutoff);
+        int blobs = 0;
+        long bytes = 0;
+        try (DirectoryStream<Path> shards = Files.newDirectoryStream(root, Files::isDirectory)) {
+            for (Path shard : shards) {
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(shard)) {
+                    for (Path file : files) {
+                        // leftover temp files of a crashed write expire like blobs
+                        long deleted = deleteIfExpired(file, expiredBefore);
+                        if (deleted >= 0 && !file.getFileName().toString().endsWith(TEMP_SUFFIX)) {
+                            blobs++;
+                            bytes += deleted;
+                        }
+                    }
+                }
+            }
+        }
+        return new SweepResult(blobs, bytes);
+    }
+
+    /**
+     * @return the size of the deleted file, or {@code -1} if it was kept
+     */
+    private long deleteIfExpired(Path file, FileTime expiredBefore) throws IOException {
+        sweepLock.writeLock().lock();
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            if (attributes.lastModifiedTime().compareTo(expiredBefore) >= 0 || !Files.deleteIfExists(file)) {
+                return -1;
+            }
+            return attributes.size();
+        } catch (NoSuchFileException e) {
+            return -1;
+        } finally {
+            sweepLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public String name() {
+        return "filesystem";
+    }
+
+    private Path path(String sha256) {
+        if (sha256.length() != 64) {
+            throw new IllegalArgumentException("Not a SHA-256 hex digest: " + sha256);
+        }
+        return root.resolve(sha256.substring(0, 2)).resolve(sha256);
+    }
+}
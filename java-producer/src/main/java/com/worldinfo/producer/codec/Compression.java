@@ -0,0 +1,25 @@
+package com.worldinfo.producer.codec;
+
+/**
+ * Body compression algorithms and the AMQP {@code content_encoding} each one sets.
+ */
+public enum Compression {
+    /** Body sent as-is. */
+    NONE(null),
+    /** LZ4 block with a 4-byte little-endian uncompressed length prefix ({@code lz4.block} compatible). */
+    LZ4("lz4"),
+    /** Zstandard frame. */
+    ZSTD("zstd"),
+    /** RFC 1952 gzip member. */
+    GZIP("gzip");
+
+    private final String contentEncoding;
+
+    Compression(String contentEncoding) {
+        this.contentEncoding = contentEncoding;
+    }
+
+    public String contentEncoding() {
+        return contentEncoding;
+    }
+}
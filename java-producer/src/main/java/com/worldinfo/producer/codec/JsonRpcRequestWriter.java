@@ -0,0 +1,156 @@
+package com.worldinfo.producer.codec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.msgpack.jackson.dataformat.MessagePackMapper;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.worldinfo.producer.model.JsonRpcRequest;
+
+/**
+ * Serializes {@link JsonRpcRequest} straight to the bytes of an AMQP body.
+ * <p>
+ * The eight record fields are written by hand through a {@link JsonGenerator};
+ * only {@code params}, {@code timestamp} and {@code deadline} go through the mapper, which is
+ * configured like the default {@code Jackson2JsonMessageConverter} so the wire
+ * format does not change. Output goes into pooled buffers that keep their grown
+ * capacity, so after warm-up each message costs one exact-size {@code byte[]}.
+ * <p>
+ * The same field writer drives a generator for each {@link WireFormat}; the
+ * binary mappers are built with the same modules, and CBOR and Smile back-reference
+ * repeated names and short strings within a message.
+ */
+@Component
+public class JsonRpcRequestWriter {
+
+    private static final int POOL_SIZE = 256;
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+    private static final int MAX_RETAINED_BUFFER_SIZE = 256 * 1024;
+
+    private final Map<WireFormat, ObjectMapper> mappers = new EnumMap<>(WireFormat.class);
+    private final BlockingQueue<ReusableBuffer> buffers = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    public JsonRpcRequestWriter() {
+        this(JsonMapper.builder().findAndAddModules().build());
+    }
+
+    public JsonRpcRequestWriter(ObjectMapper objectMapper) {
+        mappers.put(WireFormat.JSON, objectMapper);
+        mappers.put(WireFormat.CBOR, CBORMapper.builder()
+                .enable(CBORGenerator.Feature.STRINGREF)
+                .findAndAddModules()
+                .build());
+        mappers.put(WireFormat.SMILE, SmileMapper.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_NAMES, SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .findAndAddModules()
+                .build());
+        mappers.put(WireFormat.MSGPACK, MessagePackMapper.builder()
+                .findAndAddModules()
+                .build());
+    }
+
+    public byte[] write(JsonRpcRequest request) {
+        ReusableBuffer buffer = acquire();
+        try {
+            try (JsonGenerator generator = mappers.get(WireFormat.JSON).createGenerator(buffer)) {
+                writeFields(generator, request);
+            }
+            return buffer.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to serialize request " + request.id(), e);
+        } finally {
+            release(buffer);
+        }
+    }
+
+    /**
+     * Serializes {@code request} in {@code format} and hands the pooled buffer straight
+     * to {@code compressor}, so compressed bodies never exist as uncompressed copies.
+     */
+    public PayloadCompressor.EncodedBody write(JsonRpcRequest request, WireFormat format,
+                                               PayloadCompressor compressor) {
+        ReusableBuffer buffer = acquire();
+        try {
+            try (JsonGenerator generator = mappers.get(format).createGenerator(buffer)) {
+                writeFields(generator, request);
+            }
+            return compressor.encode(request.method(), buffer.array(), buffer.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to serialize request " + request.id(), e);
+        } finally {
+            release(buffer);
+        }
+    }
+
+    private void writeFields(JsonGenerator generator, JsonRpcRequest request) throws IOException {
+        generator.writeStartObject();
+        writeString(generator, "jsonrpc", request.jsonrpc());
+        writeString(generator, "id", request.id());
+        writeString(generator, "method", request.method());
+        if (request.params() != null) {
+            generator.writeFieldName("params");
+            generator.writeObject(request.params());
+        }
+        if (request.timestamp() != null) {
+            generator.writeFieldName("timestamp");
+            generator.writeObject(request.timestamp());
+        }
+        if (request.deadline() != null) {
+            generator.writeFieldName("deadline");
+            generator.writeObject(request.deadline());
+        }
+        writeString(generator, "trace_id", request.traceId());
+        writeString(generator, "span_id", request.spanId());
+        generator.writeEndObject();
+    }
+
+    private static void writeString(JsonGenerator generator, String name, String value) throws IOException {
+        if (value != null) {
+            generator.writeStringField(name, value);
+        }
+    }
+
+    private ReusableBuffer acquire() {
+        ReusableBuffer buffer = buffers.poll();
+        return buffer != null ? buffer : new ReusableBuffer(INITIAL_BUFFER_SIZE);
+    }
+
+    private void release(ReusableBuffer buffer) {
+        if (buffer.capacity() <= MAX_RETAINED_BUFFER_SIZE) {
+            buffer.reset();
+            buffers.offer(buffer);
+        }
+    }
+
+    /**
+     * {@link ByteArrayOutputStream} that exposes its capacity so oversized buffers
+     * are not pooled.
+     */
+    private static final class ReusableBuffer extends ByteArrayOutputStream {
+
+        private ReusableBuffer(int size) {
+            super(size);
+        }
+
+        private int capacity() {
+            return buf.length;
+        }
+
+        private byte[] array() {
+            return buf;
+        }
+    }
+}
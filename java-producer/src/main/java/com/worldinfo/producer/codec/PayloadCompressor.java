@@ -0,0 +1,232 @@
+package com.worldinfo.producer.codec;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdCompressCtx;
+import com.worldinfo.producer.config.CompressionProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+
+/**
+ * Compresses serialized request bodies.
+ * <p>
+ * A method listed under {@code app.publish.compression.methods} always uses its
+ * own algorithm; any other body is compressed with the default algorithm once it
+ * reaches {@code threshold}. Input is read straight from the writer's pooled
+ * buffer, and output goes into pooled scratch arrays with pooled {@link Deflater}
+ * and {@link ZstdCompressCtx} instances, so the only per-message allocation is
+ * the exact-size result. A body that does not get smaller is sent uncompressed.
+ */
+@Component
+@EnableConfigurationProperties(CompressionProperties.class)
+public class PayloadCompressor implements MeterBinder {
+
+    private static final int POOL_SIZE = 64;
+    private static final int MAX_RETAINED_BUFFER_SIZE = 1024 * 1024;
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private final CompressionProperties properties;
+    private final int threshold;
+    private final LZ4Compressor lz4 = LZ4Factory.fastestInstance().fastCompressor();
+    private final BlockingQueue<byte[]> buffers = new ArrayBlockingQueue<>(POOL_SIZE);
+    private final BlockingQueue<Deflater> deflaters = new ArrayBlockingQueue<>(POOL_SIZE);
+    private final BlockingQueue<ZstdCompressCtx> zstdContexts = new ArrayBlockingQueue<>(POOL_SIZE);
+    private volatile Map<Compression, Meters> meters = Map.of();
+
+    /**
+     * A body ready for the wire and the {@code content_encoding} to send it with
+     * ({@code null} when uncompressed).
+     */
+    public record EncodedBody(byte[] body, String contentEncoding) {
+    }
+
+    public PayloadCompressor(CompressionProperties properties) {
+        this.properties = properties;
+        this.threshold = (int) Math.min(Integer.MAX_VALUE, properties.threshold().toBytes());
+    }
+
+    /**
+     * Encodes {@code length} bytes of {@code source} for {@code method}.
+     */
+    public EncodedBody encode(String method, byte[] source, int length) {
+        Compression compression = select(method, length);
+        if (compression == Compression.NONE) {
+            return new EncodedBody(Arrays.copyOf(source, length), null);
+        }
+        long start = System.nanoTime();
+        byte[] compressed = switch (compression) {
+            case LZ4 -> lz4(source, length);
+            case ZSTD -> zstd(source, length);
+            case GZIP -> gzip(source, length);
+            case NONE -> throw new IllegalStateException();
+        };
+        Meters recorded = meters.get(compression);
+        if (recorded != null) {
+            recorded.time.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        if (compressed.length >= length) {
+            if (recorded != null) {
+                recorded.skipped.increment();
+            }
+            return new EncodedBody(Arrays.copyOf(source, length), null);
+        }
+        if (recorded != null) {
+            recorded.ratio.record((double) compressed.length / length);
+            recorded.bytesIn.increment(length);
+            recorded.bytesOut.increment(compressed.length);
+        }
+        return new EncodedBody(compressed, compression.contentEncoding());
+    }
+
+    private Compression select(String method, int length) {
+        if (!properties.enabled()) {
+            return Compression.NONE;
+        }
+        Compression configured = properties.methods().get(method);
+        if (configured != null) {
+            return configured;
+        }
+        return length >= threshold ? properties.algorithm() : Compression.NONE;
+    }
+
+    private byte[] lz4(byte[] source, int length) {
+        byte[] buffer = acquire(4 + lz4.maxCompressedLength(length));
+        try {
+            buffer[0] = (byte) length;
+            buffer[1] = (byte) (length >>> 8);
+            buffer[2] = (byte) (length >>> 16);
+            buffer[3] = (byte) (length >>> 24);
+            int written = lz4.compress(source, 0, length, buffer, 4, buffer.length - 4);
+            return Arrays.copyOf(buffer, 4 + written);
+        } finally {
+            release(buffer);
+        }
+    }
+
+    private byte[] zstd(byte[] source, int length) {
+        ZstdCompressCtx context = zstdContexts.poll();
+        if (context == null) {
+            context = new ZstdCompressCtx();
+            context.setLevel(properties.zstdLevel());
+        }
+        byte[] buffer = acquire((int) Zstd.compressBound(length));
+        try {
+            int written = context.compressByteArray(buffer, 0, buffer.length, source, 0, length);
+            return Arrays.copyOf(buffer, written);
+        } finally {
+            release(buffer);
+            if (!zstdContexts.offer(context)) {
+                context.close();
+            }
+        }
+    }
+
+    private byte[] gzip(byte[] source, int length) {
+        Deflater deflater = deflaters.poll();
+        if (deflater == null) {
+            deflater = new Deflater(properties.gzipLevel(), true);
+        }
+        // deflate never expands by more than ~0.1% plus a few bytes per block
+        byte[] buffer = acquire(GZIP_HEADER.length + length + (length >>> 9) + 64 + 8);
+        try {
+            System.arraycopy(GZIP_HEADER, 0, buffer, 0, GZIP_HEADER.length);
+            deflater.setInput(source, 0, length);
+            deflater.finish();
+            int position = GZIP_HEADER.length;
+            while (!deflater.finished()) {
+                if (position == buffer.length - 8) {
+                    byte[] grown = Arrays.copyOf(buffer, buffer.length * 2);
+                    release(buffer);
+                    buffer = grown;
+                }
+                position += deflater.deflate(buffer, position, buffer.length - 8 - position);
+            }
+            CRC32 crc = new CRC32();
+            crc.update(source, 0, length);
+            position = writeIntLittleEndian(buffer, position, (int) crc.getValue());
+            position = writeIntLittleEndian(buffer, position, length);
+            return Arrays.copyOf(buffer, position);
+        } finally {
+            release(buffer);
+            deflater.reset();
+            if (!deflaters.offer(deflater)) {
+                deflater.end();
+            }
+        }
+    }
+
+    private static int writeIntLittleEndian(byte[] buffer, int position, int value) {
+        buffer[position] = (byte) value;
+        buffer[position + 1] = (byte) (value >>> 8);
+        buffer[position + 2] = (byte) (value >>> 16);
+        buffer[position + 3] = (byte) (value >>> 24);
+        return position + 4;
+    }
+
+    private byte[] acquire(int minimumSize) {
+        byte[] buffer = buffers.poll();
+        if (buffer == null || buffer.length < minimumSize) {
+            return new byte[Math.max(minimumSize, 4096)];
+        }
+        return buffer;
+    }
+
+    private void release(byte[] buffer) {
+        if (buffer.length <= MAX_RETAINED_BUFFER_SIZE) {
+            buffers.offer(buffer);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Map<Compression, Meters> bound = new EnumMap<>(Compression.class);
+        for (Compression compression : Compression.values()) {
+            if (compression == Compression.NONE) {
+                continue;
+            }
+            String algorithm = compression.contentEncoding();
+            bound.put(compression, new Meters(
+                    Timer.builder("producer.compression.time")
+                            .description("Time spent compressing a request body on the publishing thread")
+                            .tag("algorithm", algorithm)
+                            .register(registry),
+                    DistributionSummary.builder("producer.compression.ratio")
+                            .description("Compressed size divided by original size")
+                            .tag("algorithm", algorithm)
+                            .register(registry),
+                    Counter.builder("producer.compression.bytes.in")
+                            .baseUnit("bytes")
+                            .tag("algorithm", algorithm)
+                            .register(registry),
+                    Counter.builder("producer.compression.bytes.out")
+                            .baseUnit("bytes")
+                            .tag("algorithm", algorithm)
+                            .register(registry),
+                    Counter.builder("producer.compression.skipped")
+                            .description("Bodies sent uncompressed because compression did not shrink them")
+                            .tag("algorithm", algorithm)
+                            .register(registry)));
+        }
+        meters = bound;
+    }
+
+    private record Meters(Timer time, DistributionSummary ratio, Counter bytesIn, Counter bytesOut, Counter skipped) {
+    }
+}
@@ -0,0 +1,25 @@
+package com.worldinfo.producer.codec;
+
+/**
+ * Encodings a {@code JsonRpcRequest} can be published in, with the AMQP
+ * {@code content_type} consumers dispatch on. All carry the same fields as the
+ * JSON form.
+ */
+public enum WireFormat {
+    JSON("application/json"),
+    /** RFC 8949 CBOR; repeated strings use the stringref extension (tag 25/256). */
+    CBOR("application/cbor"),
+    /** Jackson Smile with shared property names and shared short string values. */
+    SMILE("application/x-jackson-smile"),
+    MSGPACK("application/msgpack");
+
+    private final String contentType;
+
+    WireFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+}
@@ -0,0 +1,30 @@
+package com.worldinfo.producer.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for the batch endpoints and the channel-level batching publisher.
+ *
+ * @param maxSize       messages written on one channel checkout before flushing
+ * @param linger        how long the publisher waits for more messages to fill a batch
+ * @param maxItems      items accepted in a single {@code send-batch} call
+ * @param queueCapacity messages allowed to wait for the publisher before new ones are rejected
+ */
+@ConfigurationProperties(prefix = "app.publish.batch")
+public record BatchPublishProperties(
+        @DefaultValue("500")
+        int maxSize,
+
+        @DefaultValue("5ms")
+        Duration linger,
+
+        @DefaultValue("10000")
+        int maxItems,
+
+        @DefaultValue("50000")
+        int queueCapacity
+) {
+}
@@ -0,0 +1,88 @@
+package com.worldinfo.producer.config;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Broker nodes the producer publishes to.
+ *
+ * @param nodes     broker endpoints, each with its own publish connections; empty publishes to
+ *                  {@code spring.rabbitmq.*} only. The first node takes calls that wait for a reply,
+ *                  so it must be a {@code spring.rabbitmq.*} broker, where the reply queue is; this is
+ *                  checked at startup
+ * @param selection {@code least-outstanding}: the admitted node with the fewest publishes waiting
+ *                  for their confirm; {@code partition-key}: a rendezvous hash of the partition key,
+ *                  so a key keeps its node while that node is admitted
+ * @param health    when nodes are ejected and re-admitted
+ */
+@ConfigurationProperties(prefix = "app.publish.brokers")
+public record BrokerProperties(
+        List<Node> nodes,
+
+        @DefaultValue("least-outstanding")
+        Selection selection,
+
+        @DefaultValue
+        Health health
+) {
+    public BrokerProperties {
+        nodes = nodes != null ? List.copyOf(nodes) : List.of();
+    }
+
+    public enum Selection {
+        LEAST_OUTSTANDING,
+        PARTITION_KEY
+    }
+
+    /**
+     * @param name used in metrics and connection names; defaults to {@code host:port}
+     */
+    public record Node(
+            String name,
+
+            String host,
+
+            @DefaultValue("5672")
+            int port
+    ) {
+        public String id() {
+            return name != null && !name.isBlank() ? name : host + ":" + port;
+        }
+
+        public String address() {
+            return host + ":" + port;
+        }
+    }
+
+    /**
+     * @param failureThreshold  consecutive failed publishes (connection errors, nacks, confirm timeouts)
+     *                          that eject a node
+     * @param slowThreshold     a node whose average publish latency, to the confirm when confirms are on,
+     *                          rises above this is ejected
+     * @param ejectionTime      how long the first ejection lasts; each further ejection within
+     *                          {@code max-ejection-time} of the last re-admission lasts one more multiple
+     * @param maxEjectionTime   longest single ejection
+     * @param maxEjectedPercent share of the nodes that may be ejected at once; at least one node
+     *                          always stays admitted
+     */
+    public record Health(
+            @DefaultValue("5")
+            int failureThreshold,
+
+            @DefaultValue("2s")
+            Duration slowThreshold,
+
+            @DefaultValue("10s")
+            Duration ejectionTime,
+
+            @DefaultValue("5m")
+            Duration maxEjectionTime,
+
+            @DefaultValue("50")
+            int maxEjectedPercent
+    ) {
+    }
+}
@@ -0,0 +1,25 @@
+package com.worldinfo.producer.config;
+
+import java.nio.file.Path;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.worldinfo.producer.claimcheck.BlobStore;
+import com.worldinfo.producer.claimcheck.FileSystemBlobStore;
+
+@Configuration
+@EnableConfigurationProperties(ClaimCheckProperties.class)
+public class ClaimCheckConfig {
+
+    /**
+     * The filesystem store, unless the application defines its own {@link BlobStore}.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public BlobStore blobStore(ClaimCheckProperties properties) {
+        return new FileSystemBlobStore(Path.of(properties.directory()));
+    }
+}
@@ -0,0 +1,36 @@
+package com.worldinfo.producer.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Claim-check offload of large request params.
+ *
+ * @param enabled         move the params of oversized requests to the blob store
+ * @param threshold       encoded body size above which the params are offloaded
+ * @param directory       root of the filesystem blob store
+ * @param ttl             how long a blob is kept after the last request that referenced it; must
+ *                        outlast the consumers' backlog, and the outbox's when it is enabled
+ * @param sweepIntervalMs how often expired blobs are deleted
+ */
+@ConfigurationProperties(prefix = "app.publish.claim-check")
+public record ClaimCheckProperties(
+        @DefaultValue("false")
+        boolean enabled,
+
+        @DefaultValue("64KB")
+        DataSize threshold,
+
+        @DefaultValue("/app/blobs")
+        String directory,
+
+        @DefaultValue("1h")
+        Duration ttl,
+
+        @DefaultValue("60000")
+        long sweepIntervalMs
+) {
+}
@@ -0,0 +1,43 @@
+package com.worldinfo.producer.config;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Coalescing of identical fire-and-forget requests.
+ *
+ * @param enabled       share one publish between identical requests inside their TTL window
+ * @param ttl           window for methods without an entry in {@code methods}
+ * @param methods       window per JSON-RPC method; {@code 0s} never coalesces that method
+ * @param maximumSize   requests remembered at once; the least recently used are evicted past it
+ * @param ignoredParams parameter names left out of the identity, at any nesting level
+ */
+@ConfigurationProperties(prefix = "app.publish.coalescing")
+public record CoalescingProperties(
+        @DefaultValue("false")
+        boolean enabled,
+
+        @DefaultValue("1s")
+        Duration ttl,
+
+        Map<String, Duration> methods,
+
+        @DefaultValue("10000")
+        long maximumSize,
+
+        @DefaultValue("timestamp")
+        List<String> ignoredParams
+) {
+    public CoalescingProperties {
+        methods = methods != null ? Map.copyOf(methods) : Map.of();
+        ignoredParams = ignoredParams != null ? List.copyOf(ignoredParams) : List.of();
+    }
+
+    public Duration ttlFor(String method) {
+        return methods.getOrDefault(method, ttl);
+    }
+}
@@ -0,0 +1,43 @@
+package com.worldinfo.producer.config;
+
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import com.worldinfo.producer.codec.Compression;
+
+/**
+ * Settings for request body compression.
+ *
+ * @param enabled   compress bodies at all
+ * @param algorithm algorithm for bodies at or above {@code threshold}
+ * @param threshold smallest serialized body that is compressed
+ * @param methods   per JSON-RPC method algorithm, applied regardless of size; {@code none} opts a method out
+ * @param zstdLevel zstd compression level
+ * @param gzipLevel deflate level for gzip
+ */
+@ConfigurationProperties(prefix = "app.publish.compression")
+public record CompressionProperties(
+        @DefaultValue("false")
+        boolean enabled,
+
+        @DefaultValue("lz4")
+        Compression algorithm,
+
+        @DefaultValue("16KB")
+        DataSize threshold,
+
+        Map<String, Compression> methods,
+
+        @DefaultValue("3")
+        int zstdLevel,
+
+        @DefaultValue("6")
+        int gzipLevel
+) {
+    public CompressionProperties {
+        methods = methods != null ? Map.copyOf(methods) : Map.of();
+    }
+}
@@ -0,0 +1,54 @@
+package com.worldinfo.producer.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Deadlines after which a request is no longer worth processing.
+ *
+ * @param enabled        stamp deadlines on requests and give their messages an AMQP expiration
+ * @param defaultTimeout deadline for methods whose definition has no {@code timeout} and calls
+ *                       without an {@code X-Request-Timeout} header; unset means no deadline
+ * @param maxTimeout     longest deadline a caller may ask for; longer ones are cut to this
+ * @param deadLetter     where the broker puts messages that expired in a queue
+ */
+@ConfigurationProperties(prefix = "app.publish.deadlines")
+public record DeadlineProperties(
+        @DefaultValue("true")
+        boolean enabled,
+
+        Duration defaultTimeout,
+
+        @DefaultValue("10m")
+        Duration maxTimeout,
+
+        @DefaultValue
+        DeadLetter deadLetter
+) {
+    /**
+     * @param enabled   declare the RPC queues with a dead-letter exchange and one
+     *                  {@code <queue>.expired} queue per destination behind it. RabbitMQ refuses
+     *                  to redeclare an existing queue with different arguments, so switching an
+     *                  existing deployment over means deleting the queues first
+     * @param exchange  the dead-letter exchange
+     * @param retention how long dead-lettered messages stay in the {@code .expired} queues
+     * @param count     consume the {@code .expired} queues and count what expired per method;
+     *                  counted messages are acked and gone
+     */
+    public record DeadLetter(
+            @DefaultValue("false")
+            boolean enabled,
+
+            @DefaultValue("world_info.dlx")
+            String exchange,
+
+            @DefaultValue("1h")
+            Duration retention,
+
+            @DefaultValue("true")
+            boolean count
+    ) {
+    }
+}
@@ -0,0 +1,35 @@
+package com.worldinfo.producer.config;
+
+import java.util.Arrays;
+
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.listener.DirectMessageListenerContainer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.worldinfo.producer.service.RequestDeadlines;
+
+/**
+ * Consumes the {@code <queue>.expired} dead-letter queues so {@link RequestDeadlines} can
+ * count what expired per method. Only the {@code spring.rabbitmq.*} broker is consumed;
+ * with several broker nodes the others keep their dead letters for {@code retention}.
+ */
+@Configuration
+@ConditionalOnProperty(name = {"app.publish.deadlines.dead-letter.enabled", "app.publish.deadlines.dead-letter.count"},
+        havingValue = "true")
+public class ExpiredRequestConfig {
+
+    @Bean
+    public DirectMessageListenerContainer expiredRequestContainer(ConnectionFactory connectionFactory,
+                                                                  RequestDeadlines requestDeadlines) {
+        DirectMessageListenerContainer container = new DirectMessageListenerContainer(connectionFactory);
+        container.setQueueNames(Arrays.stream(RpcDestination.values())
+                .map(RpcDestination::expiredQueue)
+                .toArray(String[]::new));
+        container.setAcknowledgeMode(AcknowledgeMode.AUTO);
+        container.setMessageListener(requestDeadlines);
+        return container;
+    }
+}
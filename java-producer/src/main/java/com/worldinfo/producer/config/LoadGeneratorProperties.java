@@ -0,0 +1,59 @@
+package com.worldinfo.producer.config;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Defaults for the open-loop load generator; each run can override rate, duration and ramp.
+ *
+ * @param enabled      register the generator and its {@code loadgen} actuator endpoint
+ * @param rate         target requests per second once the ramp is complete
+ * @param duration     how long a run sends, ramp included
+ * @param ramp         {@code constant}, {@code linear} up to {@code rate} over {@code rampUp},
+ *                     or {@code step} in {@code rampSteps} equal steps over {@code rampUp}
+ * @param rampUp       time to reach the target rate
+ * @param rampSteps    number of steps for the {@code step} ramp
+ * @param mix          weighted methods to send; every known method with weight 1 when empty
+ * @param drainTimeout how long a finished run waits for outstanding confirms before reporting
+ */
+@ConfigurationProperties(prefix = "app.loadgen")
+public record LoadGeneratorProperties(
+        @DefaultValue("false")
+        boolean enabled,
+
+        @DefaultValue("1000")
+        double rate,
+
+        @DefaultValue("60s")
+        Duration duration,
+
+        @DefaultValue("linear")
+        Ramp ramp,
+
+        @DefaultValue("10s")
+        Duration rampUp,
+
+        @DefaultValue("5")
+        int rampSteps,
+
+        List<MixEntry> mix,
+
+        @DefaultValue("30s")
+        Duration drainTimeout
+) {
+    public LoadGeneratorProperties {
+        mix = mix != null ? List.copyOf(mix) : List.of();
+    }
+
+    public enum Ramp {
+        CONSTANT,
+        LINEAR,
+        STEP
+    }
+
+    public record MixEntry(RpcDestination destination, String method, @DefaultValue("1") int weight) {
+    }
+}
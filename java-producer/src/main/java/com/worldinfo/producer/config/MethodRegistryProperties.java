@@ -0,0 +1,63 @@
+package com.worldinfo.producer.config;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * The JSON-RPC methods the producer publishes.
+ *
+ * @param strict      reject methods that are not defined; otherwise they are published unchecked
+ * @param definitions method name to its definition; empty means the built-in world info and
+ *                    ext provider methods
+ */
+@ConfigurationProperties(prefix = "app.methods")
+public record MethodRegistryProperties(
+        @DefaultValue("true")
+        boolean strict,
+
+        Map<String, Definition> definitions
+) {
+    public MethodRegistryProperties {
+        definitions = definitions != null ? Map.copyOf(definitions) : Map.of();
+    }
+
+    public enum ParamType {
+        STRING,
+        NUMBER,
+        INTEGER,
+        BOOLEAN,
+        OBJECT,
+        ARRAY,
+        ANY
+    }
+
+    /**
+     * @param destination      namespace the method is published to
+     * @param required         params every call must carry
+     * @param params           expected type per param; params not listed are not type checked
+     * @param additionalParams whether params not listed in {@code required} or {@code params} are allowed
+     * @param timeout          how long after it is received a call of the method is still worth processing;
+     *                         unset falls back to {@code app.publish.deadlines.default-timeout}
+     */
+    public record Definition(
+            RpcDestination destination,
+
+            List<String> required,
+
+            Map<String, ParamType> params,
+
+            @DefaultValue("true")
+            boolean additionalParams,
+
+            Duration timeout
+    ) {
+        public Definition {
+            required = required != null ? List.copyOf(required) : List.of();
+            params = params != null ? Map.copyOf(params) : Map.of();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.worldinfo.producer.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Settings for the local publish outbox.
+ *
+ * @param enabled         spool publishes to disk when the broker fails or the outbox has a backlog
+ * @param directory       where segment files and the drain checkpoint live
+ * @param segmentSize     size of each memory-mapped segment file
+ * @param fsync           {@code always} forces every append to disk, {@code interval} every
+ *                        {@code fsyncIntervalMs}, {@code never} leaves it to the OS
+ * @param fsyncIntervalMs flush period for {@code interval}
+ * @param maxSize         disk budget; past it the oldest undrained segments are dropped
+ * @param drainBatchSize  records replayed per channel checkout
+ * @param confirmTimeout  how long the drainer waits for the broker to ack a replayed batch
+ * @param maxNacks        times the broker may nack one spooled message before it is discarded
+ * @param maxRetryBackoff upper bound of the drainer's exponential backoff while the broker is down
+ */
+@ConfigurationProperties(prefix = "app.outbox")
+public record OutboxProperties(
+        @DefaultValue("false")
+        boolean enabled,
+
+        @DefaultValue("/app/outbox")
+        String directory,
+
+        @DefaultValue("64MB")
+        DataSize segmentSize,
+
+        @DefaultValue("interval")
+        Fsync fsync,
+
+        @DefaultValue("1000")
+        long fsyncIntervalMs,
+
+        @DefaultValue("1GB")
+        DataSize maxSize,
+
+        @DefaultValue("100")
+        int drainBatchSize,
+
+        @DefaultValue("10s")
+        Duration confirmTimeout,
+
+        @DefaultValue("5")
+        int maxNacks,
+
+        @DefaultValue("30s")
+        Duration maxRetryBackoff
+) {
+    public enum Fsync {
+        ALWAYS,
+        INTERVAL,
+        NEVER
+    }
+}
@@ -0,0 +1,46 @@
+package com.worldinfo.producer.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Partitioned queue topology.
+ *
+ * @param enabled declare {@code count} queue partitions per destination and route every publish to one
+ * @param count   partitions per destination
+ * @param mode    {@code routing-key}: the producer picks the partition and publishes with
+ *                {@code <routing key>.<partition>} to the topic exchange; {@code consistent-hash}:
+ *                the producer publishes the key hash to an {@code x-consistent-hash} exchange and
+ *                the broker picks the partition
+ * @param key     what requests are partitioned by; single publishes with the same key keep their order,
+ *                each waiting for the previous one's outcome
+ * @param param   the request parameter used when {@code key} is {@code param}
+ */
+@ConfigurationProperties(prefix = "app.topology.partitions")
+public record PartitionProperties(
+        @DefaultValue("false")
+        boolean enabled,
+
+        @DefaultValue("4")
+        int count,
+
+        @DefaultValue("routing-key")
+        Mode mode,
+
+        @DefaultValue("method")
+        Key key,
+
+        @DefaultValue("location")
+        String param
+) {
+    public enum Mode {
+        ROUTING_KEY,
+        CONSISTENT_HASH
+    }
+
+    public enum Key {
+        METHOD,
+        REQUEST_ID,
+        PARAM
+    }
+}
@@ -0,0 +1,76 @@
+package com.worldinfo.producer.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Priority lanes for publishes.
+ *
+ * @param enabled      put every publish in its method's lane and dispatch lanes by weight
+ * @param topology     {@code max-priority}: declare the queues with {@code x-max-priority} and set each
+ *                     message's priority from its lane; {@code lanes}: declare one queue per lane,
+ *                     {@code <queue>.lane.<name>}, and route each publish to its lane's queue
+ * @param maxPriority  {@code x-max-priority} of the queues in {@code max-priority} topology
+ * @param lanes        lane name to weight and AMQP priority
+ * @param methods      JSON-RPC method to lane name
+ * @param defaultLane  lane of methods not listed in {@code methods}, and of batches
+ * @param concurrency  publishes running at once; past it requests wait in their lane
+ * @param laneCapacity requests a lane holds before new ones are rejected
+ */
+@ConfigurationProperties(prefix = "app.publish.priority")
+public record PriorityProperties(
+        @DefaultValue("false")
+        boolean enabled,
+
+        @DefaultValue("max-priority")
+        Topology topology,
+
+        @DefaultValue("10")
+        int maxPriority,
+
+        Map<String, Lane> lanes,
+
+        Map<String, String> methods,
+
+        @DefaultValue("normal")
+        String defaultLane,
+
+        @DefaultValue("64")
+        int concurrency,
+
+        @DefaultValue("10000")
+        int laneCapacity
+) {
+    public PriorityProperties {
+        Map<String, Lane> configured = new HashMap<>(lanes != null ? lanes : Map.of());
+        configured.putIfAbsent(defaultLane, new Lane(1, 0));
+        lanes = Map.copyOf(configured);
+        methods = methods != null ? Map.copyOf(methods) : Map.of();
+    }
+
+    public enum Topology {
+        MAX_PRIORITY,
+        LANES
+    }
+
+    /**
+     * @param weight   share of dispatches the lane gets while several lanes have requests waiting
+     * @param priority AMQP message priority, {@code 0} to {@code max-priority}
+     */
+    public record Lane(
+            @DefaultValue("1")
+            int weight,
+
+            @DefaultValue("0")
+            int priority
+    ) {
+    }
+
+    public String laneFor(String method) {
+        String lane = method != null ? methods.get(method) : null;
+        return lane != null && lanes.containsKey(lane) ? lane : defaultLane;
+    }
+}
@@ -0,0 +1,30 @@
+package com.worldinfo.producer.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for publisher-confirm tracking.
+ *
+ * @param enabled        complete send futures on the broker ack instead of on hand-off
+ * @param timeout        how long to wait for an ack before failing the send
+ * @param maxOutstanding unconfirmed publishes allowed in flight at once
+ * @param acquireTimeout how long a publish waits for room in the window before it is rejected
+ */
+@ConfigurationProperties(prefix = "app.publish.confirms")
+public record PublishConfirmProperties(
+        @DefaultValue("true")
+        boolean enabled,
+
+        @DefaultValue("10s")
+        Duration timeout,
+
+        @DefaultValue("10000")
+        int maxOutstanding,
+
+        @DefaultValue("1s")
+        Duration acquireTimeout
+) {
+}
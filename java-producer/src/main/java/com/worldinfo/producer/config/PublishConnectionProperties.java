@@ -0,0 +1,26 @@
+package com.worldinfo.producer.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for the connections the {@code RabbitTemplate} publishes on.
+ *
+ * @param count            AMQP connections (shards) to publish on; each thread sticks to one
+ * @param channelCacheSize channels cached, and at most open, per shard
+ * @param checkoutTimeout  how long a publish waits for a free channel on its shard
+ */
+@ConfigurationProperties(prefix = "app.publish.connections")
+public record PublishConnectionProperties(
+        @DefaultValue("1")
+        int count,
+
+        @DefaultValue("32")
+        int channelCacheSize,
+
+        @DefaultValue("5s")
+        Duration checkoutTimeout
+) {
+}
@@ -0,0 +1,41 @@
+package com.worldinfo.producer.config;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.worldinfo.producer.service.PublishExecutor;
+
+@Configuration
+@EnableConfigurationProperties(PublishExecutorProperties.class)
+public class PublishExecutorConfig {
+
+    @Bean
+    public PublishExecutor publishExecutor(PublishExecutorProperties properties) {
+        return switch (properties.mode()) {
+            case VIRTUAL -> new PublishExecutor("virtual",
+                    Executors.newThreadPerTaskExecutor(
+                            Thread.ofVirtual().name("publish-", 0).factory()));
+            case BOUNDED -> {
+                ThreadFactory threadFactory = Thread.ofPlatform()
+                        .name("publish-", 0)
+                        .daemon(true)
+                        .factory();
+                ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                        properties.poolSize(), properties.poolSize(),
+                        60, TimeUnit.SECONDS,
+                        new ArrayBlockingQueue<>(properties.queueCapacity()),
+                        threadFactory,
+                        new ThreadPoolExecutor.AbortPolicy());
+                pool.allowCoreThreadTimeOut(true);
+                yield new PublishExecutor("bounded", pool);
+            }
+        };
+    }
+}
@@ -0,0 +1,30 @@
+package com.worldinfo.producer.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for the executor that runs blocking broker publishes.
+ *
+ * @param mode          {@code virtual} runs every publish on its own virtual thread,
+ *                      {@code bounded} uses a fixed platform pool
+ * @param poolSize      number of platform threads in {@code bounded} mode
+ * @param queueCapacity publishes allowed to wait for a thread in {@code bounded} mode
+ *                      before new ones are rejected
+ */
+@ConfigurationProperties(prefix = "app.publish.executor")
+public record PublishExecutorProperties(
+        @DefaultValue("virtual")
+        Mode mode,
+
+        @DefaultValue("64")
+        int poolSize,
+
+        @DefaultValue("10000")
+        int queueCapacity
+) {
+    public enum Mode {
+        VIRTUAL,
+        BOUNDED
+    }
+}
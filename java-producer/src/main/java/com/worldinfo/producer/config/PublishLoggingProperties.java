@@ -0,0 +1,21 @@
+package com.worldinfo.producer.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Logging of individual publishes.
+ *
+ * @param messagesPerSecond per-message INFO lines let through each second across the publish path;
+ *                          {@code 0} silences them, a negative value logs every message
+ * @param summaryIntervalMs period of the publish summary line, which counts what was not logged
+ */
+@ConfigurationProperties(prefix = "app.publish.logging")
+public record PublishLoggingProperties(
+        @DefaultValue("10")
+        int messagesPerSecond,
+
+        @DefaultValue("60000")
+        long summaryIntervalMs
+) {
+}
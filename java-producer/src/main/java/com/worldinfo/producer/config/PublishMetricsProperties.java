@@ -0,0 +1,37 @@
+package com.worldinfo.producer.config;
+
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Per-stage publish metrics.
+ *
+ * @param maxMethods          distinct {@code method} tag values kept; later methods are tagged {@code other}
+ * @param methods             when set, the only methods tagged by name, regardless of {@code maxMethods}
+ * @param percentiles         client-side percentiles published for every stage timer
+ * @param percentileHistogram publish histogram buckets so Prometheus can aggregate percentiles across instances
+ * @param windowMs            length of the fixed window {@code /api/v1/stats} reports
+ */
+@ConfigurationProperties(prefix = "app.publish.metrics")
+public record PublishMetricsProperties(
+        @DefaultValue("50")
+        int maxMethods,
+
+        List<String> methods,
+
+        @DefaultValue({"0.5", "0.9", "0.99"})
+        List<Double> percentiles,
+
+        @DefaultValue("true")
+        boolean percentileHistogram,
+
+        @DefaultValue("10000")
+        long windowMs
+) {
+    public PublishMetricsProperties {
+        methods = methods != null ? List.copyOf(methods) : List.of();
+        percentiles = percentiles != null ? List.copyOf(percentiles) : List.of();
+    }
+}
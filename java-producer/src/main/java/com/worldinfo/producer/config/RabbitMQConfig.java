@@ -1,18 +1,41 @@
 package com.worldinfo.producer.config;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.amqp.core.AmqpAdmin;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.CustomExchange;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.DirectExchange;
 import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.core.QueueBuilder;
 import org.springframework.amqp.core.TopicExchange;
-import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.amqp.rabbit.connection.RabbitConnectionFactoryBean;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.boot.autoconfigure.amqp.CachingConnectionFactoryConfigurer;
+import org.springframework.boot.autoconfigure.amqp.RabbitConnectionFactoryBeanConfigurer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import com.worldinfo.producer.service.BrokerNodes;
+import com.worldinfo.producer.service.PublishConnectionPool;
+
 @Configuration
+@EnableConfigurationProperties({PublishConnectionProperties.class, PartitionProperties.class, PriorityProperties.class,
+        BrokerProperties.class, DeadlineProperties.class})
 public class RabbitMQConfig {
 
     public static final String WORLD_INFO_QUEUE = "world_info";
@@ -23,6 +46,17 @@ public class RabbitMQConfig {
     public static final String EXT_PROVIDER_EXCHANGE = "world_info_ext_provider_exchange";
     public static final String EXT_PROVIDER_ROUTING_KEY = "world_info.ext_provider.rpc";
 
+    // meter tag and pool name of the single node built from spring.rabbitmq.*
+    private static final String DEFAULT_NODE = "default";
+
+    private final PriorityProperties priorityProperties;
+    private final DeadlineProperties deadlineProperties;
+
+    public RabbitMQConfig(PriorityProperties priorityProperties, DeadlineProperties deadlineProperties) {
+        this.priorityProperties = priorityProperties;
+        this.deadlineProperties = deadlineProperties;
+    }
+
     @Bean
     public TopicExchange worldInfoExchange() {
         return new TopicExchange(WORLD_INFO_EXCHANGE);
@@ -35,12 +69,12 @@ public class RabbitMQConfig {
 
     @Bean
     public Queue worldInfoQueue() {
-        return QueueBuilder.durable(WORLD_INFO_QUEUE).build();
+        return rpcQueue(RpcDestination.WORLD_INFO, WORLD_INFO_QUEUE);
     }
 
     @Bean
     public Queue extProviderQueue() {
-        return QueueBuilder.durable(EXT_PROVIDER_QUEUE).build();
+        return rpcQueue(RpcDestination.EXT_PROVIDER, EXT_PROVIDER_QUEUE);
     }
 
     @Bean
@@ -59,14 +93,184 @@ public class RabbitMQConfig {
                 .with(EXT_PROVIDER_ROUTING_KEY);
     }
 
+    /**
+     * Declares {@code count} durable partition queues per destination, named
+     * {@code <queue>.<n>}. In routing-key mode each is bound to the destination's
+     * topic exchange with {@code <routing key>.<n>}; in consistent-hash mode each
+     * is bound with weight 1 to an {@code x-consistent-hash} exchange, which needs
+     * the {@code rabbitmq_consistent_hash_exchange} plugin. The unpartitioned
+     * queues stay declared so existing consumers can drain them.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.topology.partitions.enabled", havingValue = "true")
+    public Declarables partitionedTopology(PartitionProperties properties) {
+        List<Declarable> declarables = new ArrayList<>();
+        for (RpcDestination destination : RpcDestination.values()) {
+            boolean consistentHash = properties.mode() == PartitionProperties.Mode.CONSISTENT_HASH;
+            if (consistentHash) {
+                declarables.add(new CustomExchange(destination.hashExchange(), "x-consistent-hash", true, false));
+            }
+            for (int partition = 0; partition < properties.count(); partition++) {
+                Queue queue = rpcQueue(destination, destination.partitionQueue(partition));
+                declarables.add(queue);
+                declarables.add(consistentHash
+                        ? new Binding(queue.getName(), Binding.DestinationType.QUEUE,
+                                destination.hashExchange(), "1", null)
+                        : new Binding(queue.getName(), Binding.DestinationType.QUEUE,
+                                destination.exchange(), destination.partitionRoutingKey(partition), null));
+            }
+        }
+        return new Declarables(declarables);
+    }
+
+    /**
+     * Declares one durable queue per lane and destination, {@code <queue>.lane.<name>}, bound to
+     * the destination's exchange with {@code <routing key>.lane.<name>}. Used by the
+     * {@code lanes} priority topology; the plain queues stay declared for existing consumers.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.publish.priority.enabled", havingValue = "true")
+    public Declarables priorityLaneTopology() {
+        List<Declarable> declarables = new ArrayList<>();
+        if (priorityProperties.topology() == PriorityProperties.Topology.LANES) {
+            for (RpcDestination destination : RpcDestination.values()) {
+                for (String lane : priorityProperties.lanes().keySet()) {
+                    Queue queue = deadLetter(QueueBuilder.durable(destination.laneQueue(lane)), destination).build();
+                    declarables.add(queue);
+                    declarables.add(new Binding(queue.getName(), Binding.DestinationType.QUEUE,
+                            destination.exchange(), destination.laneRoutingKey(lane), null));
+                }
+            }
+        }
+        return new Declarables(declarables);
+    }
+
+    /**
+     * Declares the dead-letter exchange and, per destination, a {@code <queue>.expired} queue
+     * bound to it with the destination's queue name. The RPC queues dead-letter with that key,
+     * so expired messages from the plain, partition and lane queues all end up together.
+     * Dead-lettered messages are kept for {@code retention}.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.publish.deadlines.dead-letter.enabled", havingValue = "true")
+    public Declarables deadLetterTopology() {
+        DeadlineProperties.DeadLetter deadLetter = deadlineProperties.deadLetter();
+        List<Declarable> declarables = new ArrayList<>();
+        DirectExchange exchange = new DirectExchange(deadLetter.exchange());
+        declarables.add(exchange);
+        for (RpcDestination destination : RpcDestination.values()) {
+            Queue queue = QueueBuilder.durable(destination.expiredQueue())
+                    .ttl((int) deadLetter.retention().toMillis())
+                    .build();
+            declarables.add(queue);
+            declarables.add(BindingBuilder.bind(queue).to(exchange).with(destination.queue()));
+        }
+        return new Declarables(declarables);
+    }
+
+    /**
+     * A durable RPC queue, with {@code x-max-priority} in the {@code max-priority} topology and
+     * a dead-letter exchange when {@code app.publish.deadlines.dead-letter} is enabled.
+     * RabbitMQ refuses to redeclare an existing queue with different arguments, so switching
+     * an existing deployment to either means deleting the queues first.
+     */
+    private Queue rpcQueue(RpcDestination destination, String name) {
+        QueueBuilder builder = QueueBuilder.durable(name);
+        if (priorityProperties.enabled()
+                && priorityProperties.topology() == PriorityProperties.Topology.MAX_PRIORITY) {
+            builder.maxPriority(priorityProperties.maxPriority());
+        }
+        return deadLetter(builder, destination).build();
+    }
+
+    private QueueBuilder deadLetter(QueueBuilder builder, RpcDestination destination) {
+        if (deadlineProperties.deadLetter().enabled()) {
+            builder.deadLetterExchange(deadlineProperties.deadLetter().exchange())
+                    .deadLetterRoutingKey(destination.queue());
+        }
+        return builder;
+    }
+
     @Bean
     public MessageConverter jsonMessageConverter() {
         return new Jackson2JsonMessageConverter();
     }
 
+    /**
+     * Builds the publish shards from the same {@code spring.rabbitmq.*} settings as
+     * Boot's own factory, then applies the {@code app.publish.connections} channel limits.
+     * With {@code app.publish.brokers.nodes} set, every node gets its own shards pointed at
+     * its address, and its own {@link RabbitAdmin} so that each node has the topology declared.
+     */
+    @Bean
+    public BrokerNodes brokerNodes(PublishConnectionProperties properties,
+                                   BrokerProperties brokerProperties,
+                                   RabbitConnectionFactoryBeanConfigurer factoryBeanConfigurer,
+                                   CachingConnectionFactoryConfigurer factoryConfigurer,
+                                   ApplicationEventPublisher eventPublisher,
+                                   ApplicationContext applicationContext,
+                                   AmqpAdmin amqpAdmin) throws Exception {
+        Map<String, PublishConnectionPool> pools = new LinkedHashMap<>();
+        if (brokerProperties.nodes().isEmpty()) {
+            pools.put(DEFAULT_NODE, publishConnectionPool(DEFAULT_NODE, null, properties, factoryBeanConfigurer,
+                    factoryConfigurer, eventPublisher, amqpAdmin));
+        } else {
+            for (BrokerProperties.Node node : brokerProperties.nodes()) {
+                if (pools.containsKey(node.id())) {
+                    throw new IllegalStateException("Duplicate broker node " + node.id());
+                }
+                pools.put(node.id(), publishConnectionPool(node.id(), node.address(), properties,
+                        factoryBeanConfigurer, factoryConfigurer, eventPublisher, null));
+            }
+            // Boot's admin only reaches spring.rabbitmq.*, so each node declares its own topology;
+            // declarables restricted to Boot's admin, like the exclusive reply queue, are skipped
+            pools.values().forEach(pool -> {
+                RabbitAdmin admin = new RabbitAdmin(pool.connectionFactory());
+                admin.setApplicationContext(applicationContext);
+                pool.connectionFactory().addConnectionListener(connection -> admin.initialize());
+            });
+        }
+        return new BrokerNodes(brokerProperties, pools);
+    }
+
+    private PublishConnectionPool publishConnectionPool(String node,
+                                                        String address,
+                                                        PublishConnectionProperties properties,
+                                                        RabbitConnectionFactoryBeanConfigurer factoryBeanConfigurer,
+                                                        CachingConnectionFactoryConfigurer factoryConfigurer,
+                                                        ApplicationEventPublisher eventPublisher,
+                                                        AmqpAdmin amqpAdmin) throws Exception {
+        int count = Math.max(1, properties.count());
+        List<CachingConnectionFactory> factories = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            RabbitConnectionFactoryBean factoryBean = new RabbitConnectionFactoryBean();
+            factoryBeanConfigurer.configure(factoryBean);
+            factoryBean.afterPropertiesSet();
+            CachingConnectionFactory factory = new CachingConnectionFactory(factoryBean.getObject());
+            factoryConfigurer.configure(factory);
+            if (address != null) {
+                factory.setAddresses(address);
+            }
+            String connectionName = DEFAULT_NODE.equals(node)
+                    ? "java-producer-publish-" + i
+                    : "java-producer-publish-" + node + "-" + i;
+            factory.setConnectionNameStrategy(connectionFactory -> connectionName);
+            factory.setChannelCacheSize(properties.channelCacheSize());
+            factory.setChannelCheckoutTimeout(properties.checkoutTimeout().toMillis());
+            // the shards are not beans, so blocked/unblocked events must be wired by hand
+            factory.setApplicationEventPublisher(eventPublisher);
+            if (amqpAdmin != null) {
+                // declare exchanges and queues even when nothing else has opened Boot's connection yet
+                factory.addConnectionListener(connection -> amqpAdmin.initialize());
+            }
+            factories.add(factory);
+        }
+        return new PublishConnectionPool(node, factories);
+    }
+
     @Bean
-    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
-        RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
+    public RabbitTemplate rabbitTemplate(BrokerNodes brokerNodes) {
+        RabbitTemplate rabbitTemplate = new RabbitTemplate(brokerNodes.connectionFactory());
         rabbitTemplate.setMessageConverter(jsonMessageConverter());
         return rabbitTemplate;
     }
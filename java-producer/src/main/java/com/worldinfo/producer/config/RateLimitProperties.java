@@ -0,0 +1,78 @@
+package com.worldinfo.producer.config;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Admission limits for the producer endpoints.
+ *
+ * @param enabled      reject over-limit requests with 429 instead of queueing them
+ * @param defaultRoute limit applied to every route without its own entry
+ * @param routes       per-route limits, keyed by request mapping pattern
+ *                     (for example {@code "[/api/v1/world-info/send]"})
+ * @param methods      per-JSON-RPC-method limits, checked in addition to the route limit
+ * @param adaptive     load-driven scaling of all limits
+ */
+@ConfigurationProperties(prefix = "app.rate-limit")
+public record RateLimitProperties(
+        @DefaultValue("true")
+        boolean enabled,
+
+        @DefaultValue
+        Limit defaultRoute,
+
+        Map<String, Limit> routes,
+
+        Map<String, Limit> methods,
+
+        @DefaultValue
+        Adaptive adaptive
+) {
+    public RateLimitProperties {
+        routes = routes != null ? routes : Map.of();
+        methods = methods != null ? methods : Map.of();
+    }
+
+    /**
+     * @param permitsPerSecond sustained rate
+     * @param burst            tokens that can accumulate while idle
+     */
+    public record Limit(
+            @DefaultValue("1000")
+            double permitsPerSecond,
+
+            @DefaultValue("2000")
+            long burst
+    ) {
+    }
+
+    /**
+     * AIMD scaling: while the publish latency average is above {@code targetLatency}
+     * every limit is multiplied by {@code decreaseFactor} once a second (down to
+     * {@code minFactor}); otherwise it recovers by {@code increaseStep}. While the broker
+     * has the connection blocked, every request is shed.
+     */
+    public record Adaptive(
+            @DefaultValue("true")
+            boolean enabled,
+
+            @DefaultValue("250ms")
+            Duration targetLatency,
+
+            @DefaultValue("0.7")
+            double decreaseFactor,
+
+            @DefaultValue("0.05")
+            double increaseStep,
+
+            @DefaultValue("0.05")
+            double minFactor,
+
+            @DefaultValue("5s")
+            Duration blockedRetryAfter
+    ) {
+    }
+}
@@ -0,0 +1,48 @@
+package com.worldinfo.producer.config;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.worldinfo.producer.service.RandomUuidRequestIdGenerator;
+import com.worldinfo.producer.service.RequestIdGenerator;
+import com.worldinfo.producer.service.TimeOrderedRequestIdGenerator;
+
+@Configuration
+@EnableConfigurationProperties(RequestIdProperties.class)
+public class RequestIdConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestIdConfig.class);
+
+    @Bean
+    public RequestIdGenerator requestIdGenerator(RequestIdProperties properties) {
+        return switch (properties.strategy()) {
+            case RANDOM_UUID -> new RandomUuidRequestIdGenerator();
+            case TIME_ORDERED -> {
+                int nodeId = properties.nodeId() != null ? properties.nodeId() : deriveNodeId();
+                logger.info("Generating time-ordered request ids with node id {}", nodeId);
+                yield new TimeOrderedRequestIdGenerator(nodeId);
+            }
+        };
+    }
+
+    /**
+     * Best-effort node id for when none is configured: host name and pid folded to 16 bits.
+     * Set {@code app.request-id.node-id} per instance when uniqueness must be guaranteed.
+     */
+    private static int deriveNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "unknown";
+        }
+        int hash = host.hashCode() * 31 + Long.hashCode(ProcessHandle.current().pid());
+        return (hash ^ (hash >>> 16)) & 0xFFFF;
+    }
+}
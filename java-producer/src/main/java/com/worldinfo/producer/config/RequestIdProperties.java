@@ -0,0 +1,24 @@
+package com.worldinfo.producer.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for JSON-RPC request id generation.
+ *
+ * @param strategy {@code time-ordered} for UUIDv7 ids, {@code random-uuid} for UUIDv4
+ * @param nodeId   16-bit id of this producer instance, embedded in time-ordered ids;
+ *                 derived from the host name and process id when not set
+ */
+@ConfigurationProperties(prefix = "app.request-id")
+public record RequestIdProperties(
+        @DefaultValue("time-ordered")
+        Strategy strategy,
+
+        Integer nodeId
+) {
+    public enum Strategy {
+        TIME_ORDERED,
+        RANDOM_UUID
+    }
+}
@@ -0,0 +1,34 @@
+package com.worldinfo.producer.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for the synchronous JSON-RPC call path.
+ *
+ * @param enabled          declare a reply queue and expose {@code /call}
+ * @param replyQueuePrefix prefix of the exclusive per-instance reply queue
+ * @param defaultTimeout   reply timeout when the caller does not ask for one
+ * @param maxTimeout       upper bound on caller-supplied timeouts
+ * @param maxPending       calls allowed to wait for a reply at once
+ */
+@ConfigurationProperties(prefix = "app.rpc.call")
+public record RpcCallProperties(
+        @DefaultValue("true")
+        boolean enabled,
+
+        @DefaultValue("world_info.reply.")
+        String replyQueuePrefix,
+
+        @DefaultValue("30s")
+        Duration defaultTimeout,
+
+        @DefaultValue("120s")
+        Duration maxTimeout,
+
+        @DefaultValue("10000")
+        int maxPending
+) {
+}
@@ -0,0 +1,85 @@
+package com.worldinfo.producer.config;
+
+/**
+ * JSON-RPC namespaces the producer publishes to, with their AMQP topology.
+ */
+public enum RpcDestination {
+
+    WORLD_INFO(
+            "world_info",
+            "world_info.rpc.send",
+            RabbitMQConfig.WORLD_INFO_EXCHANGE,
+            RabbitMQConfig.WORLD_INFO_ROUTING_KEY,
+            RabbitMQConfig.WORLD_INFO_QUEUE),
+
+    EXT_PROVIDER(
+            "world_info.ext_provider",
+            "ext_provider.rpc.send",
+            RabbitMQConfig.EXT_PROVIDER_EXCHANGE,
+            RabbitMQConfig.EXT_PROVIDER_ROUTING_KEY,
+            RabbitMQConfig.EXT_PROVIDER_QUEUE);
+
+    private final String service;
+    private final String spanName;
+    private final String exchange;
+    private final String routingKey;
+    private final String queue;
+
+    RpcDestination(String service, String spanName, String exchange, String routingKey, String queue) {
+        this.service = service;
+        this.spanName = spanName;
+        this.exchange = exchange;
+        this.routingKey = routingKey;
+        this.queue = queue;
+    }
+
+    public String service() {
+        return service;
+    }
+
+    public String spanName() {
+        return spanName;
+    }
+
+    public String exchange() {
+        return exchange;
+    }
+
+    public String routingKey() {
+        return routingKey;
+    }
+
+    public String queue() {
+        return queue;
+    }
+
+    public String partitionQueue(int partition) {
+        return queue + "." + partition;
+    }
+
+    public String partitionRoutingKey(int partition) {
+        return routingKey + "." + partition;
+    }
+
+    public String laneQueue(String lane) {
+        return queue + ".lane." + lane;
+    }
+
+    public String laneRoutingKey(String lane) {
+        return routingKey + ".lane." + lane;
+    }
+
+    /**
+     * The queue the destination's expired messages are dead-lettered to.
+     */
+    public String expiredQueue() {
+        return queue + ".expired";
+    }
+
+    /**
+     * The {@code x-consistent-hash} exchange the partitions hang off in consistent-hash mode.
+     */
+    public String hashExchange() {
+        return exchange + ".hash";
+    }
+}
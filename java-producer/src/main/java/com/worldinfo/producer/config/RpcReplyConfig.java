@@ -0,0 +1,68 @@
+package com.worldinfo.producer.config;
+
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Base64UrlNamingStrategy;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.listener.DirectMessageListenerContainer;
+import org.springframework.boot.autoconfigure.amqp.RabbitConnectionDetails;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.worldinfo.producer.service.RpcCallService;
+
+/**
+ * One exclusive, auto-delete reply queue per producer instance, consumed with
+ * auto-ack by a {@link DirectMessageListenerContainer} that hands replies to
+ * {@link RpcCallService}.
+ * <p>
+ * The queue lives on the {@code spring.rabbitmq.*} broker, owned by the listener's
+ * connection, so only Boot's admin declares it: the per-node admins of
+ * {@code app.publish.brokers} would get {@code RESOURCE_LOCKED} redeclaring it from
+ * their own connections. For the same reason the first broker node, which takes the
+ * calls that wait for a reply, must be that broker.
+ */
+@Configuration
+@EnableConfigurationProperties(RpcCallProperties.class)
+@ConditionalOnProperty(name = "app.rpc.call.enabled", havingValue = "true", matchIfMissing = true)
+public class RpcReplyConfig {
+
+    @Bean
+    public AnonymousQueue rpcReplyQueue(RpcCallProperties properties, AmqpAdmin amqpAdmin) {
+        AnonymousQueue queue = new AnonymousQueue(new Base64UrlNamingStrategy(properties.replyQueuePrefix()));
+        queue.setAdminsThatShouldDeclare(amqpAdmin);
+        return queue;
+    }
+
+    @Bean
+    public DirectMessageListenerContainer rpcReplyContainer(ConnectionFactory connectionFactory,
+                                                            AnonymousQueue rpcReplyQueue,
+                                                            RpcCallService rpcCallService,
+                                                            BrokerProperties brokerProperties,
+                                                            RabbitConnectionDetails connectionDetails) {
+        requireReplyBrokerFirst(brokerProperties, connectionDetails);
+        DirectMessageListenerContainer container = new DirectMessageListenerContainer(connectionFactory);
+        container.setQueues(rpcReplyQueue);
+        container.setAcknowledgeMode(AcknowledgeMode.NONE);
+        container.setMessageListener(rpcCallService);
+        return container;
+    }
+
+    private static void requireReplyBrokerFirst(BrokerProperties brokerProperties,
+                                                RabbitConnectionDetails connectionDetails) {
+        if (brokerProperties.nodes().isEmpty()) {
+            return;
+        }
+        BrokerProperties.Node first = brokerProperties.nodes().get(0);
+        boolean replyBroker = connectionDetails.getAddresses().stream()
+                .anyMatch(address -> address.host().equalsIgnoreCase(first.host()) && address.port() == first.port());
+        if (!replyBroker) {
+            throw new IllegalStateException("The first of app.publish.brokers.nodes (" + first.address()
+                    + ") takes calls that wait for a reply, so it must be a spring.rabbitmq broker "
+                    + connectionDetails.getAddresses() + " where the reply queue is declared");
+        }
+    }
+}
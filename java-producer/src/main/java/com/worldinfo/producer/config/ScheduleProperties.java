@@ -0,0 +1,53 @@
+package com.worldinfo.producer.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for requests scheduled through {@code /api/v1/schedules}.
+ *
+ * @param enabled            accept schedules and run the timing wheel
+ * @param tick               resolution of the timing wheel; runs fire up to one tick late
+ * @param wheelSize          buckets per wheel level, a power of two
+ * @param levels             wheel levels, at least 2; {@code tick * wheelSize^levels} is the furthest
+ *                           a timer is placed directly, later ones wait in the top level
+ * @param maxSchedules       registrations past this are refused with 503
+ * @param minInterval        shortest interval a recurring schedule may use
+ * @param snapshotPath       file the schedules are saved to and restored from on start;
+ *                           empty keeps them in memory only
+ * @param snapshotIntervalMs how often changed schedules are saved
+ */
+@ConfigurationProperties(prefix = "app.schedules")
+public record ScheduleProperties(
+        @DefaultValue("true")
+        boolean enabled,
+
+        @DefaultValue("10ms")
+        Duration tick,
+
+        @DefaultValue("512")
+        int wheelSize,
+
+        @DefaultValue("4")
+        int levels,
+
+        @DefaultValue("1000000")
+        int maxSchedules,
+
+        @DefaultValue("1s")
+        Duration minInterval,
+
+        @DefaultValue("")
+        String snapshotPath,
+
+        @DefaultValue("5000")
+        long snapshotIntervalMs
+) {
+    public ScheduleProperties {
+        if (levels < 2) {
+            throw new IllegalArgumentException("app.schedules.levels must be at least 2, was " + levels);
+        }
+    }
+}
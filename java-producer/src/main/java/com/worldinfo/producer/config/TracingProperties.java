@@ -0,0 +1,62 @@
+package com.worldinfo.producer.config;
+
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Tracing of the publish path.
+ *
+ * @param enabled  create publish spans and propagate trace context at all
+ * @param mode     {@code legacy}: HTTP, scheduler and publish spans, with trace ids in both the
+ *                 body and {@code trace_id}/{@code span_id} headers; {@code lean}: one producer span
+ *                 per sampled message, parented to the caller's context, propagated only as a W3C
+ *                 {@code traceparent} header
+ * @param sampling head sampling applied in {@code lean} mode
+ */
+@ConfigurationProperties(prefix = "app.tracing")
+public record TracingProperties(
+        @DefaultValue("true")
+        boolean enabled,
+
+        @DefaultValue("legacy")
+        Mode mode,
+
+        @DefaultValue
+        Sampling sampling
+) {
+    public enum Mode {
+        LEGACY,
+        LEAN
+    }
+
+    /**
+     * The most specific ratio wins: method, then destination, then the default.
+     *
+     * @param ratio        fraction of messages traced when nothing more specific is set
+     * @param destinations ratio per destination ({@code world-info}, {@code ext-provider})
+     * @param methods      ratio per JSON-RPC method
+     */
+    public record Sampling(
+            @DefaultValue("1.0")
+            double ratio,
+
+            Map<RpcDestination, Double> destinations,
+
+            Map<String, Double> methods
+    ) {
+        public Sampling {
+            destinations = destinations != null ? Map.copyOf(destinations) : Map.of();
+            methods = methods != null ? Map.copyOf(methods) : Map.of();
+        }
+
+        public double ratioFor(RpcDestination destination, String method) {
+            Double configured = method != null ? methods.get(method) : null;
+            if (configured == null) {
+                configured = destinations.get(destination);
+            }
+            return configured != null ? configured : ratio;
+        }
+    }
+}
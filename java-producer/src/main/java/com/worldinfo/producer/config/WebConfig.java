@@ -0,0 +1,32 @@
+package com.worldinfo.producer.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.worldinfo.producer.controller.RateLimitInterceptor;
+import com.worldinfo.producer.service.PublishRateLimiter;
+
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class WebConfig implements WebMvcConfigurer {
+
+    private final PublishRateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+
+    public WebConfig(PublishRateLimiter rateLimiter, ObjectMapper objectMapper) {
+        this.rateLimiter = rateLimiter;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (rateLimiter.isEnabled()) {
+            registry.addInterceptor(new RateLimitInterceptor(rateLimiter, objectMapper))
+                    .addPathPatterns("/api/v1/**")
+                    .excludePathPatterns("/api/v1/health", "/api/v1/stats");
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.worldinfo.producer.config;
+
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import com.worldinfo.producer.codec.WireFormat;
+
+/**
+ * Which encoding requests are published in.
+ *
+ * @param defaultFormat format used when neither the method nor the exchange has one
+ * @param exchanges     format per exchange name
+ * @param methods       format per JSON-RPC method; wins over the exchange
+ */
+@ConfigurationProperties(prefix = "app.publish.wire-format")
+public record WireFormatProperties(
+        @DefaultValue("json")
+        WireFormat defaultFormat,
+
+        Map<String, WireFormat> exchanges,
+
+        Map<String, WireFormat> methods
+) {
+    public WireFormatProperties {
+        exchanges = exchanges != null ? Map.copyOf(exchanges) : Map.of();
+        methods = methods != null ? Map.copyOf(methods) : Map.of();
+    }
+
+    public WireFormat resolve(String exchange, String method) {
+        WireFormat format = methods.get(method);
+        if (format == null) {
+            format = exchanges.get(exchange);
+        }
+        return format != null ? format : defaultFormat;
+    }
+}
@@ -0,0 +1,40 @@
+package com.worldinfo.producer.controller;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.http.HttpStatus;
+
+import com.worldinfo.producer.model.JsonRpcError;
+import com.worldinfo.producer.service.JsonRpcException;
+
+/**
+ * Maps publish failures to HTTP statuses shared by the servlet and reactive front ends.
+ */
+final class ErrorStatus {
+
+    private ErrorStatus() {
+    }
+
+    /**
+     * Saturation (executor or confirm window full) is reported as 503 so callers back off,
+     * timeouts as 504, anything else as 500. Methods the registry rejects are the
+     * caller's mistake: 404 for an unknown method, 400 for bad params.
+     */
+    static HttpStatus of(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof JsonRpcException rpc) {
+                return rpc.error().code() == JsonRpcError.methodNotFound().code()
+                        ? HttpStatus.NOT_FOUND
+                        : HttpStatus.BAD_REQUEST;
+            }
+            if (cause instanceof RejectedExecutionException) {
+                return HttpStatus.SERVICE_UNAVAILABLE;
+            }
+            if (cause instanceof TimeoutException) {
+                return HttpStatus.GATEWAY_TIMEOUT;
+            }
+        }
+        return HttpStatus.INTERNAL_SERVER_ERROR;
+    }
+}
@@ -0,0 +1,75 @@
+package com.worldinfo.producer.controller;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import com.worldinfo.producer.config.LoadGeneratorProperties.Ramp;
+import com.worldinfo.producer.model.LoadReport;
+import com.worldinfo.producer.service.LoadGenerator;
+
+/**
+ * {@code /actuator/loadgen}: GET reports the current or last run, POST starts a run
+ * (optional {@code rate}, {@code duration} such as {@code 2m}, {@code ramp}), DELETE stops it.
+ */
+@Component
+@Endpoint(id = "loadgen")
+@ConditionalOnProperty(name = "app.loadgen.enabled", havingValue = "true")
+public class LoadGeneratorEndpoint {
+
+    private final LoadGenerator loadGenerator;
+
+    public LoadGeneratorEndpoint(LoadGenerator loadGenerator) {
+        this.loadGenerator = loadGenerator;
+    }
+
+    @ReadOperation
+    public LoadReport status() {
+        return loadGenerator.status();
+    }
+
+    /**
+     * Starts a run, or reports the one already in progress.
+     *
+     * @throws InvalidEndpointRequestException (400) for a non-positive rate or duration or an unknown ramp
+     */
+    @WriteOperation
+    public LoadReport start(@Nullable Double rate, @Nullable Duration duration, @Nullable String ramp) {
+        if (rate != null && !(rate > 0)) {
+            throw new InvalidEndpointRequestException("rate must be positive, was " + rate, "Invalid rate");
+        }
+        if (duration != null && (duration.isNegative() || duration.isZero())) {
+            throw new InvalidEndpointRequestException("duration must be positive, was " + duration,
+                    "Invalid duration");
+        }
+        Ramp rampValue = ramp != null ? parseRamp(ramp) : null;
+        try {
+            return loadGenerator.start(rate, duration, rampValue);
+        } catch (IllegalStateException e) {
+            return loadGenerator.status();
+        }
+    }
+
+    private static Ramp parseRamp(String ramp) {
+        try {
+            return Ramp.valueOf(ramp.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException("ramp must be one of "
+                    + Arrays.toString(Ramp.values()).toLowerCase(Locale.ROOT) + ", was " + ramp, "Invalid ramp");
+        }
+    }
+
+    @DeleteOperation
+    public LoadReport stop() {
+        return loadGenerator.stop();
+    }
+}
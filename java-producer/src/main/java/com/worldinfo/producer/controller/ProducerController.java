@@ -1,18 +1,33 @@
 package com.worldinfo.producer.controller;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.worldinfo.producer.model.BatchItemResult;
+import com.worldinfo.producer.model.BatchRequestItem;
+import com.worldinfo.producer.model.BatchSendResponse;
+import com.worldinfo.producer.model.PublishStats;
+import com.worldinfo.producer.model.SendResponse;
+import com.worldinfo.producer.service.PublishLog;
+import com.worldinfo.producer.service.PublishMetrics;
+import com.worldinfo.producer.service.PublishTracing;
+import com.worldinfo.producer.service.RequestDeadlines;
 import com.worldinfo.producer.service.WorldInfoProducerService;
 
 import io.opentelemetry.api.trace.Span;
@@ -20,21 +35,29 @@ import io.opentelemetry.api.trace.Tracer;
 
 @RestController
 @RequestMapping("/api/v1")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class ProducerController {
 
     private static final Logger logger = LoggerFactory.getLogger(ProducerController.class);
 
     private final WorldInfoProducerService producerService;
     private final Tracer tracer;
+    private final PublishLog publishLog;
+    private final PublishMetrics publishMetrics;
 
-    public ProducerController(WorldInfoProducerService producerService, Tracer tracer) {
+    public ProducerController(WorldInfoProducerService producerService, PublishTracing tracing,
+                              PublishLog publishLog,
+                              PublishMetrics publishMetrics) {
         this.producerService = producerService;
-        this.tracer = tracer;
+        this.tracer = tracing.requestTracer();
+        this.publishLog = publishLog;
+        this.publishMetrics = publishMetrics;
     }
 
     @PostMapping("/world-info/send")
-    public CompletableFuture<ResponseEntity<Map<String, String>>> sendWorldInfoRequest(
+    public CompletableFuture<ResponseEntity<SendResponse>> sendWorldInfoRequest(
             @RequestParam String method,
+            @RequestHeader(name = RequestDeadlines.TIMEOUT_HEADER, required = false) Long timeoutMs,
             @RequestBody(required = false) Map<String, Object> params) {
         
         Span span = tracer.spanBuilder("http.request.world_info")
@@ -44,29 +67,25 @@ public class ProducerController {
                 .startSpan();
 
         try {
-            logger.info("Received request to send world info method: {}", method);
+            if (publishLog.sample()) {
+                logger.info("Received request to send world info method: {}", method);
+            }
             
-            return producerService.sendWorldInfoRequest(method, params != null ? params : Map.of())
-                    .thenApply(requestId -> {
+            return producerService.sendWorldInfoRequest(method, params != null ? params : Map.of(),
+                            timeout(timeoutMs))
+                    .thenApply(receipt -> {
                         span.setStatus(io.opentelemetry.api.trace.StatusCode.OK);
                         span.end();
-                        return ResponseEntity.ok(Map.of(
-                                "success", "true",
-                                "requestId", requestId,
-                                "method", method,
-                                "traceId", span.getSpanContext().getTraceId()
-                        ));
+                        return ResponseEntity.ok(
+                                SendResponse.accepted(receipt, method, PublishTracing.traceId(span)));
                     })
                     .exceptionally(throwable -> {
                         span.recordException(throwable);
                         span.setStatus(io.opentelemetry.api.trace.StatusCode.ERROR, throwable.getMessage());
                         span.end();
                         logger.error("Failed to send world info request", throwable);
-                        return ResponseEntity.internalServerError().body(Map.of(
-                                "success", "false",
-                                "error", throwable.getMessage(),
-                                "method", method
-                        ));
+                        return ResponseEntity.status(ErrorStatus.of(throwable))
+                                .body(SendResponse.failed(method, throwable.getMessage()));
                     });
                     
         } catch (Exception e) {
@@ -78,8 +97,9 @@ public class ProducerController {
     }
 
     @PostMapping("/ext-provider/send")
-    public CompletableFuture<ResponseEntity<Map<String, String>>> sendExtProviderRequest(
+    public CompletableFuture<ResponseEntity<SendResponse>> sendExtProviderRequest(
             @RequestParam String method,
+            @RequestHeader(name = RequestDeadlines.TIMEOUT_HEADER, required = false) Long timeoutMs,
             @RequestBody(required = false) Map<String, Object> params) {
         
         Span span = tracer.spanBuilder("http.request.ext_provider")
@@ -89,29 +109,25 @@ public class ProducerController {
                 .startSpan();
 
         try {
-            logger.info("Received request to send ext provider method: {}", method);
+            if (publishLog.sample()) {
+                logger.info("Received request to send ext provider method: {}", method);
+            }
             
-            return producerService.sendExtProviderRequest(method, params != null ? params : Map.of())
-                    .thenApply(requestId -> {
+            return producerService.sendExtProviderRequest(method, params != null ? params : Map.of(),
+                            timeout(timeoutMs))
+                    .thenApply(receipt -> {
                         span.setStatus(io.opentelemetry.api.trace.StatusCode.OK);
                         span.end();
-                        return ResponseEntity.ok(Map.of(
-                                "success", "true",
-                                "requestId", requestId,
-                                "method", method,
-                                "traceId", span.getSpanContext().getTraceId()
-                        ));
+                        return ResponseEntity.ok(
+                                SendResponse.accepted(receipt, method, PublishTracing.traceId(span)));
                     })
                     .exceptionally(throwable -> {
                         span.recordException(throwable);
                         span.setStatus(io.opentelemetry.api.trace.StatusCode.ERROR, throwable.getMessage());
                         span.end();
                         logger.error("Failed to send ext provider request", throwable);
-                        return ResponseEntity.internalServerError().body(Map.of(
-                                "success", "false",
-                                "error", throwable.getMessage(),
-                                "method", method
-                        ));
+                        return ResponseEntity.status(ErrorStatus.of(throwable))
+                                .body(SendResponse.failed(method, throwable.getMessage()));
                     });
                     
         } catch (Exception e) {
@@ -122,6 +138,72 @@ public class ProducerController {
         }
     }
 
+    @PostMapping("/world-info/send-batch")
+    public CompletableFuture<ResponseEntity<BatchSendResponse>> sendWorldInfoBatch(
+            @RequestHeader(name = RequestDeadlines.TIMEOUT_HEADER, required = false) Long timeoutMs,
+            @RequestBody List<BatchRequestItem> items) {
+        return sendBatch("/api/v1/world-info/send-batch", "http.request.world_info_batch", items,
+                timeout(timeoutMs), producerService::sendWorldInfoBatch);
+    }
+
+    @PostMapping("/ext-provider/send-batch")
+    public CompletableFuture<ResponseEntity<BatchSendResponse>> sendExtProviderBatch(
+            @RequestHeader(name = RequestDeadlines.TIMEOUT_HEADER, required = false) Long timeoutMs,
+            @RequestBody List<BatchRequestItem> items) {
+        return sendBatch("/api/v1/ext-provider/send-batch", "http.request.ext_provider_batch", items,
+                timeout(timeoutMs), producerService::sendExtProviderBatch);
+    }
+
+    private CompletableFuture<ResponseEntity<BatchSendResponse>> sendBatch(
+            String route,
+            String spanName,
+            List<BatchRequestItem> items,
+            Duration timeout,
+            BiFunction<List<BatchRequestItem>, Duration, CompletableFuture<List<BatchItemResult>>> sender) {
+
+        if (items == null || items.isEmpty()) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+        if (items.size() > producerService.getMaxBatchItems()) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build());
+        }
+
+        Span span = tracer.spanBuilder(spanName)
+                .setAttribute("http.method", "POST")
+                .setAttribute("http.route", route)
+                .setAttribute("messaging.batch.message_count", items.size())
+                .startSpan();
+
+        try {
+            if (publishLog.sample()) {
+                logger.info("Received batch of {} requests on {}", items.size(), route);
+            }
+
+            return sender.apply(items, timeout)
+                    .thenApply(results -> {
+                        BatchSendResponse response = BatchSendResponse.of(results, PublishTracing.traceId(span));
+                        span.setStatus(response.success()
+                                ? io.opentelemetry.api.trace.StatusCode.OK
+                                : io.opentelemetry.api.trace.StatusCode.ERROR);
+                        span.end();
+                        return ResponseEntity.ok(response);
+                    })
+                    .exceptionally(throwable -> {
+                        span.recordException(throwable);
+                        span.setStatus(io.opentelemetry.api.trace.StatusCode.ERROR, throwable.getMessage());
+                        span.end();
+                        logger.error("Failed to send batch on {}", route, throwable);
+                        return ResponseEntity.status(ErrorStatus.of(throwable)).build();
+                    });
+
+        } catch (Exception e) {
+            span.recordException(e);
+            span.setStatus(io.opentelemetry.api.trace.StatusCode.ERROR, e.getMessage());
+            span.end();
+            throw e;
+        }
+    }
+
     @GetMapping("/health")
     public ResponseEntity<Map<String, Object>> health() {
         return ResponseEntity.ok(Map.of(
@@ -130,4 +212,16 @@ public class ProducerController {
                 "timestamp", System.currentTimeMillis()
         ));
     }
+
+    /**
+     * Publish stage latencies, throughput and failures in the last completed metrics window.
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<PublishStats> stats() {
+        return ResponseEntity.ok(publishMetrics.snapshot());
+    }
+
+    private static Duration timeout(Long timeoutMs) {
+        return timeoutMs != null ? Duration.ofMillis(timeoutMs) : null;
+    }
 }
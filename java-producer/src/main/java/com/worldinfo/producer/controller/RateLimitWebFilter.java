@@ -0,0 +1,83 @@
+package com.worldinfo.producer.controller;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.worldinfo.producer.model.SendResponse;
+import com.worldinfo.producer.service.PublishRateLimiter;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of {@link RateLimitInterceptor}.
+ * <p>
+ * Filters run before the dispatcher picks a handler, so the filter resolves the
+ * handler itself to key buckets on the matched request mapping pattern, as the
+ * interceptor does. Requests no mapping matches share one bucket.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class RateLimitWebFilter implements WebFilter {
+
+    static final String UNMATCHED_ROUTE = "/api/v1/**";
+
+    private final PublishRateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+    private final HandlerMapping handlerMapping;
+
+    public RateLimitWebFilter(PublishRateLimiter rateLimiter, ObjectMapper objectMapper,
+                              @Qualifier("requestMappingHandlerMapping") HandlerMapping handlerMapping) {
+        this.rateLimiter = rateLimiter;
+        this.objectMapper = objectMapper;
+        this.handlerMapping = handlerMapping;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String path = exchange.getRequest().getPath().pathWithinApplication().value();
+        if (!rateLimiter.isEnabled() || !path.startsWith("/api/v1/") || path.equals("/api/v1/health")
+                || path.equals("/api/v1/stats")) {
+            return chain.filter(exchange);
+        }
+        return handlerMapping.getHandler(exchange)
+                .map(handler -> exchange.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE)
+                        instanceof PathPattern pattern ? pattern.getPatternString() : UNMATCHED_ROUTE)
+                // 404/405/415 are the dispatcher's to report; they still count against the shared bucket
+                .onErrorResume(e -> Mono.just(UNMATCHED_ROUTE))
+                .defaultIfEmpty(UNMATCHED_ROUTE)
+                .flatMap(route -> admit(exchange, chain, route));
+    }
+
+    private Mono<Void> admit(ServerWebExchange exchange, WebFilterChain chain, String route) {
+        String method = exchange.getRequest().getQueryParams().getFirst("method");
+        PublishRateLimiter.Decision decision = rateLimiter.tryAcquire(route, method);
+        if (decision.admitted()) {
+            return chain.filter(exchange);
+        }
+
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(decision.retryAfterSeconds()));
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        try {
+            DataBuffer body = response.bufferFactory().wrap(
+                    objectMapper.writeValueAsBytes(SendResponse.failed(method, decision.reason())));
+            return response.writeWith(Mono.just(body));
+        } catch (JsonProcessingException e) {
+            return Mono.error(e);
+        }
+    }
+}
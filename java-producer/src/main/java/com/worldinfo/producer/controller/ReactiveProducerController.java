@@ -0,0 +1,196 @@
+package com.worldinfo.producer.controller;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.worldinfo.producer.model.BatchItemResult;
+import com.worldinfo.producer.model.BatchRequestItem;
+import com.worldinfo.producer.model.BatchSendResponse;
+import com.worldinfo.producer.model.PublishReceipt;
+import com.worldinfo.producer.model.PublishStats;
+import com.worldinfo.producer.model.SendResponse;
+import com.worldinfo.producer.service.PublishLog;
+import com.worldinfo.producer.service.PublishMetrics;
+import com.worldinfo.producer.service.PublishTracing;
+import com.worldinfo.producer.service.RequestDeadlines;
+import com.worldinfo.producer.service.WorldInfoProducerService;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux variant of {@link ProducerController}, active when
+ * {@code spring.main.web-application-type=reactive}. Same routes and response
+ * bodies; requests are served on Netty event loops, and each publish is awaited
+ * through its confirm future rather than a parked thread.
+ */
+@RestController
+@RequestMapping("/api/v1")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveProducerController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveProducerController.class);
+
+    private final WorldInfoProducerService producerService;
+    private final Tracer tracer;
+    private final PublishLog publishLog;
+    private final PublishMetrics publishMetrics;
+
+    public ReactiveProducerController(WorldInfoProducerService producerService, PublishTracing tracing,
+                                      PublishLog publishLog,
+                                      PublishMetrics publishMetrics) {
+        this.producerService = producerService;
+        this.tracer = tracing.requestTracer();
+        this.publishLog = publishLog;
+        this.publishMetrics = publishMetrics;
+    }
+
+    @PostMapping("/world-info/send")
+    public Mono<ResponseEntity<SendResponse>> sendWorldInfoRequest(
+            @RequestParam String method,
+            @RequestHeader(name = RequestDeadlines.TIMEOUT_HEADER, required = false) Long timeoutMs,
+            @RequestBody(required = false) Map<String, Object> params) {
+        return send("http.request.world_info", "/api/v1/world-info/send", method, params,
+                (m, p) -> producerService.sendWorldInfoRequest(m, p, timeout(timeoutMs)));
+    }
+
+    @PostMapping("/ext-provider/send")
+    public Mono<ResponseEntity<SendResponse>> sendExtProviderRequest(
+            @RequestParam String method,
+            @RequestHeader(name = RequestDeadlines.TIMEOUT_HEADER, required = false) Long timeoutMs,
+            @RequestBody(required = false) Map<String, Object> params) {
+        return send("http.request.ext_provider", "/api/v1/ext-provider/send", method, params,
+                (m, p) -> producerService.sendExtProviderRequest(m, p, timeout(timeoutMs)));
+    }
+
+    @PostMapping("/world-info/send-batch")
+    public Mono<ResponseEntity<BatchSendResponse>> sendWorldInfoBatch(
+            @RequestHeader(name = RequestDeadlines.TIMEOUT_HEADER, required = false) Long timeoutMs,
+            @RequestBody List<BatchRequestItem> items) {
+        return sendBatch("http.request.world_info_batch", "/api/v1/world-info/send-batch", items,
+                timeout(timeoutMs), producerService::sendWorldInfoBatch);
+    }
+
+    @PostMapping("/ext-provider/send-batch")
+    public Mono<ResponseEntity<BatchSendResponse>> sendExtProviderBatch(
+            @RequestHeader(name = RequestDeadlines.TIMEOUT_HEADER, required = false) Long timeoutMs,
+            @RequestBody List<BatchRequestItem> items) {
+        return sendBatch("http.request.ext_provider_batch", "/api/v1/ext-provider/send-batch", items,
+                timeout(timeoutMs), producerService::sendExtProviderBatch);
+    }
+
+    @GetMapping("/health")
+    public Mono<ResponseEntity<Map<String, Object>>> health() {
+        return Mono.just(ResponseEntity.ok(Map.of(
+                "status", "UP",
+                "service", "java-producer",
+                "timestamp", System.currentTimeMillis()
+        )));
+    }
+
+    @GetMapping("/stats")
+    public Mono<ResponseEntity<PublishStats>> stats() {
+        return Mono.fromSupplier(() -> ResponseEntity.ok(publishMetrics.snapshot()));
+    }
+
+    private Mono<ResponseEntity<SendResponse>> send(
+            String spanName,
+            String route,
+            String method,
+            Map<String, Object> params,
+            BiFunction<String, Map<String, Object>, CompletableFuture<PublishReceipt>> sender) {
+
+        return Mono.defer(() -> {
+            Span span = tracer.spanBuilder(spanName)
+                    .setAttribute("http.method", "POST")
+                    .setAttribute("http.route", route)
+                    .setAttribute("rpc.method", method)
+                    .startSpan();
+
+            if (publishLog.sample()) {
+                logger.info("Received request to send method: {} on {}", method, route);
+            }
+
+            return Mono.fromFuture(() -> sender.apply(method, params != null ? params : Map.of()))
+                    .map(receipt -> {
+                        span.setStatus(io.opentelemetry.api.trace.StatusCode.OK);
+                        span.end();
+                        return ResponseEntity.ok(
+                                SendResponse.accepted(receipt, method, PublishTracing.traceId(span)));
+                    })
+                    .onErrorResume(throwable -> {
+                        span.recordException(throwable);
+                        span.setStatus(io.opentelemetry.api.trace.StatusCode.ERROR, throwable.getMessage());
+                        span.end();
+                        logger.error("Failed to send request on {}", route, throwable);
+                        return Mono.just(ResponseEntity.status(ErrorStatus.of(throwable))
+                                .body(SendResponse.failed(method, throwable.getMessage())));
+                    });
+        });
+    }
+
+    private Mono<ResponseEntity<BatchSendResponse>> sendBatch(
+            String spanName,
+            String route,
+            List<BatchRequestItem> items,
+            Duration timeout,
+            BiFunction<List<BatchRequestItem>, Duration, CompletableFuture<List<BatchItemResult>>> sender) {
+
+        if (items == null || items.isEmpty()) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        if (items.size() > producerService.getMaxBatchItems()) {
+            return Mono.just(ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build());
+        }
+
+        return Mono.defer(() -> {
+            Span span = tracer.spanBuilder(spanName)
+                    .setAttribute("http.method", "POST")
+                    .setAttribute("http.route", route)
+                    .setAttribute("messaging.batch.message_count", items.size())
+                    .startSpan();
+
+            if (publishLog.sample()) {
+                logger.info("Received batch of {} requests on {}", items.size(), route);
+            }
+
+            return Mono.fromFuture(() -> sender.apply(items, timeout))
+                    .map(results -> {
+                        BatchSendResponse response = BatchSendResponse.of(results, PublishTracing.traceId(span));
+                        span.setStatus(response.success()
+                                ? io.opentelemetry.api.trace.StatusCode.OK
+                                : io.opentelemetry.api.trace.StatusCode.ERROR);
+                        span.end();
+                        return ResponseEntity.ok(response);
+                    })
+                    .onErrorResume(throwable -> {
+                        span.recordException(throwable);
+                        span.setStatus(io.opentelemetry.api.trace.StatusCode.ERROR, throwable.getMessage());
+                        span.end();
+                        logger.error("Failed to send batch on {}", route, throwable);
+                        return Mono.just(ResponseEntity.status(ErrorStatus.of(throwable)).build());
+                    });
+        });
+    }
+
+    private static Duration timeout(Long timeoutMs) {
+        return timeoutMs != null ? Duration.ofMillis(timeoutMs) : null;
+    }
+}
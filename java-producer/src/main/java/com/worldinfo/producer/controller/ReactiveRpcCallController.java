@@ -0,0 +1,88 @@
+package com.worldinfo.producer.controller;
+
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.worldinfo.producer.config.RpcDestination;
+import com.worldinfo.producer.model.JsonRpcResponse;
+import com.worldinfo.producer.service.PublishLog;
+import com.worldinfo.producer.service.PublishTracing;
+import com.worldinfo.producer.service.RequestDeadlines;
+import com.worldinfo.producer.service.RpcCallService;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux variant of {@link RpcCallController}.
+ */
+@RestController
+@RequestMapping("/api/v1")
+@ConditionalOnProperty(name = "app.rpc.call.enabled", havingValue = "true", matchIfMissing = true)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveRpcCallController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveRpcCallController.class);
+
+    private final RpcCallService rpcCallService;
+    private final Tracer tracer;
+    private final PublishLog publishLog;
+
+    public ReactiveRpcCallController(RpcCallService rpcCallService, PublishTracing tracing,
+                                     PublishLog publishLog) {
+        this.rpcCallService = rpcCallService;
+        this.tracer = tracing.requestTracer();
+        this.publishLog = publishLog;
+    }
+
+    @PostMapping("/world-info/call")
+    public Mono<ResponseEntity<JsonRpcResponse>> callWorldInfo(
+            @RequestParam String method,
+            @RequestParam(required = false) Long timeoutMs,
+            @RequestHeader(name = RequestDeadlines.TIMEOUT_HEADER, required = false) Long timeoutHeader,
+            @RequestBody(required = false) Map<String, Object> params) {
+
+        return Mono.defer(() -> {
+            Span span = tracer.spanBuilder("http.request.world_info_call")
+                    .setAttribute("http.method", "POST")
+                    .setAttribute("http.route", "/api/v1/world-info/call")
+                    .setAttribute("rpc.method", method)
+                    .startSpan();
+
+            if (publishLog.sample()) {
+                logger.info("Received call for world info method: {}", method);
+            }
+
+            return Mono.fromFuture(() -> rpcCallService.call(RpcDestination.WORLD_INFO, method,
+                            params != null ? params : Map.of(),
+                            RpcCallController.timeout(timeoutMs, timeoutHeader)))
+                    .map(response -> {
+                        span.setStatus(response.error() == null
+                                ? io.opentelemetry.api.trace.StatusCode.OK
+                                : io.opentelemetry.api.trace.StatusCode.ERROR);
+                        span.end();
+                        return ResponseEntity.ok(response.withTracing(PublishTracing.traceId(span),
+                                PublishTracing.spanId(span)));
+                    })
+                    .onErrorResume(throwable -> {
+                        span.recordException(throwable);
+                        span.setStatus(io.opentelemetry.api.trace.StatusCode.ERROR, throwable.getMessage());
+                        span.end();
+                        logger.error("World info call failed: method={}", method, throwable);
+                        return Mono.just(RpcCallController.errorResponse(throwable));
+                    });
+        });
+    }
+}
@@ -0,0 +1,126 @@
+package com.worldinfo.producer.controller;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.worldinfo.producer.config.RpcDestination;
+import com.worldinfo.producer.model.JsonRpcError;
+import com.worldinfo.producer.model.JsonRpcResponse;
+import com.worldinfo.producer.service.PublishLog;
+import com.worldinfo.producer.service.JsonRpcException;
+import com.worldinfo.producer.service.PublishTracing;
+import com.worldinfo.producer.service.RequestDeadlines;
+import com.worldinfo.producer.service.RpcCallService;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+
+@RestController
+@RequestMapping("/api/v1")
+@ConditionalOnProperty(name = "app.rpc.call.enabled", havingValue = "true", matchIfMissing = true)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class RpcCallController {
+
+    private static final Logger logger = LoggerFactory.getLogger(RpcCallController.class);
+
+    private final RpcCallService rpcCallService;
+    private final Tracer tracer;
+    private final PublishLog publishLog;
+
+    public RpcCallController(RpcCallService rpcCallService, PublishTracing tracing,
+                             PublishLog publishLog) {
+        this.rpcCallService = rpcCallService;
+        this.tracer = tracing.requestTracer();
+        this.publishLog = publishLog;
+    }
+
+    /**
+     * Publishes a world info request and waits (without holding a thread) for the
+     * consumer's JSON-RPC reply, which is returned as the response body.
+     */
+    @PostMapping("/world-info/call")
+    public CompletableFuture<ResponseEntity<JsonRpcResponse>> callWorldInfo(
+            @RequestParam String method,
+            @RequestParam(required = false) Long timeoutMs,
+            @RequestHeader(name = RequestDeadlines.TIMEOUT_HEADER, required = false) Long timeoutHeader,
+            @RequestBody(required = false) Map<String, Object> params) {
+
+        Span span = tracer.spanBuilder("http.request.world_info_call")
+                .setAttribute("http.method", "POST")
+                .setAttribute("http.route", "/api/v1/world-info/call")
+                .setAttribute("rpc.method", method)
+                .startSpan();
+
+        try {
+            if (publishLog.sample()) {
+                logger.info("Received call for world info method: {}", method);
+            }
+
+            return rpcCallService.call(RpcDestination.WORLD_INFO, method,
+                            params != null ? params : Map.of(),
+                            timeout(timeoutMs, timeoutHeader))
+                    .thenApply(response -> {
+                        span.setStatus(response.error() == null
+                                ? io.opentelemetry.api.trace.StatusCode.OK
+                                : io.opentelemetry.api.trace.StatusCode.ERROR);
+                        span.end();
+                        return ResponseEntity.ok(response.withTracing(PublishTracing.traceId(span),
+                                PublishTracing.spanId(span)));
+                    })
+                    .exceptionally(throwable -> {
+                        span.recordException(throwable);
+                        span.setStatus(io.opentelemetry.api.trace.StatusCode.ERROR, throwable.getMessage());
+                        span.end();
+                        logger.error("World info call failed: method={}", method, throwable);
+                        return errorResponse(throwable);
+                    });
+
+        } catch (Exception e) {
+            span.recordException(e);
+            span.setStatus(io.opentelemetry.api.trace.StatusCode.ERROR, e.getMessage());
+            span.end();
+            throw e;
+        }
+    }
+
+    /**
+     * The {@code timeoutMs} parameter wins over the {@value RequestDeadlines#TIMEOUT_HEADER} header.
+     */
+    static Duration timeout(Long timeoutMs, Long timeoutHeader) {
+        Long millis = timeoutMs != null ? timeoutMs : timeoutHeader;
+        return millis != null ? Duration.ofMillis(millis) : null;
+    }
+
+    static ResponseEntity<JsonRpcResponse> errorResponse(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof JsonRpcException rpc) {
+                return ResponseEntity.status(ErrorStatus.of(rpc)).body(JsonRpcResponse.error(null, rpc.error()));
+            }
+            if (cause instanceof TimeoutException) {
+                return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(JsonRpcResponse.error(null,
+                        JsonRpcError.serverError(-32000, "Timed out waiting for reply")));
+            }
+            if (cause instanceof RejectedExecutionException) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(JsonRpcResponse.error(null,
+                        JsonRpcError.serverError(-32001, "Producer overloaded")));
+            }
+        }
+        return ResponseEntity.internalServerError().body(JsonRpcResponse.error(null, JsonRpcError.internalError()));
+    }
+}
@@ -0,0 +1,92 @@
+package com.worldinfo.producer.controller;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.worldinfo.producer.model.Schedule;
+import com.worldinfo.producer.model.ScheduleBatchRequest;
+import com.worldinfo.producer.model.ScheduleRequest;
+import com.worldinfo.producer.schedule.RequestScheduler;
+
+/**
+ * Registers, lists and cancels scheduled requests. Nothing here blocks, so the same
+ * controller serves the servlet and the reactive front end.
+ */
+@RestController
+@RequestMapping("/api/v1/schedules")
+@ConditionalOnProperty(name = "app.schedules.enabled", havingValue = "true", matchIfMissing = true)
+public class ScheduleController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScheduleController.class);
+
+    private final RequestScheduler scheduler;
+
+    public ScheduleController(RequestScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    @PostMapping
+    public ResponseEntity<?> register(@RequestBody ScheduleRequest request) {
+        return handle(() -> ResponseEntity.status(HttpStatus.CREATED).body(scheduler.register(request)));
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<?> registerBatch(@RequestBody ScheduleBatchRequest request) {
+        return handle(() -> {
+            List<ScheduleRequest> items = request.items() != null ? request.items() : List.of();
+            long spread = request.spreadMs() != null ? request.spreadMs() : 0;
+            List<Schedule> registered = scheduler.register(items, spread);
+            logger.info("Registered {} schedules spread over {}ms", registered.size(), spread);
+            return ResponseEntity.status(HttpStatus.CREATED).body(registered);
+        });
+    }
+
+    @GetMapping
+    public ResponseEntity<?> list(@RequestParam(required = false) String after,
+                                  @RequestParam(required = false) Integer limit) {
+        return handle(() -> ResponseEntity.ok(scheduler.list(after, limit)));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Schedule> get(@PathVariable String id) {
+        Schedule schedule = scheduler.get(id);
+        return schedule != null ? ResponseEntity.ok(schedule) : ResponseEntity.notFound().build();
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> cancel(@PathVariable String id) {
+        return scheduler.cancel(id) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Invalid timing fields are 400; registry and capacity failures map as for publishes.
+     */
+    private static ResponseEntity<?> handle(Supplier<ResponseEntity<?>> action) {
+        try {
+            return action.get();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (RuntimeException e) {
+            HttpStatus status = ErrorStatus.of(e);
+            if (status == HttpStatus.INTERNAL_SERVER_ERROR) {
+                throw e;
+            }
+            return ResponseEntity.status(status).body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.worldinfo.producer.logging;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import net.logstash.logback.appender.listener.AppenderListener;
+
+/**
+ * Counts events the asynchronous appenders in {@code logback-spring.xml} could not queue.
+ * <p>
+ * Logback creates the listener before the application context exists, so the count
+ * is static and read by {@link com.worldinfo.producer.service.PublishLog}.
+ */
+public class DroppedLogEvents implements AppenderListener<ILoggingEvent> {
+
+    private static final LongAdder dropped = new LongAdder();
+
+    public static long count() {
+        return dropped.sum();
+    }
+
+    @Override
+    public void eventAppendFailed(Appender<ILoggingEvent> appender, ILoggingEvent event, Throwable reason) {
+        dropped.increment();
+    }
+}
@@ -0,0 +1,33 @@
+package com.worldinfo.producer.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchItemResult(
+        @JsonProperty("index")
+        int index,
+
+        @JsonProperty("request_id")
+        String requestId,
+
+        @JsonProperty("method")
+        String method,
+
+        @JsonProperty("success")
+        boolean success,
+
+        @JsonProperty("status")
+        PublishStatus status,
+
+        @JsonProperty("error")
+        String error
+) {
+    public static BatchItemResult published(int index, String method, PublishReceipt receipt) {
+        return new BatchItemResult(index, receipt.requestId(), method, true, receipt.status(), null);
+    }
+
+    public static BatchItemResult failed(int index, String requestId, String method, String error) {
+        return new BatchItemResult(index, requestId, method, false, null, error);
+    }
+}
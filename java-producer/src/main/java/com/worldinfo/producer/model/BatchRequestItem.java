@@ -0,0 +1,14 @@
+package com.worldinfo.producer.model;
+
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record BatchRequestItem(
+        @JsonProperty("method")
+        String method,
+
+        @JsonProperty("params")
+        Map<String, Object> params
+) {
+}
@@ -0,0 +1,27 @@
+package com.worldinfo.producer.model;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record BatchSendResponse(
+        @JsonProperty("success")
+        boolean success,
+
+        @JsonProperty("accepted")
+        int accepted,
+
+        @JsonProperty("failed")
+        int failed,
+
+        @JsonProperty("trace_id")
+        String traceId,
+
+        @JsonProperty("items")
+        List<BatchItemResult> items
+) {
+    public static BatchSendResponse of(List<BatchItemResult> items, String traceId) {
+        int accepted = (int) items.stream().filter(BatchItemResult::success).count();
+        return new BatchSendResponse(accepted == items.size(), accepted, items.size() - accepted, traceId, items);
+    }
+}
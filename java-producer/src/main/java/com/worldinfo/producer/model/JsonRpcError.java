@@ -24,10 +24,18 @@ public record JsonRpcError(
         return new JsonRpcError(-32601, "Method not found", null);
     }
     
+    public static JsonRpcError methodNotFound(String method) {
+        return new JsonRpcError(-32601, "Method not found", method);
+    }
+    
     public static JsonRpcError invalidParams() {
         return new JsonRpcError(-32602, "Invalid params", null);
     }
     
+    public static JsonRpcError invalidParams(String detail) {
+        return new JsonRpcError(-32602, "Invalid params", detail);
+    }
+    
     public static JsonRpcError internalError() {
         return new JsonRpcError(-32603, "Internal error", null);
     }
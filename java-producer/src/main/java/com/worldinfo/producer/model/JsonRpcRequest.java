@@ -27,6 +27,9 @@ public record JsonRpcRequest(
         
         @JsonProperty("timestamp")
         Instant timestamp,
+
+        @JsonProperty("deadline")
+        Instant deadline,
         
         @JsonProperty("trace_id")
         String traceId,
@@ -44,10 +47,17 @@ public record JsonRpcRequest(
     }
     
     public static JsonRpcRequest of(String id, String method, Map<String, Object> params) {
-        return new JsonRpcRequest("1.0", id, method, params, Instant.now(), null, null);
+        return new JsonRpcRequest("1.0", id, method, params, Instant.now(), null, null, null);
     }
     
     public JsonRpcRequest withTracing(String traceId, String spanId) {
-        return new JsonRpcRequest(jsonrpc, id, method, params, timestamp, traceId, spanId);
+        return new JsonRpcRequest(jsonrpc, id, method, params, timestamp, deadline, traceId, spanId);
+    }
+
+    /**
+     * @param deadline when consumers should stop bothering with the request
+     */
+    public JsonRpcRequest withDeadline(Instant deadline) {
+        return new JsonRpcRequest(jsonrpc, id, method, params, timestamp, deadline, traceId, spanId);
     }
 }
@@ -0,0 +1,48 @@
+package com.worldinfo.producer.model;
+
+import org.HdrHistogram.Histogram;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Latency distribution in milliseconds.
+ */
+public record LatencyPercentiles(
+        @JsonProperty("count")
+        long count,
+
+        @JsonProperty("p50")
+        double p50,
+
+        @JsonProperty("p90")
+        double p90,
+
+        @JsonProperty("p99")
+        double p99,
+
+        @JsonProperty("p99_9")
+        double p999,
+
+        @JsonProperty("p99_99")
+        double p9999,
+
+        @JsonProperty("max")
+        double max
+) {
+    /**
+     * @param histogram values in nanoseconds
+     */
+    public static LatencyPercentiles of(Histogram histogram) {
+        return new LatencyPercentiles(histogram.getTotalCount(),
+                millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(90)),
+                millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getValueAtPercentile(99.99)),
+                millis(histogram.getMaxValue()));
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+}
@@ -0,0 +1,50 @@
+package com.worldinfo.producer.model;
+
+import java.time.Instant;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * State and results of a load generator run. Latencies are measured from each
+ * request's intended send time, so time a request spent waiting behind a stalled
+ * sender is counted.
+ *
+ * @param dispatch   intended send time until the publish was handed to the executor
+ * @param completion intended send time until the send future completed (broker confirm
+ *                   when confirms are enabled, otherwise the channel write)
+ */
+public record LoadReport(
+        @JsonProperty("state")
+        String state,
+
+        @JsonProperty("target_rate")
+        double targetRate,
+
+        @JsonProperty("ramp")
+        String ramp,
+
+        @JsonProperty("started_at")
+        Instant startedAt,
+
+        @JsonProperty("finished_at")
+        Instant finishedAt,
+
+        @JsonProperty("sent")
+        long sent,
+
+        @JsonProperty("completed")
+        long completed,
+
+        @JsonProperty("failed")
+        long failed,
+
+        @JsonProperty("achieved_rate")
+        double achievedRate,
+
+        @JsonProperty("dispatch")
+        LatencyPercentiles dispatch,
+
+        @JsonProperty("completion")
+        LatencyPercentiles completion
+) {
+}
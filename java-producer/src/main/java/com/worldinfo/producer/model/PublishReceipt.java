@@ -0,0 +1,23 @@
+package com.worldinfo.producer.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record PublishReceipt(
+        @JsonProperty("request_id")
+        String requestId,
+
+        @JsonProperty("status")
+        PublishStatus status
+) {
+    public static PublishReceipt sent(String requestId) {
+        return new PublishReceipt(requestId, PublishStatus.SENT);
+    }
+
+    public static PublishReceipt confirmed(String requestId) {
+        return new PublishReceipt(requestId, PublishStatus.CONFIRMED);
+    }
+
+    public static PublishReceipt spooled(String requestId) {
+        return new PublishReceipt(requestId, PublishStatus.SPOOLED);
+    }
+}
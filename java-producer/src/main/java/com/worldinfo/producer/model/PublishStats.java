@@ -0,0 +1,33 @@
+package com.worldinfo.producer.model;
+
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Publish path activity in one fixed window of {@code app.publish.metrics.window-ms}.
+ *
+ * @param stages latency of each publish stage: {@code queue} (hand-off to the publish thread),
+ *               {@code serialize}, {@code build}, {@code channel} (checkout), {@code send}
+ *               and {@code confirm} (broker ack)
+ */
+public record PublishStats(
+        @JsonProperty("window_seconds")
+        double windowSeconds,
+
+        @JsonProperty("published")
+        long published,
+
+        @JsonProperty("publish_rate")
+        double publishRate,
+
+        @JsonProperty("bytes")
+        long bytes,
+
+        @JsonProperty("failures")
+        Map<String, Long> failures,
+
+        @JsonProperty("stages")
+        Map<String, LatencyPercentiles> stages
+) {
+}
@@ -0,0 +1,17 @@
+package com.worldinfo.producer.model;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+public enum PublishStatus {
+    /** Handed to the client library; the broker has not acknowledged it. */
+    SENT,
+    /** Acknowledged by the broker through a publisher confirm. */
+    CONFIRMED,
+    /** Written to the local outbox; it will be published once the broker takes it. */
+    SPOOLED;
+
+    @JsonValue
+    public String value() {
+        return name().toLowerCase();
+    }
+}
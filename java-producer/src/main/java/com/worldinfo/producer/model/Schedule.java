@@ -0,0 +1,42 @@
+package com.worldinfo.producer.model;
+
+import java.time.Instant;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.worldinfo.producer.config.RpcDestination;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record Schedule(
+        @JsonProperty("id")
+        String id,
+
+        @JsonProperty("destination")
+        RpcDestination destination,
+
+        @JsonProperty("method")
+        String method,
+
+        @JsonProperty("params")
+        Map<String, Object> params,
+
+        @JsonProperty("interval_ms")
+        Long intervalMs,
+
+        @JsonProperty("jitter_ms")
+        Long jitterMs,
+
+        @JsonProperty("next_run_at")
+        Instant nextRunAt,
+
+        @JsonProperty("last_run_at")
+        Instant lastRunAt,
+
+        @JsonProperty("runs")
+        long runs,
+
+        @JsonProperty("failures")
+        long failures
+) {
+}
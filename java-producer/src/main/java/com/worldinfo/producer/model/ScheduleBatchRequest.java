@@ -0,0 +1,20 @@
+package com.worldinfo.producer.model;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Many schedules registered at once.
+ *
+ * @param spreadMs first runs are spaced evenly over this window, item {@code i} of {@code n}
+ *                 starting {@code i * spread_ms / n} after its own {@code send_at}
+ */
+public record ScheduleBatchRequest(
+        @JsonProperty("items")
+        List<ScheduleRequest> items,
+
+        @JsonProperty("spread_ms")
+        Long spreadMs
+) {
+}
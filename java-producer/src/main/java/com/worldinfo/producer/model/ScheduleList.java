@@ -0,0 +1,24 @@
+package com.worldinfo.producer.model;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * One page of schedules, in registration order.
+ *
+ * @param next the {@code after} cursor for the following page, absent on the last one
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ScheduleList(
+        @JsonProperty("total")
+        int total,
+
+        @JsonProperty("items")
+        List<Schedule> items,
+
+        @JsonProperty("next")
+        String next
+) {
+}
@@ -0,0 +1,35 @@
+package com.worldinfo.producer.model;
+
+import java.time.Instant;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.worldinfo.producer.config.RpcDestination;
+
+/**
+ * A JSON-RPC request to publish later, once or repeatedly.
+ *
+ * @param sendAt     first run; now when absent
+ * @param intervalMs time between runs; a one-shot request when absent
+ * @param jitterMs   each run is delayed by a random amount below this
+ */
+public record ScheduleRequest(
+        @JsonProperty("destination")
+        RpcDestination destination,
+
+        @JsonProperty("method")
+        String method,
+
+        @JsonProperty("params")
+        Map<String, Object> params,
+
+        @JsonProperty("send_at")
+        Instant sendAt,
+
+        @JsonProperty("interval_ms")
+        Long intervalMs,
+
+        @JsonProperty("jitter_ms")
+        Long jitterMs
+) {
+}
@@ -0,0 +1,33 @@
+package com.worldinfo.producer.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SendResponse(
+        @JsonProperty("success")
+        boolean success,
+
+        @JsonProperty("requestId")
+        String requestId,
+
+        @JsonProperty("status")
+        PublishStatus status,
+
+        @JsonProperty("method")
+        String method,
+
+        @JsonProperty("traceId")
+        String traceId,
+
+        @JsonProperty("error")
+        String error
+) {
+    public static SendResponse accepted(PublishReceipt receipt, String method, String traceId) {
+        return new SendResponse(true, receipt.requestId(), receipt.status(), method, traceId, null);
+    }
+
+    public static SendResponse failed(String method, String error) {
+        return new SendResponse(false, null, null, method, null, error);
+    }
+}
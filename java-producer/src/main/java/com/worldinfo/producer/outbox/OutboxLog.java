@@ -0,0 +1,246 @@
+package com.worldinfo.producer.outbox;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.worldinfo.producer.config.OutboxProperties.Fsync;
+
+/**
+ * Segmented append-only log with a single drain cursor.
+ * <p>
+ * Positions are logical offsets: a segment's base offset plus the position inside
+ * it. A new segment starts at the previous base plus the segment size, so the
+ * unused tail of a full segment is simply skipped. The drain cursor is persisted
+ * in a {@code checkpoint} file next to the segments; segments wholly below it are
+ * deleted. A record below a segment's committed end that fails its CRC is damage on
+ * disk: the rest of that segment cannot be framed, so the cursor moves on to the next
+ * segment, rolling a new one first if the damage is in the active segment.
+ */
+final class OutboxLog implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxLog.class);
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long maxSegments;
+    private final Fsync fsync;
+    private final FileChannel checkpoint;
+    private final ConcurrentSkipListMap<Long, OutboxSegment> segments = new ConcurrentSkipListMap<>();
+
+    private volatile OutboxSegment active;
+    private volatile long readOffset;
+    private volatile long droppedSegments;
+    private volatile long damagedSegments;
+
+    record Record(long offset, long nextOffset, byte[] payload) {
+    }
+
+    private OutboxLog(Path directory, int segmentSize, long maxBytes, Fsync fsync) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegments = Math.max(2, maxBytes / segmentSize);
+        this.fsync = fsync;
+        this.checkpoint = FileChannel.open(directory.resolve("checkpoint"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    static OutboxLog open(Path directory, int segmentSize, long maxBytes, Fsync fsync) throws IOException {
+        Files.createDirectories(directory);
+        OutboxLog log = new OutboxLog(directory, segmentSize, maxBytes, fsync);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : files.filter(file -> file.getFileName().toString().endsWith(".log")).toList()) {
+                OutboxSegment segment = OutboxSegment.recover(path, segmentSize);
+                log.segments.put(segment.baseOffset(), segment);
+            }
+        }
+        if (log.segments.isEmpty()) {
+            OutboxSegment first = OutboxSegment.create(directory, 0, segmentSize);
+            log.segments.put(0L, first);
+        }
+        log.active = log.segments.lastEntry().getValue();
+        log.readOffset = Math.max(log.readCheckpoint(), log.segments.firstKey());
+        logger.info("Opened outbox at {}: segments={}, backlog={} bytes",
+                directory, log.segments.size(), log.writeOffset() - log.readOffset);
+        return log;
+    }
+
+    /**
+     * Appends one record. Callers are serialized so records keep publish order.
+     *
+     * @throws IllegalArgumentException if the record can never fit in a segment
+     */
+    synchronized void append(byte[] payload) throws IOException {
+        if (payload.length + OutboxSegment.HEADER_SIZE > segmentSize) {
+            throw new IllegalArgumentException("Record of " + payload.length
+                    + " bytes exceeds the outbox segment size of " + segmentSize);
+        }
+        int position = active.append(payload);
+        if (position < 0) {
+            roll();
+            position = active.append(payload);
+        }
+        if (fsync == Fsync.ALWAYS) {
+            active.force(position, OutboxSegment.HEADER_SIZE + payload.length);
+        }
+    }
+
+    private void roll() throws IOException {
+        if (fsync != Fsync.NEVER) {
+            active.force();
+        }
+        long baseOffset = active.baseOffset() + segmentSize;
+        OutboxSegment next = OutboxSegment.create(directory, baseOffset, segmentSize);
+        segments.put(baseOffset, next);
+        active = next;
+        while (segments.size() > maxSegments) {
+            Map.Entry<Long, OutboxSegment> oldest = segments.pollFirstEntry();
+            long nextBase = segments.firstKey();
+            if (readOffset < nextBase) {
+                droppedSegments++;
+                logger.error("Outbox exceeded its size limit, dropping undrained segment {}", oldest.getKey());
+                commit(nextBase);
+            }
+            oldest.getValue().delete();
+        }
+    }
+
+    /**
+     * Reads up to {@code max} committed records from the drain cursor. When the
+     * cursor sits in the unused tail of a full segment it is moved to the next one.
+     */
+    List<Record> read(int max) throws IOException {
+        List<Record> records = new ArrayList<>(Math.min(max, 64));
+        long offset = readOffset;
+        Map.Entry<Long, OutboxSegment> entry = segments.floorEntry(offset);
+        if (entry == null) {
+            entry = segments.firstEntry();
+            offset = entry.getKey();
+        }
+        while (records.size() < max) {
+            OutboxSegment segment = entry.getValue();
+            byte[] payload = segment.read((int) (offset - segment.baseOffset()));
+            if (payload != null) {
+                long next = offset + OutboxSegment.HEADER_SIZE + payload.length;
+                records.add(new Record(offset, next, payload));
+                offset = next;
+                continue;
+            }
+            int position = (int) (offset - segment.baseOffset());
+            Map.Entry<Long, OutboxSegment> following;
+            if (position < segment.committed()) {
+                if (segment.read(position) != null) {
+                    continue; // the record was committed between the two reads
+                }
+                following = skipDamaged(segment, position);
+            } else {
+                following = segments.higherEntry(entry.getKey());
+                if (following == null) {
+                    break;
+                }
+            }
+            entry = following;
+            offset = following.getKey();
+            if (records.isEmpty()) {
+                commit(offset);
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Gives up on the rest of {@code segment} from {@code position}, rolling first if it is
+     * still being appended to.
+     *
+     * @return the segment to read next
+     */
+    private synchronized Map.Entry<Long, OutboxSegment> skipDamaged(OutboxSegment segment, int position)
+            throws IOException {
+        damagedSegments++;
+        logger.error("Outbox segment {} has an unreadable record at position {}, skipping its last {} bytes",
+                segment.baseOffset(), position, segment.committed() - position);
+        if (segment == active) {
+            roll();
+        }
+        return segments.higherEntry(segment.baseOffset());
+    }
+
+    /**
+     * Advances the drain cursor and deletes segments that are fully drained.
+     */
+    synchronized void commit(long offset) throws IOException {
+        if (offset <= readOffset) {
+            return;
+        }
+        readOffset = offset;
+        ByteBuffer value = ByteBuffer.allocate(Long.BYTES).putLong(0, offset);
+        checkpoint.write(value, 0);
+        if (fsync == Fsync.ALWAYS) {
+            checkpoint.force(false);
+        }
+        Map.Entry<Long, OutboxSegment> first;
+        while ((first = segments.firstEntry()) != null && first.getValue() != active
+                && first.getKey() + segmentSize <= offset) {
+            segments.remove(first.getKey());
+            first.getValue().delete();
+        }
+    }
+
+    private long readCheckpoint() throws IOException {
+        ByteBuffer value = ByteBuffer.allocate(Long.BYTES);
+        return checkpoint.read(value, 0) == Long.BYTES ? value.getLong(0) : 0L;
+    }
+
+    void force() throws IOException {
+        active.force();
+        checkpoint.force(false);
+    }
+
+    long readOffset() {
+        return readOffset;
+    }
+
+    long writeOffset() {
+        OutboxSegment segment = active;
+        return segment.baseOffset() + segment.committed();
+    }
+
+    boolean hasBacklog() {
+        return readOffset < writeOffset();
+    }
+
+    int segmentCount() {
+        return segments.size();
+    }
+
+    long droppedSegments() {
+        return droppedSegments;
+    }
+
+    long damagedSegments() {
+        return damagedSegments;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (fsync != Fsync.NEVER) {
+            force();
+        }
+        for (OutboxSegment segment : segments.values()) {
+            segment.close();
+        }
+        checkpoint.close();
+    }
+}
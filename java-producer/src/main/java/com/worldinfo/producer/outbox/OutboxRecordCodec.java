@@ -0,0 +1,105 @@
+package com.worldinfo.producer.outbox;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Date;
+import java.util.Map;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+
+/**
+ * Binary form of a spooled publish: exchange, routing key, the message properties
+ * the producer sets and the already-serialized body. Header values are stored as
+ * strings, which is all the producer writes.
+ */
+final class OutboxRecordCodec {
+
+    private static final byte VERSION = 1;
+
+    private OutboxRecordCodec() {
+    }
+
+    record Entry(String exchange, String routingKey, Message message) {
+    }
+
+    static byte[] encode(String exchange, String routingKey, Message message) {
+        MessageProperties properties = message.getMessageProperties();
+        byte[] body = message.getBody();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.length + 256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeUTF(exchange);
+            out.writeUTF(routingKey);
+            writeNullable(out, properties.getContentType());
+            writeNullable(out, properties.getContentEncoding());
+            writeNullable(out, properties.getMessageId());
+            writeNullable(out, properties.getCorrelationId());
+            writeNullable(out, properties.getReplyTo());
+            writeNullable(out, properties.getExpiration());
+            out.writeInt(properties.getPriority() != null ? properties.getPriority() : -1);
+            out.writeLong(properties.getTimestamp() != null ? properties.getTimestamp().getTime() : -1L);
+            Map<String, Object> headers = properties.getHeaders();
+            out.writeShort(headers.size());
+            for (Map.Entry<String, Object> header : headers.entrySet()) {
+                out.writeUTF(header.getKey());
+                out.writeUTF(String.valueOf(header.getValue()));
+            }
+            out.writeInt(body.length);
+            out.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static Entry decode(byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            byte version = in.readByte();
+            if (version != VERSION) {
+                throw new IllegalStateException("Unsupported outbox record version " + version);
+            }
+            String exchange = in.readUTF();
+            String routingKey = in.readUTF();
+            MessageProperties properties = new MessageProperties();
+            properties.setContentType(readNullable(in));
+            properties.setContentEncoding(readNullable(in));
+            properties.setMessageId(readNullable(in));
+            properties.setCorrelationId(readNullable(in));
+            properties.setReplyTo(readNullable(in));
+            properties.setExpiration(readNullable(in));
+            int priority = in.readInt();
+            if (priority >= 0) {
+                properties.setPriority(priority);
+            }
+            long timestamp = in.readLong();
+            if (timestamp >= 0) {
+                properties.setTimestamp(new Date(timestamp));
+            }
+            int headerCount = in.readUnsignedShort();
+            for (int i = 0; i < headerCount; i++) {
+                properties.setHeader(in.readUTF(), in.readUTF());
+            }
+            byte[] body = new byte[in.readInt()];
+            in.readFully(body);
+            return new Entry(exchange, routingKey, new Message(body, properties));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,143 @@
+package com.worldinfo.producer.outbox;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * One fixed-size, memory-mapped segment file of the outbox log.
+ * <p>
+ * Records are {@code [length:int][crc32:int][payload]}. The payload and CRC are
+ * written before the length, so a zero length marks the end of the segment and
+ * a torn write is detected on recovery. Appends are serialized by
+ * {@link OutboxLog}. Readers see only bytes below {@link #committed()}, which is
+ * published after each record is fully written.
+ */
+final class OutboxSegment implements Closeable {
+
+    static final int HEADER_SIZE = 8;
+
+    private final Path path;
+    private final long baseOffset;
+    private final int capacity;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+
+    private volatile int committed;
+
+    private OutboxSegment(Path path, long baseOffset, int capacity) throws IOException {
+        this.path = path;
+        this.baseOffset = baseOffset;
+        this.capacity = capacity;
+        this.channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    static OutboxSegment create(Path directory, long baseOffset, int capacity) throws IOException {
+        return new OutboxSegment(directory.resolve(fileName(baseOffset)), baseOffset, capacity);
+    }
+
+    /**
+     * Opens an existing segment and finds the end of its last intact record.
+     */
+    static OutboxSegment recover(Path path, int capacity) throws IOException {
+        String name = path.getFileName().toString();
+        long baseOffset = Long.parseLong(name.substring(0, name.length() - ".log".length()));
+        OutboxSegment segment = new OutboxSegment(path, baseOffset, capacity);
+        int position = 0;
+        while (position + HEADER_SIZE <= capacity) {
+            byte[] payload = segment.readPayload(position, capacity);
+            if (payload == null) {
+                break;
+            }
+            position += HEADER_SIZE + payload.length;
+        }
+        if (position + HEADER_SIZE <= capacity) {
+            segment.buffer.putInt(position, 0); // cut off a torn tail
+        }
+        segment.committed = position;
+        return segment;
+    }
+
+    static String fileName(long baseOffset) {
+        return String.format("%020d.log", baseOffset);
+    }
+
+    /**
+     * @return the position of the appended record, or -1 if it does not fit
+     */
+    int append(byte[] payload) {
+        int position = committed;
+        if (position + HEADER_SIZE + payload.length > capacity) {
+            return -1;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        buffer.put(position + HEADER_SIZE, payload);
+        buffer.putInt(position + 4, (int) crc.getValue());
+        buffer.putInt(position, payload.length);
+        committed = position + HEADER_SIZE + payload.length;
+        return position;
+    }
+
+    /**
+     * @return the payload of the committed record at {@code position}, or {@code null} past the end
+     */
+    byte[] read(int position) {
+        return readPayload(position, committed);
+    }
+
+    private byte[] readPayload(int position, int limit) {
+        if (position + HEADER_SIZE > limit) {
+            return null;
+        }
+        int length = buffer.getInt(position);
+        if (length <= 0 || position + HEADER_SIZE + length > limit) {
+            return null;
+        }
+        byte[] payload = new byte[length];
+        buffer.get(position + HEADER_SIZE, payload);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+            return null;
+        }
+        return payload;
+    }
+
+    void force(int position, int length) {
+        buffer.force(position, length);
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    long baseOffset() {
+        return baseOffset;
+    }
+
+    int committed() {
+        return committed;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    void delete() throws IOException {
+        close();
+        Files.deleteIfExists(path);
+    }
+}
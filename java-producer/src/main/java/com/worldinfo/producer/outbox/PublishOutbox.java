@@ -0,0 +1,318 @@
+package com.worldinfo.producer.outbox;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.worldinfo.producer.config.OutboxProperties;
+import com.worldinfo.producer.service.RequestDeadlines;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Local write-ahead spool for publishes the broker could not take.
+ * <p>
+ * When {@code app.outbox.enabled} is set, {@link #append} writes the prepared
+ * message to an {@link OutboxLog} on disk and a drainer thread replays the log
+ * in order, advancing its checkpoint only past records the broker has acked.
+ * While a backlog exists new publishes are spooled too, so replayed and fresh
+ * messages keep their order. Delivery is at-least-once: a batch that is only
+ * partly confirmed is replayed from its first unconfirmed record. Records whose
+ * {@link RequestDeadlines} deadline has passed are skipped; the others are replayed
+ * with their expiration cut to the time they have left. A record the broker nacks
+ * {@code max-nacks} times in a row, or one that no longer decodes, is discarded
+ * rather than holding up every record behind it.
+ */
+@Component
+@EnableConfigurationProperties(OutboxProperties.class)
+public class PublishOutbox implements MeterBinder, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(PublishOutbox.class);
+    private static final long INITIAL_BACKOFF_MILLIS = 100;
+    static final long MIN_SEGMENT_SIZE = 1024;
+
+    private final OutboxProperties properties;
+    private final RabbitTemplate rabbitTemplate;
+    private final OutboxLog log;
+    private final Thread drainer;
+
+    private final LongAdder spooled = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder replayFailures = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder discardedNacked = new LongAdder();
+    private final LongAdder discardedUnreadable = new LongAdder();
+
+    private volatile boolean running = true;
+    // drainer thread only: the record the broker last nacked and how many times in a row
+    private long nackedOffset = -1;
+    private int nacks;
+
+    public PublishOutbox(OutboxProperties properties, RabbitTemplate rabbitTemplate) {
+        this.properties = properties;
+        this.rabbitTemplate = rabbitTemplate;
+        if (!properties.enabled()) {
+            this.log = null;
+            this.drainer = null;
+            return;
+        }
+        long segmentSize = properties.segmentSize().toBytes();
+        if (segmentSize < MIN_SEGMENT_SIZE || segmentSize > Integer.MAX_VALUE) {
+            throw new IllegalStateException("app.outbox.segment-size must be between 1KB and 2GB");
+        }
+        try {
+            this.log = OutboxLog.open(Path.of(properties.directory()), (int) segmentSize,
+                    properties.maxSize().toBytes(), properties.fsync());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open outbox at " + properties.directory(), e);
+        }
+        this.drainer = Thread.ofPlatform()
+                .name("outbox-drainer")
+                .daemon(true)
+                .start(this::drain);
+    }
+
+    public boolean isEnabled() {
+        return log != null;
+    }
+
+    /**
+     * @return whether spooled messages are still waiting to be replayed
+     */
+    public boolean hasBacklog() {
+        return log != null && log.hasBacklog();
+    }
+
+    /**
+     * Spools a prepared message for later delivery to {@code exchange}.
+     *
+     * @throws IllegalStateException    if the outbox is disabled
+     * @throws IllegalArgumentException if the message is larger than a segment
+     */
+    public void append(String exchange, String routingKey, Message message) {
+        if (log == null) {
+            throw new IllegalStateException("Outbox is disabled");
+        }
+        try {
+            log.append(OutboxRecordCodec.encode(exchange, routingKey, message));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to spool message to outbox", e);
+        }
+        spooled.increment();
+        LockSupport.unpark(drainer);
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.fsync-interval-ms:1000}")
+    public void flush() {
+        if (log == null || properties.fsync() != OutboxProperties.Fsync.INTERVAL) {
+            return;
+        }
+        try {
+            log.force();
+        } catch (IOException e) {
+            logger.warn("Failed to flush outbox", e);
+        }
+    }
+
+    private void drain() {
+        long backoffMillis = INITIAL_BACKOFF_MILLIS;
+        while (running) {
+            try {
+                List<OutboxLog.Record> records = log.read(properties.drainBatchSize());
+                if (records.isEmpty()) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+                    continue;
+                }
+                Replay replay = replay(records);
+                long confirmed = replay.confirmed();
+                if (replay.nacked() != null && discardAfterNack(replay.nacked())) {
+                    confirmed = replay.nacked().nextOffset();
+                }
+                if (confirmed > log.readOffset()) {
+                    log.commit(confirmed);
+                }
+                if (confirmed < records.get(records.size() - 1).nextOffset()) {
+                    throw new IllegalStateException("Broker did not confirm every replayed message");
+                }
+                backoffMillis = INITIAL_BACKOFF_MILLIS;
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                replayFailures.increment();
+                logger.warn("Outbox replay failed, retrying in {}ms: {}", backoffMillis, e.getMessage());
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(backoffMillis));
+                backoffMillis = Math.min(backoffMillis * 2, properties.maxRetryBackoff().toMillis());
+            }
+        }
+    }
+
+    /**
+     * Counts a nack of {@code record} and decides whether it has had its last chance.
+     * Records after it were published in the same batch and are replayed either way.
+     */
+    private boolean discardAfterNack(OutboxLog.Record record) {
+        nacks = record.offset() == nackedOffset ? nacks + 1 : 1;
+        nackedOffset = record.offset();
+        if (nacks < properties.maxNacks()) {
+            return false;
+        }
+        OutboxRecordCodec.Entry entry = OutboxRecordCodec.decode(record.payload());
+        logger.error("Discarding spooled message nacked {} times: exchange={}, routingKey={}, messageId={}",
+                nacks, entry.exchange(), entry.routingKey(), entry.message().getMessageProperties().getMessageId());
+        discardedNacked.increment();
+        nackedOffset = -1;
+        nacks = 0;
+        return true;
+    }
+
+    /**
+     * Publishes {@code records} on one channel and waits for their confirms.
+     *
+     * @return the offset just past the contiguously acked (or skipped) prefix, and the
+     *         record the broker nacked right after it, if that is why the prefix ends
+     */
+    private Replay replay(List<OutboxLog.Record> records) throws Exception {
+        boolean confirms = rabbitTemplate.getConnectionFactory().isPublisherConfirms();
+        List<CorrelationData> correlations = new ArrayList<>(records.size());
+        Outcome[] skipped = new Outcome[records.size()];
+        rabbitTemplate.invoke(operations -> {
+            for (int i = 0; i < records.size(); i++) {
+                OutboxLog.Record record = records.get(i);
+                OutboxRecordCodec.Entry entry;
+                try {
+                    entry = OutboxRecordCodec.decode(record.payload());
+                } catch (RuntimeException e) {
+                    logger.error("Discarding spooled record at offset {} that does not decode", record.offset(), e);
+                    skipped[i] = Outcome.UNREADABLE;
+                    correlations.add(null);
+                    continue;
+                }
+                if (!refreshExpiration(entry.message())) {
+                    skipped[i] = Outcome.EXPIRED;
+                    correlations.add(null);
+                    continue;
+                }
+                CorrelationData correlation = confirms ? new CorrelationData("outbox-" + record.offset()) : null;
+                operations.send(entry.exchange(), entry.routingKey(), entry.message(), correlation);
+                correlations.add(correlation);
+            }
+            return null;
+        });
+
+        long confirmed = records.get(0).offset();
+        long deadline = System.nanoTime() + properties.confirmTimeout().toNanos();
+        for (int i = 0; i < correlations.size(); i++) {
+            CorrelationData correlation = correlations.get(i);
+            if (correlation != null) {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                if (!correlation.getFuture().get(remaining, TimeUnit.NANOSECONDS).isAck()) {
+                    return new Replay(confirmed, records.get(i));
+                }
+            }
+            confirmed = records.get(i).nextOffset();
+            if (skipped[i] == null) {
+                replayed.increment();
+            } else {
+                (skipped[i] == Outcome.EXPIRED ? expired : discardedUnreadable).increment();
+            }
+        }
+        return new Replay(confirmed, null);
+    }
+
+    /**
+     * Sets the message's expiration to what is left of its deadline; the expiration it was
+     * spooled with counts from the original publish attempt.
+     *
+     * @return {@code false} if the deadline has already passed
+     */
+    private static boolean refreshExpiration(Message message) {
+        Object deadline = message.getMessageProperties().getHeader(RequestDeadlines.DEADLINE_HEADER);
+        if (deadline == null) {
+            return true;
+        }
+        long remaining = Long.parseLong(deadline.toString()) - System.currentTimeMillis();
+        if (remaining <= 0) {
+            return false;
+        }
+        message.getMessageProperties().setExpiration(Long.toString(remaining));
+        return true;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (log == null) {
+            return;
+        }
+        FunctionCounter.builder("producer.outbox.spooled", spooled, LongAdder::sum)
+                .description("Messages written to the local outbox")
+                .register(registry);
+        FunctionCounter.builder("producer.outbox.replayed", replayed, LongAdder::sum)
+                .description("Spooled messages confirmed by the broker on replay")
+                .register(registry);
+        FunctionCounter.builder("producer.outbox.replay.failures", replayFailures, LongAdder::sum)
+                .description("Replay attempts that failed and were retried")
+                .register(registry);
+        FunctionCounter.builder("producer.outbox.expired", expired, LongAdder::sum)
+                .description("Spooled messages dropped on replay because their deadline had passed")
+                .register(registry);
+        FunctionCounter.builder("producer.outbox.discarded", discardedNacked, LongAdder::sum)
+                .tag("reason", "nacked")
+                .description("Spooled messages given up on during replay")
+                .register(registry);
+        FunctionCounter.builder("producer.outbox.discarded", discardedUnreadable, LongAdder::sum)
+                .tag("reason", "unreadable")
+                .description("Spooled messages given up on during replay")
+                .register(registry);
+        FunctionCounter.builder("producer.outbox.dropped.segments", log, OutboxLog::droppedSegments)
+                .description("Undrained segments deleted to stay within app.outbox.max-size")
+                .register(registry);
+        FunctionCounter.builder("producer.outbox.damaged.segments", log, OutboxLog::damagedSegments)
+                .description("Segments whose tail was skipped past an unreadable record")
+                .register(registry);
+        Gauge.builder("producer.outbox.backlog", log, outbox -> outbox.writeOffset() - outbox.readOffset())
+                .description("Bytes spooled but not yet replayed")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("producer.outbox.segments", log, OutboxLog::segmentCount)
+                .description("Segment files on disk")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (log == null) {
+            return;
+        }
+        running = false;
+        drainer.interrupt();
+        drainer.join(TimeUnit.SECONDS.toMillis(5));
+        log.close();
+    }
+
+    private enum Outcome {
+        EXPIRED,
+        UNREADABLE
+    }
+
+    private record Replay(long confirmed, OutboxLog.Record nacked) {
+    }
+}
@@ -0,0 +1,606 @@
+package com.worldinfo.producer.schedule;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.worldinfo.producer.config.RpcDestination;
+import com.worldinfo.producer.config.ScheduleProperties;
+import com.worldinfo.producer.model.BatchItemResult;
+import com.worldinfo.producer.model.BatchRequestItem;
+import com.worldinfo.producer.model.Schedule;
+import com.worldinfo.producer.model.ScheduleList;
+import com.worldinfo.producer.model.ScheduleRequest;
+import com.worldinfo.producer.service.MethodRegistry;
+import com.worldinfo.producer.service.WorldInfoProducerService;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Publishes registered JSON-RPC requests at a set time, once or at a fixed rate.
+ * <p>
+ * Every schedule is a timer on a {@link TimingWheel} owned by one ticker thread, so
+ * registering, cancelling and firing each cost O(1) however many schedules exist. Callers
+ * never touch the wheel: registrations and cancellations are queued and applied on the
+ * next tick. Runs that come due on the same tick are published together through
+ * {@link WorldInfoProducerService}'s batch API, per destination and in chunks of its
+ * batch limit.
+ * <p>
+ * Recurring schedules keep a fixed rate from their {@code send_at}; each run is delayed by
+ * a fresh random jitter, and runs missed while the producer was down or behind are
+ * skipped rather than sent in a burst. With {@code app.schedules.snapshot-path} set, the
+ * schedules are saved there when they change and restored on start.
+ */
+@Component
+@EnableConfigurationProperties(ScheduleProperties.class)
+public class RequestScheduler implements MeterBinder, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestScheduler.class);
+    private static final int SNAPSHOT_MAGIC = 0x57495343;
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final TypeReference<Map<String, Object>> PARAMS_TYPE = new TypeReference<>() {
+    };
+
+    private final ScheduleProperties properties;
+    private final WorldInfoProducerService producerService;
+    private final MethodRegistry methodRegistry;
+    private final ObjectMapper objectMapper;
+    private final long tickMillis;
+    private final Path snapshotPath;
+    private final LongSupplier millisClock;
+
+    private final ConcurrentSkipListMap<Long, Entry> schedules = new ConcurrentSkipListMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    // bumped on every change, so an unchanged registry is not saved again
+    private final AtomicLong version = new AtomicLong();
+    private final Queue<Entry> added = new ConcurrentLinkedQueue<>();
+    private final Queue<Entry> cancelled = new ConcurrentLinkedQueue<>();
+    private final TimingWheel<Entry> wheel;
+    // runs fired by the current tick, reused by the ticker thread
+    private final List<Entry> due = new ArrayList<>();
+    private final Thread ticker;
+    private long savedVersion;
+    private volatile int timers;
+    private volatile boolean running = true;
+
+    private final LongAdder dispatched = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private volatile Timer lagTimer;
+    private volatile Timer snapshotTimer;
+
+    @Autowired
+    public RequestScheduler(ScheduleProperties properties, WorldInfoProducerService producerService,
+                            MethodRegistry methodRegistry, ObjectMapper objectMapper) {
+        this(properties, producerService, methodRegistry, objectMapper, System::currentTimeMillis, true);
+    }
+
+    /**
+     * @param millisClock epoch milliseconds the schedules run by
+     * @param startTicker start the ticker thread; without it nothing fires until {@link #tick()} is called
+     */
+    RequestScheduler(ScheduleProperties properties, WorldInfoProducerService producerService,
+                     MethodRegistry methodRegistry, ObjectMapper objectMapper, LongSupplier millisClock,
+                     boolean startTicker) {
+        this.properties = properties;
+        this.millisClock = millisClock;
+        this.producerService = producerService;
+        this.methodRegistry = methodRegistry;
+        this.objectMapper = objectMapper;
+        this.tickMillis = Math.max(1, properties.tick().toMillis());
+        this.snapshotPath = properties.snapshotPath().isBlank() ? null : Path.of(properties.snapshotPath());
+        if (!properties.enabled()) {
+            this.wheel = null;
+            this.ticker = null;
+            return;
+        }
+        this.wheel = new TimingWheel<>(properties.wheelSize(), properties.levels(),
+                millisClock.getAsLong() / tickMillis);
+        if (snapshotPath != null) {
+            restore();
+        }
+        this.ticker = startTicker ? Thread.ofPlatform()
+                .name("request-scheduler")
+                .daemon(true)
+                .start(this::run) : null;
+    }
+
+    public boolean isEnabled() {
+        return wheel != null;
+    }
+
+    /**
+     * Registers one schedule.
+     *
+     * @throws com.worldinfo.producer.service.JsonRpcException if the method registry rejects the request
+     * @throws IllegalArgumentException                         if the timing fields are invalid
+     * @throws RejectedExecutionException                       if {@code max-schedules} are registered
+     */
+    public Schedule register(ScheduleRequest request) {
+        return register(List.of(request), 0).get(0);
+    }
+
+    /**
+     * Registers {@code requests} together, all or none, spacing their first runs evenly over
+     * {@code spreadMillis}.
+     */
+    public List<Schedule> register(List<ScheduleRequest> requests, long spreadMillis) {
+        if (wheel == null) {
+            throw new IllegalStateException("Request scheduling is disabled");
+        }
+        if (spreadMillis < 0) {
+            throw new IllegalArgumentException("spread_ms must not be negative");
+        }
+        long now = millisClock.getAsLong();
+        List<Entry> entries = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            ScheduleRequest request = requests.get(i);
+            if (request == null) {
+                throw new IllegalArgumentException("Schedule " + i + " is empty");
+            }
+            long offset = requests.size() > 1 ? i * spreadMillis / requests.size() : 0;
+            entries.add(newEntry(request, now, offset));
+        }
+        int total = size.addAndGet(entries.size());
+        if (total > properties.maxSchedules()) {
+            size.addAndGet(-entries.size());
+            throw new RejectedExecutionException("Schedule limit of " + properties.maxSchedules() + " reached");
+        }
+        List<Schedule> registered = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            schedules.put(entry.sequence, entry);
+            added.offer(entry);
+            registered.add(entry.toSchedule());
+        }
+        version.incrementAndGet();
+        return registered;
+    }
+
+    private Entry newEntry(ScheduleRequest request, long now, long offset) {
+        if (request.destination() == null) {
+            throw new IllegalArgumentException("destination is required");
+        }
+        if (request.method() == null || request.method().isBlank()) {
+            throw new IllegalArgumentException("method is required");
+        }
+        Map<String, Object> params = request.params() != null ? request.params() : Map.of();
+        methodRegistry.resolve(request.destination(), request.method(), params);
+        long interval = request.intervalMs() != null ? request.intervalMs() : 0;
+        if (request.intervalMs() != null && interval < properties.minInterval().toMillis()) {
+            throw new IllegalArgumentException("interval_ms must be at least " + properties.minInterval().toMillis());
+        }
+        long jitter = request.jitterMs() != null ? request.jitterMs() : 0;
+        if (jitter < 0) {
+            throw new IllegalArgumentException("jitter_ms must not be negative");
+        }
+        long base = (request.sendAt() != null ? request.sendAt().toEpochMilli() : now) + offset;
+        Entry entry = new Entry(sequence.incrementAndGet(), request.destination(), request.method(), params,
+                interval, jitter, base);
+        entry.nextRunAt = base + jitter(jitter);
+        return entry;
+    }
+
+    public Schedule get(String id) {
+        Long key = parseId(id);
+        Entry entry = key != null ? schedules.get(key) : null;
+        return entry != null ? entry.toSchedule() : null;
+    }
+
+    /**
+     * @param after the {@code next} cursor of the previous page, or {@code null} for the first
+     */
+    public ScheduleList list(String after, Integer limit) {
+        int pageSize = limit != null && limit > 0 ? limit : DEFAULT_PAGE_SIZE;
+        Long from = after != null ? parseId(after) : null;
+        if (after != null && from == null) {
+            throw new IllegalArgumentException("Invalid cursor: " + after);
+        }
+        Map<Long, Entry> tail = from != null ? schedules.tailMap(from, false) : schedules;
+        List<Schedule> items = new ArrayList<>(Math.min(pageSize, size.get()));
+        String next = null;
+        for (Entry entry : tail.values()) {
+            if (items.size() == pageSize) {
+                next = items.get(items.size() - 1).id();
+                break;
+            }
+            items.add(entry.toSchedule());
+        }
+        return new ScheduleList(size.get(), items, next);
+    }
+
+    /**
+     * @return whether a schedule with this id existed
+     */
+    public boolean cancel(String id) {
+        Long key = parseId(id);
+        Entry entry = key != null ? schedules.remove(key) : null;
+        if (entry == null) {
+            return false;
+        }
+        entry.cancelled = true;
+        size.decrementAndGet();
+        cancelled.offer(entry);
+        version.incrementAndGet();
+        return true;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                tick();
+            } catch (Exception e) {
+                logger.error("Request scheduler tick failed", e);
+            }
+            long nextTick = (millisClock.getAsLong() / tickMillis + 1) * tickMillis;
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(Math.max(1, nextTick - millisClock.getAsLong())));
+        }
+    }
+
+    /**
+     * Applies the queued registrations and cancellations and fires every run due by now;
+     * called on the ticker thread only.
+     */
+    void tick() {
+        for (Entry entry = added.poll(); entry != null; entry = added.poll()) {
+            if (!entry.cancelled) {
+                entry.timeout = wheel.schedule(entry, deadlineTick(entry.nextRunAt));
+            }
+        }
+        for (Entry entry = cancelled.poll(); entry != null; entry = cancelled.poll()) {
+            if (entry.timeout != null) {
+                wheel.cancel(entry.timeout);
+                entry.timeout = null;
+            }
+        }
+        long now = millisClock.getAsLong();
+        wheel.advance(now / tickMillis, due::add);
+        if (!due.isEmpty()) {
+            dispatch(due, now);
+            due.clear();
+        }
+        timers = wheel.size();
+    }
+
+    /**
+     * Publishes {@code due} grouped by destination and re-arms the recurring ones.
+     */
+    private void dispatch(List<Entry> due, long now) {
+        Map<RpcDestination, List<Entry>> byDestination = new EnumMap<>(RpcDestination.class);
+        for (Entry entry : due) {
+            entry.timeout = null;
+            if (entry.cancelled) {
+                continue;
+            }
+            Timer timer = lagTimer;
+            if (timer != null) {
+                timer.record(Math.max(0, now - entry.nextRunAt), TimeUnit.MILLISECONDS);
+            }
+            entry.lastRunAt = now;
+            byDestination.computeIfAbsent(entry.destination, destination -> new ArrayList<>()).add(entry);
+            if (entry.interval > 0) {
+                rearm(entry, now);
+            }
+        }
+        int chunkSize = Math.max(1, producerService.getMaxBatchItems());
+        byDestination.forEach((destination, entries) -> {
+            for (int from = 0; from < entries.size(); from += chunkSize) {
+                publish(destination, entries.subList(from, Math.min(entries.size(), from + chunkSize)));
+            }
+        });
+        version.incrementAndGet();
+    }
+
+    private void rearm(Entry entry, long now) {
+        entry.base += entry.interval;
+        skipMissed(entry, now);
+        entry.timeout = wheel.schedule(entry, deadlineTick(entry.nextRunAt));
+    }
+
+    /**
+     * Moves a recurring entry's next run past {@code now}, counting the runs it missed.
+     */
+    private void skipMissed(Entry entry, long now) {
+        if (entry.base <= now) {
+            long missed = (now - entry.base) / entry.interval + 1;
+            skipped.add(missed);
+            entry.base += missed * entry.interval;
+        }
+        entry.nextRunAt = entry.base + jitter(entry.jitter);
+    }
+
+    private void publish(RpcDestination destination, List<Entry> entries) {
+        List<Entry> chunk = List.copyOf(entries);
+        List<BatchRequestItem> items = new ArrayList<>(chunk.size());
+        for (Entry entry : chunk) {
+            items.add(new BatchRequestItem(entry.method, entry.params));
+        }
+        CompletableFuture<List<BatchItemResult>> results;
+        try {
+            results = destination == RpcDestination.WORLD_INFO
+                    ? producerService.sendWorldInfoBatch(items)
+                    : producerService.sendExtProviderBatch(items);
+        } catch (RuntimeException e) {
+            results = CompletableFuture.failedFuture(e);
+        }
+        results.whenComplete((outcome, throwable) -> {
+            if (throwable != null) {
+                logger.warn("Scheduled {} batch of {} requests failed: {}",
+                        destination.service(), chunk.size(), throwable.getMessage());
+            }
+            for (int i = 0; i < chunk.size(); i++) {
+                Entry entry = chunk.get(i);
+                boolean success = throwable == null && outcome.get(i).success();
+                (success ? dispatched : failed).increment();
+                (success ? entry.runs : entry.failures).incrementAndGet();
+                if (entry.interval == 0 && schedules.remove(entry.sequence, entry)) {
+                    size.decrementAndGet();
+                }
+            }
+        });
+    }
+
+    private long deadlineTick(long epochMillis) {
+        return Math.ceilDiv(epochMillis, tickMillis);
+    }
+
+    private static long jitter(long jitter) {
+        return jitter > 0 ? ThreadLocalRandom.current().nextLong(jitter) : 0;
+    }
+
+    @Scheduled(fixedDelayString = "${app.schedules.snapshot-interval-ms:5000}")
+    public synchronized void snapshot() {
+        if (wheel == null || snapshotPath == null) {
+            return;
+        }
+        long current = version.get();
+        if (current == savedVersion) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            int saved = save();
+            savedVersion = current;
+            logger.debug("Saved {} schedules to {}", saved, snapshotPath);
+        } catch (IOException e) {
+            logger.warn("Failed to save schedules to {}", snapshotPath, e);
+        } finally {
+            Timer timer = snapshotTimer;
+            if (timer != null) {
+                timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * Writes every schedule to a temporary file, forces it to disk and renames it over the
+     * snapshot, so a crash leaves either the old snapshot or the new one.
+     */
+    private int save() throws IOException {
+        Path directory = snapshotPath.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, snapshotPath.getFileName().toString(), ".tmp");
+        int count = 0;
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE);
+                 DataOutputStream out = new DataOutputStream(
+                         new BufferedOutputStream(Channels.newOutputStream(channel)))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(SNAPSHOT_VERSION);
+                out.writeLong(sequence.get());
+                for (Entry entry : schedules.values()) {
+                    out.writeBoolean(true);
+                    entry.writeTo(out, objectMapper);
+                    count++;
+                }
+                out.writeBoolean(false);
+                out.flush();
+                channel.force(false);
+            }
+            Files.move(temp, snapshotPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return count;
+    }
+
+    private void restore() {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                throw new IllegalStateException("Not a schedule snapshot: " + snapshotPath);
+            }
+            sequence.set(in.readLong());
+            long now = millisClock.getAsLong();
+            long missedBefore = skipped.sum();
+            while (in.readBoolean()) {
+                Entry entry = Entry.readFrom(in, objectMapper);
+                // runs that came due while the producer was down are skipped, not fired on the first tick;
+                // one-shot schedules that never ran still go out
+                if (entry.interval > 0 && entry.nextRunAt <= now) {
+                    skipMissed(entry, now);
+                }
+                schedules.put(entry.sequence, entry);
+                added.offer(entry);
+            }
+            size.set(schedules.size());
+            logger.info("Restored {} schedules from {}, skipping {} runs missed while stopped",
+                    schedules.size(), snapshotPath, skipped.sum() - missedBefore);
+        } catch (NoSuchFileException e) {
+            logger.info("No schedule snapshot at {}, starting empty", snapshotPath);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to restore schedules from " + snapshotPath, e);
+        }
+    }
+
+    private static String formatId(long sequence) {
+        return String.format("sch-%016x", sequence);
+    }
+
+    private static Long parseId(String id) {
+        if (id == null || !id.startsWith("sch-")) {
+            return null;
+        }
+        try {
+            return Long.parseUnsignedLong(id.substring(4), 16);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        running = false;
+        if (ticker != null) {
+            LockSupport.unpark(ticker);
+        }
+        snapshot();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (wheel == null) {
+            return;
+        }
+        Gauge.builder("producer.schedules.active", size, AtomicInteger::get)
+                .description("Registered schedules")
+                .register(registry);
+        Gauge.builder("producer.schedules.timers", this, scheduler -> scheduler.timers)
+                .description("Runs waiting on the timing wheel")
+                .register(registry);
+        FunctionCounter.builder("producer.schedules.runs", dispatched, LongAdder::sum)
+                .description("Scheduled runs by publish outcome")
+                .tag("result", "published")
+                .register(registry);
+        FunctionCounter.builder("producer.schedules.runs", failed, LongAdder::sum)
+                .description("Scheduled runs by publish outcome")
+                .tag("result", "failed")
+                .register(registry);
+        FunctionCounter.builder("producer.schedules.runs", skipped, LongAdder::sum)
+                .description("Scheduled runs by publish outcome")
+                .tag("result", "skipped")
+                .register(registry);
+        lagTimer = Timer.builder("producer.schedules.lag")
+                .description("How late each run fired after its due time")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        if (snapshotPath != null) {
+            snapshotTimer = Timer.builder("producer.schedules.snapshot.time")
+                    .description("Time to save the schedules")
+                    .register(registry);
+        }
+    }
+
+    /**
+     * One schedule. Timing fields belong to the ticker thread; the rest is read by the API.
+     */
+    private static final class Entry {
+
+        private final long sequence;
+        private final RpcDestination destination;
+        private final String method;
+        private final Map<String, Object> params;
+        private final long interval;
+        private final long jitter;
+        private final AtomicLong runs = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        // the run time without jitter, advanced by interval
+        private long base;
+        private TimingWheel.Timeout<Entry> timeout;
+        private volatile long nextRunAt;
+        private volatile long lastRunAt = -1;
+        private volatile boolean cancelled;
+
+        Entry(long sequence, RpcDestination destination, String method, Map<String, Object> params,
+              long interval, long jitter, long base) {
+            this.sequence = sequence;
+            this.destination = destination;
+            this.method = method;
+            this.params = params;
+            this.interval = interval;
+            this.jitter = jitter;
+            this.base = base;
+        }
+
+        Schedule toSchedule() {
+            long last = lastRunAt;
+            return new Schedule(formatId(sequence), destination, method, params,
+                    interval > 0 ? interval : null,
+                    jitter > 0 ? jitter : null,
+                    Instant.ofEpochMilli(nextRunAt),
+                    last >= 0 ? Instant.ofEpochMilli(last) : null,
+                    runs.get(), failures.get());
+        }
+
+        void writeTo(DataOutputStream out, ObjectMapper objectMapper) throws IOException {
+            out.writeLong(sequence);
+            out.writeUTF(destination.name());
+            out.writeUTF(method);
+            byte[] encoded = objectMapper.writeValueAsBytes(params);
+            out.writeInt(encoded.length);
+            out.write(encoded);
+            out.writeLong(interval);
+            out.writeLong(jitter);
+            out.writeLong(base);
+            out.writeLong(nextRunAt);
+            out.writeLong(lastRunAt);
+            out.writeLong(runs.get());
+            out.writeLong(failures.get());
+        }
+
+        static Entry readFrom(DataInputStream in, ObjectMapper objectMapper) throws IOException {
+            long sequence = in.readLong();
+            RpcDestination destination = RpcDestination.valueOf(in.readUTF());
+            String method = in.readUTF();
+            byte[] encoded = in.readNBytes(in.readInt());
+            Map<String, Object> params = objectMapper.readValue(encoded, PARAMS_TYPE);
+            Entry entry = new Entry(sequence, destination, method, params, in.readLong(), in.readLong(), in.readLong());
+            entry.nextRunAt = in.readLong();
+            entry.lastRunAt = in.readLong();
+            entry.runs.set(in.readLong());
+            entry.failures.set(in.readLong());
+            return entry;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.worldinfo.producer.schedule;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel over absolute tick numbers.
+ * <p>
+ * Level {@code l} has {@code wheelSize} buckets of {@code wheelSize^l} ticks each. A timer
+ * goes into the lowest level whose span covers its distance from the current tick, and
+ * when the current tick reaches a bucket of a higher level, that bucket's timers move down
+ * to where they now belong. Scheduling, cancelling and firing are O(1) per timer; each
+ * timer moves down at most {@code levels - 1} times. Timers further out than the top level
+ * reaches wait in its last bucket and are placed again when it comes round.
+ * <p>
+ * Not thread-safe: one thread owns the wheel.
+ */
+final class TimingWheel<T> {
+
+    private final int bits;
+    private final long mask;
+    private final int levels;
+    private final Bucket<T>[][] wheels;
+    // timers already due when scheduled or moved down, fired on the next advance
+    private final Bucket<T> overdue = new Bucket<>();
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    TimingWheel(int wheelSize, int levels, long startTick) {
+        if (wheelSize < 2 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Wheel size must be a power of two, got " + wheelSize);
+        }
+        this.bits = Integer.numberOfTrailingZeros(wheelSize);
+        // level 0 buckets fire without checking deadlines, so timers beyond the wheel's reach
+        // need a higher level to wait in
+        if (levels < 2 || bits * levels > 62) {
+            throw new IllegalArgumentException("Unsupported number of levels: " + levels);
+        }
+        this.mask = wheelSize - 1;
+        this.levels = levels;
+        this.wheels = new Bucket[levels][wheelSize];
+        for (Bucket<T>[] wheel : wheels) {
+            for (int i = 0; i < wheel.length; i++) {
+                wheel[i] = new Bucket<>();
+            }
+        }
+        this.currentTick = startTick;
+    }
+
+    Timeout<T> schedule(T item, long deadlineTick) {
+        Timeout<T> timeout = new Timeout<>(item, deadlineTick);
+        place(timeout);
+        size++;
+        return timeout;
+    }
+
+    void cancel(Timeout<T> timeout) {
+        if (timeout.bucket != null) {
+            timeout.bucket.remove(timeout);
+            size--;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Moves the wheel to {@code tick}, handing every timer that came due to {@code due}.
+     */
+    void advance(long tick, Consumer<T> due) {
+        fire(overdue, due);
+        if (size == 0) {
+            currentTick = Math.max(currentTick, tick);
+            return;
+        }
+        while (currentTick < tick) {
+            long now = ++currentTick;
+            int crossed = 1;
+            while (crossed < levels && (now & ((1L << (bits * crossed)) - 1)) == 0) {
+                crossed++;
+            }
+            for (int level = crossed - 1; level >= 1; level--) {
+                Bucket<T> bucket = wheels[level][(int) ((now >>> (bits * level)) & mask)];
+                for (Timeout<T> timeout = bucket.poll(); timeout != null; timeout = bucket.poll()) {
+                    place(timeout);
+                }
+            }
+            fire(wheels[0][(int) (now & mask)], due);
+            fire(overdue, due);
+            if (size == 0) {
+                currentTick = tick;
+            }
+        }
+    }
+
+    private void fire(Bucket<T> bucket, Consumer<T> due) {
+        for (Timeout<T> timeout = bucket.poll(); timeout != null; timeout = bucket.poll()) {
+            size--;
+            due.accept(timeout.item);
+        }
+    }
+
+    private void place(Timeout<T> timeout) {
+        long delta = timeout.deadlineTick - currentTick;
+        if (delta <= 0) {
+            overdue.add(timeout);
+            return;
+        }
+        for (int level = 0; level < levels; level++) {
+            if (delta < 1L << (bits * (level + 1))) {
+                wheels[level][(int) ((timeout.deadlineTick >>> (bits * level)) & mask)].add(timeout);
+                return;
+            }
+        }
+        // beyond the top level: the bucket just behind the current one comes round last
+        int top = levels - 1;
+        wheels[top][(int) (((currentTick >>> (bits * top)) - 1) & mask)].add(timeout);
+    }
+
+    static final class Timeout<T> {
+
+        private final T item;
+        private final long deadlineTick;
+        private Bucket<T> bucket;
+        private Timeout<T> previous;
+        private Timeout<T> next;
+
+        private Timeout(T item, long deadlineTick) {
+            this.item = item;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+
+    /**
+     * Intrusive doubly linked list, so a cancelled timer is unlinked in place.
+     */
+    private static final class Bucket<T> {
+
+        private Timeout<T> head;
+        private Timeout<T> tail;
+
+        void add(Timeout<T> timeout) {
+            timeout.bucket = this;
+            timeout.previous = tail;
+            timeout.next = null;
+            if (tail != null) {
+                tail.next = timeout;
+            } else {
+                head = timeout;
+            }
+            tail = timeout;
+        }
+
+        void remove(Timeout<T> timeout) {
+            if (timeout.previous != null) {
+                timeout.previous.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.previous = timeout.previous;
+            } else {
+                tail = timeout.previous;
+            }
+            timeout.bucket = null;
+            timeout.previous = null;
+            timeout.next = null;
+        }
+
+        Timeout<T> poll() {
+            Timeout<T> timeout = head;
+            if (timeout != null) {
+                remove(timeout);
+            }
+            return timeout;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.worldinfo.producer.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import com.worldinfo.producer.config.BatchPublishProperties;
+import com.worldinfo.producer.model.PublishReceipt;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Groups prepared messages and writes each group on a single channel checkout.
+ * <p>
+ * A flusher thread takes up to {@code max-size} queued messages, waiting at most
+ * {@code linger} for a batch to fill, publishes them inside one
+ * {@link RabbitTemplate#invoke} and then tracks their confirms together.
+ * Messages stay individual AMQP messages, so consumers need no batch format.
+ */
+@Component
+@EnableConfigurationProperties(BatchPublishProperties.class)
+public class BatchPublisher implements MeterBinder, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchPublisher.class);
+
+    private final RabbitTemplate rabbitTemplate;
+    private final PublisherConfirmTracker confirmTracker;
+    private final BatchPublishProperties properties;
+    private final BlockingQueue<PendingPublish> queue;
+    private final Thread flusher;
+
+    private volatile boolean running = true;
+    private DistributionSummary batchSize;
+
+    public BatchPublisher(RabbitTemplate rabbitTemplate,
+                          PublisherConfirmTracker confirmTracker,
+                          BatchPublishProperties properties) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.confirmTracker = confirmTracker;
+        this.properties = properties;
+        this.queue = new LinkedBlockingQueue<>(properties.queueCapacity());
+        this.flusher = Thread.ofPlatform()
+                .name("batch-publisher")
+                .daemon(true)
+                .start(this::run);
+    }
+
+    /**
+     * Queues a prepared message for the next batch.
+     */
+    public CompletableFuture<PublishReceipt> enqueue(PublishRoute route, String requestId, Message message) {
+        PendingPublish pending = new PendingPublish(route, requestId, message);
+        if (!running || !queue.offer(pending)) {
+            pending.result.completeExceptionally(
+                    new RejectedExecutionException("Batch publisher queue full (" + properties.queueCapacity() + ")"));
+        }
+        return pending.result;
+    }
+
+    public int getMaxItems() {
+        return properties.maxItems();
+    }
+
+    private void run() {
+        List<PendingPublish> batch = new ArrayList<>(properties.maxSize());
+        long lingerNanos = properties.linger().toNanos();
+        while (running) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + lingerNanos;
+                queue.drainTo(batch, properties.maxSize() - batch.size());
+                while (batch.size() < properties.maxSize()) {
+                    PendingPublish next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, properties.maxSize() - batch.size());
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                logger.error("Unexpected error in batch publisher", e);
+            } finally {
+                batch.clear();
+            }
+        }
+        queue.drainTo(batch);
+        batch.forEach(pending -> pending.result.completeExceptionally(
+                new RejectedExecutionException("Batch publisher stopped")));
+    }
+
+    private void flush(List<PendingPublish> batch) {
+        if (batchSize != null) {
+            batchSize.record(batch.size());
+        }
+        // reserve the confirm window before taking a channel, so a full window neither
+        // holds the channel nor fails the messages that do fit
+        if (confirmTracker.isEnabled()) {
+            List<CorrelationData> correlations = confirmTracker.register(
+                    batch.stream().map(pending -> pending.requestId).toList());
+            for (int i = 0; i < batch.size(); i++) {
+                PendingPublish pending = batch.get(i);
+                pending.correlation = correlations.get(i);
+                if (pending.correlation == null) {
+                    pending.rejected = true;
+                    pending.result.completeExceptionally(new RejectedExecutionException(
+                            "Outstanding publisher confirm window full ("
+                                    + confirmTracker.getMaxOutstanding() + ")"));
+                }
+            }
+        }
+        try {
+            rabbitTemplate.invoke(operations -> {
+                for (PendingPublish pending : batch) {
+                    if (pending.rejected) {
+                        continue;
+                    }
+                    operations.send(pending.route.exchange(), pending.route.routingKey(),
+                            pending.message, pending.correlation);
+                    pending.sent = true;
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            logger.error("Batch publish failed after writing {} of {} messages",
+                    batch.stream().filter(pending -> pending.sent).count(), batch.size(), e);
+            for (PendingPublish pending : batch) {
+                if (!pending.sent && !pending.rejected) {
+                    if (pending.correlation != null) {
+                        confirmTracker.abandon(pending.correlation);
+                    }
+                    pending.result.completeExceptionally(e);
+                }
+            }
+        }
+
+        for (PendingPublish pending : batch) {
+            if (!pending.sent) {
+                continue;
+            }
+            if (pending.correlation == null) {
+                pending.result.complete(PublishReceipt.sent(pending.requestId));
+            } else {
+                confirmTracker.confirmation(pending.correlation).whenComplete((requestId, throwable) -> {
+                    if (throwable != null) {
+                        pending.result.completeExceptionally(throwable);
+                    } else {
+                        pending.result.complete(PublishReceipt.confirmed(requestId));
+                    }
+                });
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("producer.publish.batch.queued", queue, BlockingQueue::size)
+                .description("Messages waiting for the batch publisher")
+                .register(registry);
+        batchSize = DistributionSummary.builder("producer.publish.batch.size")
+                .description("Messages written per channel checkout")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        flusher.interrupt();
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private static final class PendingPublish {
+        private final PublishRoute route;
+        private final String requestId;
+        private final Message message;
+        private final CompletableFuture<PublishReceipt> result = new CompletableFuture<>();
+        private CorrelationData correlation;
+        private boolean rejected;
+        private boolean sent;
+
+        private PendingPublish(PublishRoute route, String requestId, Message message) {
+            this.route = route;
+            this.requestId = requestId;
+            this.message = message;
+        }
+    }
+}
@@ -0,0 +1,417 @@
+package com.worldinfo.producer.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.connection.Connection;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionListener;
+import org.springframework.beans.factory.DisposableBean;
+
+import com.worldinfo.producer.config.BrokerProperties;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * The broker nodes publishes are spread over, each with its own {@link PublishConnectionPool}.
+ * <p>
+ * {@link WorldInfoProducerService} picks a node per publish with {@link #select} and sends
+ * through {@link #send}, which reports the outcome back to the node. Every other use of the
+ * {@code RabbitTemplate} (batches, outbox replay) gets the least loaded admitted node when it
+ * opens its connection.
+ * <p>
+ * A node is ejected after {@code failure-threshold} consecutive failed publishes or when the
+ * moving average of its publish latency passes {@code slow-threshold}, and re-admitted with a
+ * clean slate once its ejection time is up; a node that keeps getting ejected stays out longer
+ * each time. With a single node nothing is ever ejected.
+ */
+public class BrokerNodes implements MeterBinder, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(BrokerNodes.class);
+
+    // weight of the newest sample in a node's latency average
+    private static final double LATENCY_ALPHA = 0.2;
+
+    // the node a publish was sent to, read when the template opens its connection
+    private static final ThreadLocal<Node> bound = new ThreadLocal<>();
+
+    private final BrokerProperties properties;
+    private final List<Node> nodes;
+    private final int minAdmitted;
+    private final AtomicInteger cursor = new AtomicInteger();
+    private final ConnectionFactory connectionFactory;
+    private final LongSupplier nanoClock;
+
+    /**
+     * @param pools node name to its connections, in the configured order
+     */
+    public BrokerNodes(BrokerProperties properties, Map<String, PublishConnectionPool> pools) {
+        this(properties, pools, System::nanoTime);
+    }
+
+    BrokerNodes(BrokerProperties properties, Map<String, PublishConnectionPool> pools, LongSupplier nanoClock) {
+        if (pools.isEmpty()) {
+            throw new IllegalArgumentException("At least one broker node is required");
+        }
+        this.properties = properties;
+        this.nanoClock = nanoClock;
+        List<Node> created = new ArrayList<>(pools.size());
+        pools.forEach((name, pool) -> created.add(new Node(name, pool)));
+        this.nodes = List.copyOf(created);
+        int maxEjectedPercent = Math.max(0, Math.min(100, properties.health().maxEjectedPercent()));
+        int maxEjected = this.nodes.size() * maxEjectedPercent / 100;
+        this.minAdmitted = Math.max(1, this.nodes.size() - maxEjected);
+        this.connectionFactory = new NodeRoutingConnectionFactory();
+    }
+
+    /**
+     * @return the factory to hand to the {@code RabbitTemplate}
+     */
+    public ConnectionFactory connectionFactory() {
+        return connectionFactory;
+    }
+
+    /**
+     * @return the node calls that wait for a reply are published to: the first, which
+     *         {@code RpcReplyConfig} checks is the broker holding the reply queue
+     */
+    public Node primary() {
+        return nodes.get(0);
+    }
+
+    /**
+     * @return whether {@link #select} uses its key, so callers can skip computing one
+     */
+    public boolean usesKey() {
+        return properties.selection() == BrokerProperties.Selection.PARTITION_KEY && nodes.size() > 1;
+    }
+
+    /**
+     * @param key the publish's partition key, used in {@code partition-key} selection
+     */
+    public Node select(String key) {
+        return select(key, false);
+    }
+
+    /**
+     * @param key   the publish's partition key
+     * @param byKey pick by {@code key} whatever the selection, for publishes whose key must keep its node
+     */
+    public Node select(String key, boolean byKey) {
+        if (nodes.size() == 1) {
+            return nodes.get(0);
+        }
+        long now = nanoClock.getAsLong();
+        return key != null && (byKey || usesKey()) ? byKey(key, now) : leastOutstanding(now);
+    }
+
+    /**
+     * Runs {@code send} with its connection taken from {@code node} and counts the publish as
+     * outstanding on the node until {@link Node#completed} is called. A failure thrown by
+     * {@code send} completes it right away.
+     */
+    public void send(Node node, Runnable send) {
+        node.outstanding.incrementAndGet();
+        long start = nanoClock.getAsLong();
+        Node previous = bound.get();
+        bound.set(node);
+        try {
+            send.run();
+        } catch (RuntimeException e) {
+            node.completed(e, nanoClock.getAsLong() - start);
+            throw e;
+        } finally {
+            if (previous != null) {
+                bound.set(previous);
+            } else {
+                bound.remove();
+            }
+        }
+    }
+
+    private Node leastOutstanding(long now) {
+        int size = nodes.size();
+        // start the scan somewhere new each time so that ties spread over the nodes
+        int start = Math.floorMod(cursor.getAndIncrement(), size);
+        Node best = null;
+        for (int i = 0; i < size; i++) {
+            Node node = nodes.get((start + i) % size);
+            if (node.admitted(now) && (best == null || node.outstanding.get() < best.outstanding.get())) {
+                best = node;
+            }
+        }
+        return best != null ? best : nodes.get(start);
+    }
+
+    /**
+     * Rendezvous hashing: the admitted node scoring highest for the key wins, so ejecting a
+     * node only moves the keys it held.
+     */
+    private Node byKey(String key, long now) {
+        int keyHash = key.hashCode();
+        Node best = null;
+        int bestScore = 0;
+        for (Node node : nodes) {
+            if (!node.admitted(now)) {
+                continue;
+            }
+            int score = mix(keyHash ^ node.seed);
+            if (best == null || Integer.compareUnsigned(score, bestScore) > 0) {
+                best = node;
+                bestScore = score;
+            }
+        }
+        return best != null ? best : leastOutstanding(now);
+    }
+
+    /**
+     * Only failures that say something about the node count against it; a full confirm
+     * window or channel cache, or a message that would not serialize, do not.
+     */
+    private static boolean countsAgainstNode(Throwable throwable) {
+        return switch (PublishMetrics.cause(throwable, true)) {
+            case "connection", "confirm_timeout", "nack" -> true;
+            default -> false;
+        };
+    }
+
+    private static int mix(int hash) {
+        int mixed = hash * 0x9E3779B9;
+        mixed ^= mixed >>> 15;
+        mixed *= 0x85EBCA6B;
+        return mixed ^ (mixed >>> 13);
+    }
+
+    private synchronized void eject(Node node, String reason) {
+        long now = nanoClock.getAsLong();
+        if (!node.admitted(now)) {
+            return;
+        }
+        long admitted = nodes.stream().filter(candidate -> candidate.admitted(now)).count();
+        if (admitted <= minAdmitted) {
+            // logged at debug: a node stuck like this reports it on every publish
+            logger.debug("Broker node {} stays admitted despite {}: {} of {} nodes admitted",
+                    node.name, reason, admitted, nodes.size());
+            return;
+        }
+        long maxEjection = properties.health().maxEjectionTime().toNanos();
+        if (now - node.readmittedNanos > maxEjection) {
+            node.recentEjections = 0;
+        }
+        node.recentEjections++;
+        long ejection = Math.min(maxEjection, properties.health().ejectionTime().toNanos() * node.recentEjections);
+        node.ejectedUntilNanos = now + ejection;
+        node.ejections.increment();
+        logger.warn("Ejecting broker node {} for {} ms: {}", node.name, TimeUnit.NANOSECONDS.toMillis(ejection),
+                reason);
+    }
+
+    private synchronized void readmit(Node node, long now) {
+        if (node.ejectedUntilNanos == 0 || now < node.ejectedUntilNanos) {
+            return;
+        }
+        node.consecutiveFailures.set(0);
+        node.latencyNanos = -1;
+        node.readmittedNanos = now;
+        node.ejectedUntilNanos = 0;
+        logger.info("Re-admitting broker node {}", node.name);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Node node : nodes) {
+            node.pool.bindTo(registry);
+            Gauge.builder("producer.broker.node.outstanding", node.outstanding, AtomicInteger::get)
+                    .description("Publishes sent to the node and not yet confirmed")
+                    .tag("node", node.name)
+                    .register(registry);
+            Gauge.builder("producer.broker.node.admitted", node,
+                            candidate -> candidate.admitted(nanoClock.getAsLong()) ? 1 : 0)
+                    .description("Whether the node takes publishes (1) or is ejected (0)")
+                    .tag("node", node.name)
+                    .register(registry);
+            TimeGauge.builder("producer.broker.node.latency", node, TimeUnit.NANOSECONDS,
+                            candidate -> Math.max(0, candidate.latencyNanos))
+                    .description("Moving average of the node's publish latency")
+                    .tag("node", node.name)
+                    .register(registry);
+            FunctionCounter.builder("producer.broker.node.publishes", node.succeeded, LongAdder::sum)
+                    .tag("node", node.name)
+                    .tag("result", "ok")
+                    .register(registry);
+            FunctionCounter.builder("producer.broker.node.publishes", node.failed, LongAdder::sum)
+                    .tag("node", node.name)
+                    .tag("result", "failed")
+                    .register(registry);
+            FunctionCounter.builder("producer.broker.node.ejections", node.ejections, LongAdder::sum)
+                    .description("Times the node was ejected")
+                    .tag("node", node.name)
+                    .register(registry);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        for (Node node : nodes) {
+            node.pool.destroy();
+        }
+    }
+
+    public final class Node {
+
+        private final String name;
+        private final PublishConnectionPool pool;
+        private final int seed;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private final LongAdder succeeded = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder ejections = new LongAdder();
+
+        // a racy moving average is good enough to tell a slow node from a healthy one
+        private volatile double latencyNanos = -1;
+        private volatile long ejectedUntilNanos;
+        private volatile long readmittedNanos;
+        // only touched under the BrokerNodes lock
+        private int recentEjections;
+
+        private Node(String name, PublishConnectionPool pool) {
+            this.name = name;
+            this.pool = pool;
+            this.seed = mix(name.hashCode());
+            this.readmittedNanos = nanoClock.getAsLong();
+        }
+
+        public String name() {
+            return name;
+        }
+
+        /**
+         * Reports how a publish sent with {@link BrokerNodes#send} ended.
+         *
+         * @param throwable the failure, or {@code null} once the broker has the message
+         * @param nanos     time from sending to the outcome
+         */
+        public void completed(Throwable throwable, long nanos) {
+            outstanding.decrementAndGet();
+            if (throwable != null) {
+                if (countsAgainstNode(throwable)) {
+                    failed.increment();
+                    int failures = consecutiveFailures.incrementAndGet();
+                    if (failures >= properties.health().failureThreshold()) {
+                        eject(this, failures + " consecutive failed publishes");
+                    }
+                }
+                return;
+            }
+            succeeded.increment();
+            consecutiveFailures.set(0);
+            double previous = latencyNanos;
+            double average = previous < 0 ? nanos : previous + LATENCY_ALPHA * (nanos - previous);
+            latencyNanos = average;
+            if (average > properties.health().slowThreshold().toNanos()) {
+                eject(this, "average publish latency " + TimeUnit.NANOSECONDS.toMillis((long) average) + " ms");
+            }
+        }
+
+        private boolean admitted(long now) {
+            long until = ejectedUntilNanos;
+            if (until == 0) {
+                return true;
+            }
+            if (now < until) {
+                return false;
+            }
+            readmit(this, now);
+            return true;
+        }
+    }
+
+    /**
+     * Opens connections on the node the calling publish was sent to, or on the least loaded
+     * admitted node for everything else.
+     */
+    private final class NodeRoutingConnectionFactory implements ConnectionFactory {
+
+        private final ConnectionFactory first = nodes.get(0).pool.connectionFactory();
+
+        @Override
+        public Connection createConnection() {
+            Node node = bound.get();
+            if (node == null) {
+                node = nodes.size() == 1 ? nodes.get(0) : leastOutstanding(nanoClock.getAsLong());
+            }
+            return node.pool.connectionFactory().createConnection();
+        }
+
+        @Override
+        public String getHost() {
+            return first.getHost();
+        }
+
+        @Override
+        public int getPort() {
+            return first.getPort();
+        }
+
+        @Override
+        public String getVirtualHost() {
+            return first.getVirtualHost();
+        }
+
+        @Override
+        public String getUsername() {
+            return first.getUsername();
+        }
+
+        @Override
+        public void addConnectionListener(ConnectionListener listener) {
+            nodes.forEach(node -> node.pool.connectionFactory().addConnectionListener(listener));
+        }
+
+        @Override
+        public boolean removeConnectionListener(ConnectionListener listener) {
+            boolean removed = false;
+            for (Node node : nodes) {
+                removed |= node.pool.connectionFactory().removeConnectionListener(listener);
+            }
+            return removed;
+        }
+
+        @Override
+        public void clearConnectionListeners() {
+            nodes.forEach(node -> node.pool.connectionFactory().clearConnectionListeners());
+        }
+
+        @Override
+        public boolean isPublisherConfirms() {
+            return first.isPublisherConfirms();
+        }
+
+        @Override
+        public boolean isSimplePublisherConfirms() {
+            return first.isSimplePublisherConfirms();
+        }
+
+        @Override
+        public boolean isPublisherReturns() {
+            return first.isPublisherReturns();
+        }
+
+        @Override
+        public void resetConnection() {
+            nodes.forEach(node -> node.pool.connectionFactory().resetConnection());
+        }
+    }
+}
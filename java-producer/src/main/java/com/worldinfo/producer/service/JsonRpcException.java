@@ -0,0 +1,20 @@
+package com.worldinfo.producer.service;
+
+import com.worldinfo.producer.model.JsonRpcError;
+
+/**
+ * A request the producer refuses before publishing, carrying the JSON-RPC error to report.
+ */
+public class JsonRpcException extends RuntimeException {
+
+    private final transient JsonRpcError error;
+
+    public JsonRpcException(JsonRpcError error) {
+        super(error.message() + (error.data() != null ? ": " + error.data() : ""));
+        this.error = error;
+    }
+
+    public JsonRpcError error() {
+        return error;
+    }
+}
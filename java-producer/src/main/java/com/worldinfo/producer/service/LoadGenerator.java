@@ -0,0 +1,261 @@
+package com.worldinfo.producer.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import com.worldinfo.producer.config.LoadGeneratorProperties;
+import com.worldinfo.producer.config.LoadGeneratorProperties.MixEntry;
+import com.worldinfo.producer.config.LoadGeneratorProperties.Ramp;
+import com.worldinfo.producer.config.RpcDestination;
+import com.worldinfo.producer.model.LatencyPercentiles;
+import com.worldinfo.producer.model.LoadReport;
+import com.worldinfo.producer.model.PublishReceipt;
+
+/**
+ * Open-loop load generator for capacity testing.
+ * <p>
+ * A single pacing thread computes when each request is due from the target rate
+ * and the ramp, and sends it then whether or not earlier requests have finished.
+ * When the producer falls behind, requests are sent late rather than skipped,
+ * and their latency is measured from the time they were due, so stalls show up in
+ * the percentiles instead of being hidden by coordinated omission. Latencies are
+ * recorded into HdrHistogram {@link Recorder}s from the completion callbacks.
+ */
+@Component
+@EnableConfigurationProperties(LoadGeneratorProperties.class)
+@ConditionalOnProperty(name = "app.loadgen.enabled", havingValue = "true")
+public class LoadGenerator implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadGenerator.class);
+
+    private final WorldInfoProducerService producerService;
+    private final RequestParamsGenerator paramsGenerator;
+    private final LoadGeneratorProperties properties;
+
+    private volatile Run current;
+
+    public LoadGenerator(WorldInfoProducerService producerService,
+                         RequestParamsGenerator paramsGenerator,
+                         LoadGeneratorProperties properties) {
+        this.producerService = producerService;
+        this.paramsGenerator = paramsGenerator;
+        this.properties = properties;
+    }
+
+    /**
+     * Starts a run; {@code null} arguments fall back to {@code app.loadgen.*}.
+     *
+     * @throws IllegalStateException if a run is already in progress
+     */
+    public synchronized LoadReport start(Double rate, Duration duration, Ramp ramp) {
+        if (current != null && current.isRunning()) {
+            throw new IllegalStateException("A load generator run is already in progress");
+        }
+        Run run = new Run(
+                rate != null ? rate : properties.rate(),
+                duration != null ? duration : properties.duration(),
+                ramp != null ? ramp : properties.ramp());
+        current = run;
+        run.start();
+        return run.report();
+    }
+
+    /**
+     * Stops sending; the run still waits for outstanding requests before it reports.
+     */
+    public LoadReport stop() {
+        Run run = current;
+        if (run == null) {
+            return null;
+        }
+        run.stopRequested = true;
+        LockSupport.unpark(run.pacer);
+        return run.report();
+    }
+
+    /**
+     * @return the running or last finished run, or {@code null} if none was started
+     */
+    public LoadReport status() {
+        Run run = current;
+        return run != null ? run.report() : null;
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        Run run = current;
+        if (run != null && run.isRunning()) {
+            stop();
+            run.pacer.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    private final class Run {
+
+        private final double targetRate;
+        private final Duration duration;
+        private final Ramp ramp;
+        private final List<MixEntry> mix;
+        private final int[] cumulativeWeights;
+        private final Recorder dispatchRecorder = new Recorder(3);
+        private final Recorder completionRecorder = new Recorder(3);
+        private final Histogram dispatch = new Histogram(3);
+        private final Histogram completion = new Histogram(3);
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final AtomicLong outstanding = new AtomicLong();
+        private final Thread pacer;
+
+        private volatile String state = "running";
+        private volatile boolean stopRequested;
+        private volatile long sent;
+        private final Instant startedAt = Instant.now();
+        private final long startNanos = System.nanoTime();
+        private volatile Instant finishedAt;
+
+        private Run(double targetRate, Duration duration, Ramp ramp) {
+            if (targetRate <= 0) {
+                throw new IllegalArgumentException("rate must be positive");
+            }
+            this.targetRate = targetRate;
+            this.duration = duration;
+            this.ramp = ramp;
+            this.mix = (properties.mix().isEmpty() ? defaultMix() : properties.mix()).stream()
+                    .filter(entry -> entry.weight() > 0)
+                    .toList();
+            this.cumulativeWeights = new int[mix.size()];
+            int total = 0;
+            for (int i = 0; i < mix.size(); i++) {
+                total += mix.get(i).weight();
+                cumulativeWeights[i] = total;
+            }
+            if (total == 0) {
+                throw new IllegalArgumentException("app.loadgen.mix needs at least one positive weight");
+            }
+            this.pacer = Thread.ofPlatform().name("load-generator").daemon(true).unstarted(this::pace);
+        }
+
+        private void start() {
+            pacer.start();
+            logger.info("Load generator started: rate={}/s, duration={}, ramp={}", targetRate, duration, ramp);
+        }
+
+        private boolean isRunning() {
+            return pacer.isAlive();
+        }
+
+        private void pace() {
+            long endNanos = startNanos + duration.toNanos();
+            long intended = startNanos;
+            while (!stopRequested && intended < endNanos) {
+                long now = System.nanoTime();
+                if (intended > now) {
+                    LockSupport.parkNanos(intended - now);
+                    continue;
+                }
+                send(intended);
+                intended += (long) (TimeUnit.SECONDS.toNanos(1) / rateAt(intended - startNanos));
+            }
+            state = "draining";
+            long drainDeadline = System.nanoTime() + properties.drainTimeout().toNanos();
+            while (outstanding.get() > 0 && System.nanoTime() < drainDeadline) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+            }
+            finishedAt = Instant.now();
+            state = stopRequested ? "stopped" : "finished";
+            LoadReport report = report();
+            logger.info("Load generator {}: sent={}, completed={}, failed={}, achieved={}/s, "
+                            + "completion ms p50={} p90={} p99={} p99.9={} p99.99={} max={}",
+                    report.state(), report.sent(), report.completed(), report.failed(),
+                    String.format("%.1f", report.achievedRate()),
+                    report.completion().p50(), report.completion().p90(), report.completion().p99(),
+                    report.completion().p999(), report.completion().p9999(), report.completion().max());
+        }
+
+        private void send(long intended) {
+            MixEntry entry = pickMethod();
+            sent++;
+            outstanding.incrementAndGet();
+            CompletableFuture<PublishReceipt> future;
+            try {
+                Map<String, Object> params = paramsGenerator.generate(entry.method());
+                future = entry.destination() == RpcDestination.EXT_PROVIDER
+                        ? producerService.sendExtProviderRequest(entry.method(), params)
+                        : producerService.sendWorldInfoRequest(entry.method(), params);
+            } catch (RuntimeException e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            dispatchRecorder.recordValue(System.nanoTime() - intended);
+            future.whenComplete((receipt, throwable) -> {
+                completionRecorder.recordValue(System.nanoTime() - intended);
+                if (throwable != null) {
+                    failed.increment();
+                } else {
+                    completed.increment();
+                }
+                outstanding.decrementAndGet();
+            });
+        }
+
+        /**
+         * Requests per second at {@code elapsedNanos} into the run.
+         */
+        private double rateAt(long elapsedNanos) {
+            double progress = Math.min(1.0, (double) elapsedNanos / Math.max(1, properties.rampUp().toNanos()));
+            double rate = switch (ramp) {
+                case CONSTANT -> targetRate;
+                case LINEAR -> targetRate * progress;
+                case STEP -> {
+                    int steps = Math.max(1, properties.rampSteps());
+                    yield targetRate * Math.ceil(progress * steps) / steps;
+                }
+            };
+            // never slower than one request per second, so a ramp starting at zero still moves
+            return Math.max(1.0, rate);
+        }
+
+        private MixEntry pickMethod() {
+            int draw = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+            int index = Arrays.binarySearch(cumulativeWeights, draw + 1);
+            return mix.get(index >= 0 ? index : -index - 1);
+        }
+
+        private synchronized LoadReport report() {
+            dispatch.add(dispatchRecorder.getIntervalHistogram());
+            completion.add(completionRecorder.getIntervalHistogram());
+            Instant end = finishedAt != null ? finishedAt : Instant.now();
+            double seconds = Math.max(0.001, Duration.between(startedAt, end).toNanos() / 1e9);
+            return new LoadReport(state, targetRate, ramp.name().toLowerCase(), startedAt, finishedAt,
+                    sent, completed.sum(), failed.sum(), sent / seconds,
+                    LatencyPercentiles.of(dispatch), LatencyPercentiles.of(completion));
+        }
+    }
+
+    private static List<MixEntry> defaultMix() {
+        List<MixEntry> mix = new ArrayList<>();
+        RequestParamsGenerator.WORLD_INFO_METHODS.forEach(method ->
+                mix.add(new MixEntry(RpcDestination.WORLD_INFO, method, 1)));
+        RequestParamsGenerator.EXT_PROVIDER_METHODS.forEach(method ->
+                mix.add(new MixEntry(RpcDestination.EXT_PROVIDER, method, 1)));
+        return mix;
+    }
+}
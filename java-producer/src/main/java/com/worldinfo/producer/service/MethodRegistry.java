@@ -0,0 +1,204 @@
+package com.worldinfo.producer.service;
+
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import com.worldinfo.producer.config.MethodRegistryProperties;
+import com.worldinfo.producer.config.MethodRegistryProperties.Definition;
+import com.worldinfo.producer.config.MethodRegistryProperties.ParamType;
+import com.worldinfo.producer.config.RpcDestination;
+import com.worldinfo.producer.config.WireFormatProperties;
+import com.worldinfo.producer.model.JsonRpcError;
+
+import io.opentelemetry.api.common.Attributes;
+
+/**
+ * The JSON-RPC methods the producer knows, each compiled at startup into a
+ * {@link PublishTemplate} and a params check.
+ * <p>
+ * {@link #resolve} is the only per-request work: a map lookup and the params
+ * check. A method that is not defined for the destination is rejected with
+ * {@link JsonRpcError#methodNotFound()}, params that fail the check with
+ * {@link JsonRpcError#invalidParams()}, both before anything is serialized.
+ * With {@code app.methods.strict=false} undefined methods get an unchecked
+ * template built on the spot instead.
+ */
+@Component
+@EnableConfigurationProperties({MethodRegistryProperties.class, WireFormatProperties.class})
+public class MethodRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(MethodRegistry.class);
+
+    private final MethodRegistryProperties properties;
+    private final WireFormatProperties wireFormats;
+    private final PriorityLanes priorityLanes;
+    private final Map<RpcDestination, Map<String, Entry>> entries = new EnumMap<>(RpcDestination.class);
+    private final Map<RpcDestination, List<String>> methods = new EnumMap<>(RpcDestination.class);
+
+    public MethodRegistry(MethodRegistryProperties properties, WireFormatProperties wireFormats,
+                          PriorityLanes priorityLanes) {
+        this.properties = properties;
+        this.wireFormats = wireFormats;
+        this.priorityLanes = priorityLanes;
+
+        Map<String, Definition> definitions = properties.definitions().isEmpty()
+                ? defaultDefinitions()
+                : properties.definitions();
+        Map<RpcDestination, Map<String, Entry>> compiled = new EnumMap<>(RpcDestination.class);
+        for (RpcDestination destination : RpcDestination.values()) {
+            compiled.put(destination, new HashMap<>());
+        }
+        definitions.forEach((method, definition) -> {
+            if (definition.destination() == null) {
+                throw new IllegalStateException("app.methods.definitions." + method + ".destination is required");
+            }
+            compiled.get(definition.destination()).put(method,
+                    new Entry(template(definition.destination(), method, definition.timeout()),
+                            new ParamCheck(definition)));
+        });
+        compiled.forEach((destination, byMethod) -> {
+            entries.put(destination, Map.copyOf(byMethod));
+            methods.put(destination, byMethod.keySet().stream().sorted().toList());
+        });
+        logger.info("Method registry loaded: {}", methods);
+    }
+
+    /**
+     * @throws JsonRpcException when the method is not defined for {@code destination} or the params fail its check
+     */
+    public PublishTemplate resolve(RpcDestination destination, String method, Map<String, Object> params) {
+        Entry entry = method != null ? entries.get(destination).get(method) : null;
+        if (entry == null) {
+            if (properties.strict() || method == null || method.isBlank()) {
+                throw new JsonRpcException(JsonRpcError.methodNotFound(method));
+            }
+            return template(destination, method, null);
+        }
+        String problem = entry.check().problem(params);
+        if (problem != null) {
+            throw new JsonRpcException(JsonRpcError.invalidParams(problem));
+        }
+        return entry.template();
+    }
+
+    /**
+     * @return the methods defined for {@code destination}, sorted by name
+     */
+    public List<String> methods(RpcDestination destination) {
+        return methods.get(destination);
+    }
+
+    private PublishTemplate template(RpcDestination destination, String method, Duration timeout) {
+        return new PublishTemplate(destination, method,
+                priorityLanes.route(PublishRoute.of(destination), method),
+                wireFormats.resolve(destination.exchange(), method),
+                priorityLanes.priority(method),
+                priorityLanes.executor(method),
+                Attributes.builder()
+                        .put("rpc.service", destination.service())
+                        .put("rpc.method", method)
+                        .put("messaging.system", "rabbitmq")
+                        .put("messaging.destination_kind", "queue")
+                        .build(),
+                timeout);
+    }
+
+    private static Map<String, Definition> defaultDefinitions() {
+        Map<String, Definition> definitions = new HashMap<>();
+        definitions.put("getWeatherInfo", definition(RpcDestination.WORLD_INFO, "location"));
+        definitions.put("getTimeInfo", definition(RpcDestination.WORLD_INFO, "timezone"));
+        definitions.put("getLocationInfo", definition(RpcDestination.WORLD_INFO));
+        definitions.put("getCurrencyInfo", definition(RpcDestination.WORLD_INFO, "from", "to"));
+        definitions.put("fetchWeatherData", definition(RpcDestination.EXT_PROVIDER, "location"));
+        definitions.put("fetchGeoLocation", definition(RpcDestination.EXT_PROVIDER));
+        definitions.put("fetchImageOfDay", definition(RpcDestination.EXT_PROVIDER));
+        definitions.put("fetchNewsData", definition(RpcDestination.EXT_PROVIDER));
+        return definitions;
+    }
+
+    private static Definition definition(RpcDestination destination, String... required) {
+        return new Definition(destination, List.of(required), Map.of(), true, null);
+    }
+
+    private record Entry(PublishTemplate template, ParamCheck check) {
+    }
+
+    /**
+     * A method's params check, with the definition's lists turned into sets once.
+     */
+    private static final class ParamCheck {
+
+        private final List<String> required;
+        private final Map<String, ParamType> types;
+        private final Set<String> known;
+        private final boolean additionalParams;
+
+        ParamCheck(Definition definition) {
+            this.required = definition.required();
+            this.types = definition.params();
+            this.additionalParams = definition.additionalParams();
+            Set<String> names = new HashSet<>(definition.required());
+            names.addAll(definition.params().keySet());
+            this.known = Set.copyOf(names);
+        }
+
+        /**
+         * @return what is wrong with {@code params}, or {@code null} when they pass
+         */
+        String problem(Map<String, Object> params) {
+            Map<String, Object> actual = params != null ? params : Map.of();
+            List<String> missing = null;
+            for (String name : required) {
+                if (actual.get(name) == null) {
+                    if (missing == null) {
+                        missing = new ArrayList<>();
+                    }
+                    missing.add(name);
+                }
+            }
+            if (missing != null) {
+                return "missing " + String.join(", ", missing);
+            }
+            for (Map.Entry<String, Object> param : actual.entrySet()) {
+                ParamType type = types.get(param.getKey());
+                if (type == null) {
+                    if (!additionalParams && !known.contains(param.getKey())) {
+                        return "unexpected " + param.getKey();
+                    }
+                    continue;
+                }
+                if (param.getValue() != null && !matches(type, param.getValue())) {
+                    return param.getKey() + " must be " + type.name().toLowerCase();
+                }
+            }
+            return null;
+        }
+
+        private static boolean matches(ParamType type, Object value) {
+            return switch (type) {
+                case STRING -> value instanceof String;
+                case NUMBER -> value instanceof Number;
+                case INTEGER -> value instanceof Integer || value instanceof Long
+                        || value instanceof Short || value instanceof Byte
+                        || value instanceof BigInteger;
+                case BOOLEAN -> value instanceof Boolean;
+                case OBJECT -> value instanceof Map;
+                case ARRAY -> value instanceof Collection || value.getClass().isArray();
+                case ANY -> true;
+            };
+        }
+    }
+}
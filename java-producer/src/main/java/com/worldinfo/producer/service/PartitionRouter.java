@@ -0,0 +1,153 @@
+package com.worldinfo.producer.service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import com.worldinfo.producer.config.PartitionProperties;
+import com.worldinfo.producer.config.RpcDestination;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Picks the exchange and routing key of each publish.
+ * <p>
+ * Without partitions every request goes to its destination's single routing key.
+ * With {@code app.topology.partitions.enabled}, the partition key (method, request
+ * id or one request parameter) is hashed: in {@code routing-key} mode the producer
+ * maps it onto one of {@code count} partition routing keys, in {@code consistent-hash}
+ * mode it becomes the routing key on the destination's hash exchange. Either way a
+ * key always lands on the same queue.
+ * <p>
+ * A queue alone does not keep a key's order: single publishes run concurrently on the
+ * publish executor, over any connection and channel. {@link #inKeyOrder} therefore
+ * starts a publish only once the previous publish sharing its key has its outcome
+ * (sent, or confirmed when publisher confirms are on), and the caller sends it to the
+ * broker node picked by the same key. Requests partitioned by request id have no order
+ * to keep and are not held back. A batch keeps the order of its own items; ordering
+ * between a batch and single publishes, or of requests spooled to the outbox and
+ * replayed later, is not covered.
+ */
+@Component
+@EnableConfigurationProperties(PartitionProperties.class)
+public class PartitionRouter implements MeterBinder {
+
+    // keys are serialized per stripe, so unrelated keys only wait on each other when they share one
+    private static final int ORDER_STRIPES = 1024;
+
+    private final PartitionProperties properties;
+    private final int count;
+    private final Map<RpcDestination, LongAdder[]> routed = new EnumMap<>(RpcDestination.class);
+    // the last publish admitted to each stripe; the next one starts when it completes
+    private final AtomicReferenceArray<CompletableFuture<Void>> tails = new AtomicReferenceArray<>(ORDER_STRIPES);
+
+    public PartitionRouter(PartitionProperties properties) {
+        this.properties = properties;
+        this.count = Math.max(1, properties.count());
+        for (RpcDestination destination : RpcDestination.values()) {
+            // one slot per partition, plus one for keys the broker places by consistent hashing
+            LongAdder[] counters = new LongAdder[count + 1];
+            for (int i = 0; i < counters.length; i++) {
+                counters[i] = new LongAdder();
+            }
+            routed.put(destination, counters);
+        }
+        for (int i = 0; i < ORDER_STRIPES; i++) {
+            tails.set(i, CompletableFuture.completedFuture(null));
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.enabled();
+    }
+
+    public PublishRoute route(RpcDestination destination, String requestId, String method,
+                              Map<String, Object> params) {
+        if (!properties.enabled()) {
+            return PublishRoute.of(destination);
+        }
+        int hash = spread(partitionKey(requestId, method, params).hashCode());
+        if (properties.mode() == PartitionProperties.Mode.CONSISTENT_HASH) {
+            routed.get(destination)[count].increment();
+            return new PublishRoute(destination, destination.hashExchange(), Integer.toHexString(hash), -1);
+        }
+        int partition = Math.floorMod(hash, count);
+        routed.get(destination)[partition].increment();
+        return new PublishRoute(destination, destination.exchange(), destination.partitionRoutingKey(partition),
+                partition);
+    }
+
+    /**
+     * Runs {@code publish} once every earlier publish sharing the request's partition key has
+     * completed, whatever its outcome. Without partitions, or partitioned by request id,
+     * {@code publish} runs right away.
+     */
+    public <T> CompletableFuture<T> inKeyOrder(String requestId, String method, Map<String, Object> params,
+                                               Supplier<CompletableFuture<T>> publish) {
+        if (!properties.enabled()) {
+            return publish.get();
+        }
+        String key = partitionKey(requestId, method, params);
+        if (key == null || key.equals(requestId)) {
+            return publish.get();
+        }
+        int stripe = Math.floorMod(spread(key.hashCode()), ORDER_STRIPES);
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        CompletableFuture<Void> previous = tails.getAndSet(stripe, done);
+        CompletableFuture<T> result = previous.thenCompose(ignored -> publish.get());
+        result.whenComplete((value, throwable) -> done.complete(null));
+        return result;
+    }
+
+    /**
+     * @return what requests are partitioned by, also used to pick a broker node by key
+     */
+    String partitionKey(String requestId, String method, Map<String, Object> params) {
+        return switch (properties.key()) {
+            case METHOD -> method;
+            case REQUEST_ID -> requestId;
+            case PARAM -> {
+                Object value = params != null ? params.get(properties.param()) : null;
+                // without the parameter there is no order to keep, so spread by request id
+                yield value != null ? value.toString() : requestId;
+            }
+        };
+    }
+
+    /**
+     * Mixes the string hash so that keys differing only in their last characters
+     * do not land on neighbouring partitions.
+     */
+    private static int spread(int hash) {
+        int mixed = hash * 0x9E3779B9;
+        return mixed ^ (mixed >>> 16);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!properties.enabled()) {
+            return;
+        }
+        routed.forEach((destination, counters) -> {
+            for (int i = 0; i < counters.length; i++) {
+                boolean hashed = i == count;
+                if (hashed != (properties.mode() == PartitionProperties.Mode.CONSISTENT_HASH)) {
+                    continue;
+                }
+                FunctionCounter.builder("producer.partition.routed", counters[i], LongAdder::sum)
+                        .description("Publishes routed to each queue partition")
+                        .tag("destination", destination.service())
+                        .tag("partition", hashed ? "consistent-hash" : String.valueOf(i))
+                        .register(registry);
+            }
+        });
+    }
+}
@@ -0,0 +1,265 @@
+package com.worldinfo.producer.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import com.worldinfo.producer.config.PriorityProperties;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Weighted fair dispatch of publishes across priority lanes.
+ * <p>
+ * With {@code app.publish.priority.enabled}, each publish waits in its method's lane
+ * and at most {@code concurrency} publishes run on the {@link PublishExecutor} at once.
+ * Whenever a slot frees, the next request comes from the lane picked by smooth
+ * weighted round robin over the lanes that have requests waiting, so a lane with
+ * weight 8 gets eight dispatches for every one of a weight-1 lane while both are
+ * busy, and an idle lane's share goes to the others. Lanes are FIFO inside.
+ * <p>
+ * A request the {@link PublishExecutor} rejects goes back to the head of its lane and
+ * dispatch is retried shortly after; it never runs on the thread that dispatched it.
+ * While the executor stays saturated the lanes fill, and callers get the lane-full
+ * rejection.
+ * <p>
+ * The lane also decides where the message goes: its AMQP priority in
+ * {@code max-priority} topology, or its lane queue in {@code lanes} topology.
+ */
+@Component
+@EnableConfigurationProperties(PriorityProperties.class)
+public class PriorityLanes implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriorityLanes.class);
+    private static final long RETRY_DELAY_MILLIS = 50;
+
+    private final PriorityProperties properties;
+    private final PublishExecutor publishExecutor;
+    private final Map<String, Lane> lanesByName;
+    private final List<Lane> lanes;
+    private final int concurrency;
+    private final AtomicInteger running = new AtomicInteger();
+    private final ReentrantLock dispatchLock = new ReentrantLock();
+    private final AtomicBoolean retryScheduled = new AtomicBoolean();
+    private final Executor retryExecutor = CompletableFuture.delayedExecutor(RETRY_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    private final LongAdder executorRejections = new LongAdder();
+
+    public PriorityLanes(PriorityProperties properties, PublishExecutor publishExecutor) {
+        this.properties = properties;
+        this.publishExecutor = publishExecutor;
+        this.concurrency = Math.max(1, properties.concurrency());
+        List<Lane> configured = new ArrayList<>();
+        properties.lanes().forEach((name, lane) -> configured.add(new Lane(name, Math.max(1, lane.weight()))));
+        this.lanes = List.copyOf(configured);
+        this.lanesByName = Map.copyOf(configured.stream()
+                .collect(Collectors.toMap(lane -> lane.name, lane -> lane)));
+    }
+
+    /**
+     * @param method JSON-RPC method, or {@code null} for a batch
+     * @return where the publish of {@code method} runs: its lane, or the plain
+     *         {@link PublishExecutor} when lanes are disabled
+     */
+    public Executor executor(String method) {
+        if (!properties.enabled()) {
+            return publishExecutor;
+        }
+        return lanesByName.get(properties.laneFor(method));
+    }
+
+    /**
+     * @return the AMQP priority of {@code method}'s messages, or {@code null} when the
+     *         queues are not declared with {@code x-max-priority}
+     */
+    public Integer priority(String method) {
+        if (!properties.enabled() || properties.topology() != PriorityProperties.Topology.MAX_PRIORITY) {
+            return null;
+        }
+        int priority = properties.lanes().get(properties.laneFor(method)).priority();
+        return Math.max(0, Math.min(properties.maxPriority(), priority));
+    }
+
+    /**
+     * Sends {@code method}'s publish to its lane queue in {@code lanes} topology. Partitioned
+     * routes are left alone: a message goes either to a partition or to a lane.
+     */
+    public PublishRoute route(PublishRoute route, String method) {
+        if (!properties.enabled() || properties.topology() != PriorityProperties.Topology.LANES
+                || route.partition() >= 0 || !route.exchange().equals(route.destination().exchange())) {
+            return route;
+        }
+        return new PublishRoute(route.destination(), route.exchange(),
+                route.destination().laneRoutingKey(properties.laneFor(method)), -1);
+    }
+
+    private void dispatch() {
+        while (dispatchLock.tryLock()) {
+            try {
+                while (running.get() < concurrency) {
+                    Lane lane = next();
+                    if (lane == null) {
+                        break;
+                    }
+                    Task task = lane.waiting.poll();
+                    lane.depth.decrementAndGet();
+                    running.incrementAndGet();
+                    if (!start(lane, task)) {
+                        scheduleRetry();
+                        return;
+                    }
+                }
+            } finally {
+                dispatchLock.unlock();
+            }
+            // a slot freed or a request arrived while the lock was held, and its tryLock failed
+            if (running.get() >= concurrency || lanes.stream().allMatch(lane -> lane.waiting.isEmpty())) {
+                return;
+            }
+        }
+    }
+
+    private void scheduleRetry() {
+        if (retryScheduled.compareAndSet(false, true)) {
+            retryExecutor.execute(() -> {
+                retryScheduled.set(false);
+                dispatch();
+            });
+        }
+    }
+
+    /**
+     * Smooth weighted round robin over the lanes with requests waiting; called under the dispatch lock.
+     */
+    private Lane next() {
+        Lane best = null;
+        int total = 0;
+        for (Lane lane : lanes) {
+            if (lane.waiting.isEmpty()) {
+                continue;
+            }
+            lane.current += lane.weight;
+            total += lane.weight;
+            if (best == null || lane.current > best.current) {
+                best = lane;
+            }
+        }
+        if (best != null) {
+            best.current -= total;
+        }
+        return best;
+    }
+
+    /**
+     * Hands {@code task} to the publish executor; called under the dispatch lock.
+     *
+     * @return {@code false} if the executor rejected it and it went back to its lane
+     */
+    private boolean start(Lane lane, Task task) {
+        Runnable run = () -> {
+            try {
+                Timer waitTimer = lane.waitTimer;
+                if (waitTimer != null) {
+                    waitTimer.record(System.nanoTime() - task.enqueuedNanos, TimeUnit.NANOSECONDS);
+                }
+                lane.dispatched.increment();
+                task.command.run();
+            } finally {
+                running.decrementAndGet();
+                dispatch();
+            }
+        };
+        try {
+            publishExecutor.execute(run);
+            return true;
+        } catch (RejectedExecutionException e) {
+            running.decrementAndGet();
+            lane.waiting.offerFirst(task);
+            lane.depth.incrementAndGet();
+            executorRejections.increment();
+            if (logger.isDebugEnabled()) {
+                logger.debug("Publish executor rejected a request from lane {}, retrying in {}ms",
+                        lane.name, RETRY_DELAY_MILLIS);
+            }
+            return false;
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("producer.priority.running", running, AtomicInteger::get)
+                .description("Publishes dispatched from the lanes and still running")
+                .register(registry);
+        FunctionCounter.builder("producer.priority.executor.rejected", executorRejections, LongAdder::sum)
+                .description("Dispatches the publish executor rejected; the request went back to its lane")
+                .register(registry);
+        for (Lane lane : lanes) {
+            Gauge.builder("producer.priority.lane.depth", lane.depth, AtomicInteger::get)
+                    .tag("lane", lane.name)
+                    .description("Requests waiting in the lane")
+                    .register(registry);
+            FunctionCounter.builder("producer.priority.lane.dispatched", lane.dispatched, LongAdder::sum)
+                    .tag("lane", lane.name)
+                    .register(registry);
+            FunctionCounter.builder("producer.priority.lane.rejected", lane.rejected, LongAdder::sum)
+                    .tag("lane", lane.name)
+                    .description("Requests rejected because the lane was full")
+                    .register(registry);
+            lane.waitTimer = Timer.builder("producer.priority.lane.wait")
+                    .tag("lane", lane.name)
+                    .description("Time from entering the lane to starting the publish")
+                    .publishPercentiles(0.5, 0.99)
+                    .register(registry);
+        }
+    }
+
+    private record Task(Runnable command, long enqueuedNanos) {
+    }
+
+    private final class Lane implements Executor {
+
+        final String name;
+        final int weight;
+        final ConcurrentLinkedDeque<Task> waiting = new ConcurrentLinkedDeque<>();
+        final AtomicInteger depth = new AtomicInteger();
+        final LongAdder dispatched = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+        volatile Timer waitTimer;
+        // smooth weighted round robin credit, only touched under the dispatch lock
+        int current;
+
+        Lane(String name, int weight) {
+            this.name = name;
+            this.weight = weight;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            if (depth.incrementAndGet() > properties.laneCapacity()) {
+                depth.decrementAndGet();
+                rejected.increment();
+                throw new RejectedExecutionException("Priority lane " + name + " is full");
+            }
+            waiting.offer(new Task(command, System.nanoTime()));
+            dispatch();
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.worldinfo.producer.service;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.amqp.AmqpTimeoutException;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.amqp.rabbit.connection.Connection;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionListener;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.util.ClassUtils;
+
+import com.rabbitmq.client.Channel;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Spreads publishing over several AMQP connections.
+ * <p>
+ * Each shard is its own {@link CachingConnectionFactory} with a bounded channel
+ * cache. A thread always uses the shard picked by its thread id, so platform
+ * publish threads keep hitting the same connection and channel cache, and the
+ * one-virtual-thread-per-publish executor spreads evenly across shards. The
+ * time spent checking out a channel and the channels currently in use are
+ * recorded per shard.
+ * <p>
+ * There is one pool per broker node; {@link BrokerNodes} picks the node.
+ * <p>
+ * The pool is not itself a {@link ConnectionFactory} bean, so Boot's
+ * auto-configured factory stays in place for the admin and listener containers
+ * and publishing does not share their connection.
+ */
+public class PublishConnectionPool implements MeterBinder, DisposableBean {
+
+    // channel checkout time of the calling thread's latest publish, read back by PublishMetrics' channel stage
+    private static final ThreadLocal<long[]> checkoutNanos = ThreadLocal.withInitial(() -> new long[1]);
+
+    private final String node;
+    private final List<Shard> shards;
+    private final ConnectionFactory connectionFactory;
+
+    /**
+     * @param node the broker node the factories connect to, used as the {@code node} meter tag
+     */
+    public PublishConnectionPool(String node, List<CachingConnectionFactory> factories) {
+        if (factories.isEmpty()) {
+            throw new IllegalArgumentException("At least one publish connection is required");
+        }
+        this.node = node;
+        List<Shard> created = new ArrayList<>(factories.size());
+        for (int i = 0; i < factories.size(); i++) {
+            created.add(new Shard(i, factories.get(i)));
+        }
+        this.shards = List.copyOf(created);
+        this.connectionFactory = new ShardedConnectionFactory();
+    }
+
+    /**
+     * @return the factory to hand to the {@code RabbitTemplate}
+     */
+    public ConnectionFactory connectionFactory() {
+        return connectionFactory;
+    }
+
+    /**
+     * Returns and clears the time the calling thread has spent checking out channels since the last call.
+     */
+    public static long takeCheckoutNanos() {
+        long[] slot = checkoutNanos.get();
+        long nanos = slot[0];
+        slot[0] = 0;
+        return nanos;
+    }
+
+    public int size() {
+        return shards.size();
+    }
+
+    private Shard currentShard() {
+        return shards.get((int) (Thread.currentThread().threadId() % shards.size()));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Shard shard : shards) {
+            String index = String.valueOf(shard.index);
+            shard.channelWait = Timer.builder("producer.publish.connection.channel.wait")
+                    .description("Time spent checking out a channel from the shard's cache")
+                    .tag("node", node)
+                    .tag("shard", index)
+                    .publishPercentiles(0.5, 0.99)
+                    .register(registry);
+            Gauge.builder("producer.publish.connection.channels.in_use", shard.inUse, AtomicInteger::get)
+                    .description("Channels checked out of the shard and not yet returned")
+                    .tag("node", node)
+                    .tag("shard", index)
+                    .register(registry);
+            FunctionCounter.builder("producer.publish.connection.checkout.timeouts", shard.checkoutTimeouts,
+                            LongAdder::sum)
+                    .description("Channel checkouts that gave up after the checkout timeout")
+                    .tag("node", node)
+                    .tag("shard", index)
+                    .register(registry);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        for (Shard shard : shards) {
+            shard.factory.destroy();
+        }
+    }
+
+    private static final class Shard {
+
+        private final int index;
+        private final CachingConnectionFactory factory;
+        private final AtomicInteger inUse = new AtomicInteger();
+        private final LongAdder checkoutTimeouts = new LongAdder();
+
+        private volatile Timer channelWait;
+        private volatile Connection target;
+        private volatile Connection wrapped;
+
+        private Shard(int index, CachingConnectionFactory factory) {
+            this.index = index;
+            this.factory = factory;
+        }
+
+        /**
+         * Returns the shard's shared connection, wrapped once per physical
+         * connection so that channel checkouts can be measured.
+         */
+        private Connection connection() {
+            Connection connection = factory.createConnection();
+            if (connection != target) {
+                synchronized (this) {
+                    if (connection != target) {
+                        wrapped = proxy(connection, (proxy, method, args) ->
+                                "createChannel".equals(method.getName())
+                                        ? createChannel(connection, method, args)
+                                        : delegate(connection, method, args));
+                        target = connection;
+                    }
+                }
+            }
+            return wrapped;
+        }
+
+        private Object createChannel(Connection connection, Method method, Object[] args) throws Throwable {
+            long start = System.nanoTime();
+            Channel channel;
+            try {
+                channel = (Channel) delegate(connection, method, args);
+            } catch (AmqpTimeoutException e) {
+                checkoutTimeouts.increment();
+                throw e;
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                checkoutNanos.get()[0] += elapsed;
+                Timer timer = channelWait;
+                if (timer != null) {
+                    timer.record(elapsed, TimeUnit.NANOSECONDS);
+                }
+            }
+            inUse.incrementAndGet();
+            AtomicBoolean released = new AtomicBoolean();
+            return proxy(channel, (proxy, channelMethod, channelArgs) -> {
+                if ("close".equals(channelMethod.getName()) && released.compareAndSet(false, true)) {
+                    inUse.decrementAndGet();
+                }
+                return delegate(channel, channelMethod, channelArgs);
+            });
+        }
+    }
+
+    /**
+     * Routes every connection request to the calling thread's shard.
+     */
+    private final class ShardedConnectionFactory implements ConnectionFactory {
+
+        private final CachingConnectionFactory first = shards.get(0).factory;
+
+        @Override
+        public Connection createConnection() {
+            return currentShard().connection();
+        }
+
+        @Override
+        public String getHost() {
+            return first.getHost();
+        }
+
+        @Override
+        public int getPort() {
+            return first.getPort();
+        }
+
+        @Override
+        public String getVirtualHost() {
+            return first.getVirtualHost();
+        }
+
+        @Override
+        public String getUsername() {
+            return first.getUsername();
+        }
+
+        @Override
+        public void addConnectionListener(ConnectionListener listener) {
+            shards.forEach(shard -> shard.factory.addConnectionListener(listener));
+        }
+
+        @Override
+        public boolean removeConnectionListener(ConnectionListener listener) {
+            boolean removed = false;
+            for (Shard shard : shards) {
+                removed |= shard.factory.removeConnectionListener(listener);
+            }
+            return removed;
+        }
+
+        @Override
+        public void clearConnectionListeners() {
+            shards.forEach(shard -> shard.factory.clearConnectionListeners());
+        }
+
+        @Override
+        public boolean isPublisherConfirms() {
+            return first.isPublisherConfirms();
+        }
+
+        @Override
+        public boolean isSimplePublisherConfirms() {
+            return first.isSimplePublisherConfirms();
+        }
+
+        @Override
+        public boolean isPublisherReturns() {
+            return first.isPublisherReturns();
+        }
+
+        @Override
+        public void resetConnection() {
+            shards.forEach(shard -> shard.factory.resetConnection());
+        }
+    }
+
+    /**
+     * A JDK proxy exposing every interface of {@code target}, so framework
+     * checks such as {@code instanceof PublisherCallbackChannel} still hold.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(T target, InvocationHandler handler) {
+        Class<?>[] interfaces = ClassUtils.getAllInterfacesForClass(target.getClass());
+        return (T) Proxy.newProxyInstance(PublishConnectionPool.class.getClassLoader(), interfaces, (proxy, method, args) ->
+                switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "toString" -> "Sharded(" + target + ")";
+                    default -> handler.invoke(proxy, method, args);
+                });
+    }
+
+    private static Object delegate(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.worldinfo.producer.service;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Executor dedicated to broker publishes, so blocking {@code rabbitTemplate.send}
+ * calls never run on {@code ForkJoinPool.commonPool()}.
+ * <p>
+ * Tracks queued, active and rejected tasks and exposes them as
+ * {@code producer.publish.executor.*} meters.
+ */
+public class PublishExecutor implements Executor, MeterBinder, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(PublishExecutor.class);
+
+    private final String mode;
+    private final ExecutorService delegate;
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public PublishExecutor(String mode, ExecutorService delegate) {
+        this.mode = mode;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        queued.incrementAndGet();
+        try {
+            delegate.execute(() -> {
+                queued.decrementAndGet();
+                active.incrementAndGet();
+                try {
+                    task.run();
+                } finally {
+                    active.decrementAndGet();
+                    completed.increment();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            rejected.increment();
+            throw e;
+        }
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+
+    public int getActive() {
+        return active.get();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("producer.publish.executor.active", active, AtomicInteger::get)
+                .tag("mode", mode)
+                .description("Publishes currently running")
+                .register(registry);
+        Gauge.builder("producer.publish.executor.queued", queued, AtomicInteger::get)
+                .tag("mode", mode)
+                .description("Publishes waiting for a thread")
+                .register(registry);
+        FunctionCounter.builder("producer.publish.executor.completed", completed, LongAdder::sum)
+                .tag("mode", mode)
+                .description("Publishes that finished running")
+                .register(registry);
+        FunctionCounter.builder("producer.publish.executor.rejected", rejected, LongAdder::sum)
+                .tag("mode", mode)
+                .description("Publishes rejected because the executor was saturated")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        delegate.shutdown();
+        if (!delegate.awaitTermination(10, TimeUnit.SECONDS)) {
+            logger.warn("Publish executor did not drain within 10s, {} publishes still active", active.get());
+            delegate.shutdownNow();
+        }
+    }
+}
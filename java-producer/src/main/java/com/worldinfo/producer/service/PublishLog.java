@@ -0,0 +1,135 @@
+package com.worldinfo.producer.service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.worldinfo.producer.config.PublishLoggingProperties;
+import com.worldinfo.producer.config.RpcDestination;
+import com.worldinfo.producer.logging.DroppedLogEvents;
+import com.worldinfo.producer.model.PublishStatus;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Keeps per-message logging of the publish path bounded.
+ * <p>
+ * Per-message INFO lines go through {@link #sample()}, which lets at most
+ * {@code app.publish.logging.messages-per-second} through each second; the rest
+ * are only counted. Every publish outcome is tallied and logged as one summary
+ * line per interval instead. Errors are not sampled: callers log them directly.
+ */
+@Component
+@EnableConfigurationProperties(PublishLoggingProperties.class)
+public class PublishLog implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(PublishLog.class);
+
+    private final PublishLoggingProperties properties;
+    private final AtomicLong window = new AtomicLong();
+    private final AtomicInteger windowCount = new AtomicInteger();
+    private final LongAdder suppressed = new LongAdder();
+    private final Map<RpcDestination, Outcomes> outcomes = new EnumMap<>(RpcDestination.class);
+    private long lastSuppressed;
+    private long lastDropped;
+
+    public PublishLog(PublishLoggingProperties properties) {
+        this.properties = properties;
+        for (RpcDestination destination : RpcDestination.values()) {
+            outcomes.put(destination, new Outcomes());
+        }
+    }
+
+    /**
+     * @return whether the caller should write its per-message log line
+     */
+    public boolean sample() {
+        int limit = properties.messagesPerSecond();
+        if (limit < 0) {
+            return true;
+        }
+        long second = System.currentTimeMillis() / 1000;
+        long current = window.get();
+        if (second != current && window.compareAndSet(current, second)) {
+            windowCount.set(0);
+        }
+        if (limit > 0 && windowCount.incrementAndGet() <= limit) {
+            return true;
+        }
+        suppressed.increment();
+        return false;
+    }
+
+    /**
+     * @param status how the publish ended, {@code null} when it failed
+     */
+    public void record(RpcDestination destination, PublishStatus status) {
+        Outcomes counts = outcomes.get(destination);
+        if (status == null) {
+            counts.failed.increment();
+            return;
+        }
+        switch (status) {
+            case SENT -> counts.sent.increment();
+            case CONFIRMED -> counts.confirmed.increment();
+            case SPOOLED -> counts.spooled.increment();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.publish.logging.summary-interval-ms:60000}")
+    public void logSummary() {
+        StringBuilder summary = new StringBuilder();
+        long total = 0;
+        for (Map.Entry<RpcDestination, Outcomes> entry : outcomes.entrySet()) {
+            Outcomes counts = entry.getValue();
+            long sent = counts.sent.sumThenReset();
+            long confirmed = counts.confirmed.sumThenReset();
+            long spooled = counts.spooled.sumThenReset();
+            long failed = counts.failed.sumThenReset();
+            total += sent + confirmed + spooled + failed;
+            summary.append(' ').append(entry.getKey().service())
+                    .append("={sent=").append(sent)
+                    .append(", confirmed=").append(confirmed)
+                    .append(", spooled=").append(spooled)
+                    .append(", failed=").append(failed).append('}');
+        }
+        long suppressedLines = suppressed.sum();
+        long dropped = DroppedLogEvents.count();
+        long suppressedSinceLast = suppressedLines - lastSuppressed;
+        long droppedSinceLast = dropped - lastDropped;
+        lastSuppressed = suppressedLines;
+        lastDropped = dropped;
+        if (total == 0 && droppedSinceLast == 0) {
+            return;
+        }
+        logger.info("Publish summary:{}, suppressed_log_lines={}, dropped_log_events={}",
+                summary, suppressedSinceLast, droppedSinceLast);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("producer.logging.suppressed", suppressed, LongAdder::sum)
+                .description("Per-message log lines skipped by sampling")
+                .register(registry);
+        FunctionCounter.builder("producer.logging.dropped", this, ignored -> DroppedLogEvents.count())
+                .description("Log events discarded because the asynchronous appender's ring buffer was full")
+                .register(registry);
+    }
+
+    private static final class Outcomes {
+        final LongAdder sent = new LongAdder();
+        final LongAdder confirmed = new LongAdder();
+        final LongAdder spooled = new LongAdder();
+        final LongAdder failed = new LongAdder();
+    }
+}
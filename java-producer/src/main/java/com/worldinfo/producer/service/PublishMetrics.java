@@ -0,0 +1,256 @@
+package com.worldinfo.producer.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.AmqpTimeoutException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.worldinfo.producer.config.PublishMetricsProperties;
+import com.worldinfo.producer.model.LatencyPercentiles;
+import com.worldinfo.producer.model.PublishStats;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Latency of each stage of a publish, bytes published and failures by cause.
+ * <p>
+ * Stage timers are {@code producer.publish.stage} tagged with {@code stage},
+ * {@code exchange} and {@code method}. Methods come from callers, so only the first
+ * {@code max-methods} distinct values (or the configured {@code methods}) are kept
+ * as tags and the rest become {@code other}. Alongside the meters, each stage feeds
+ * an HdrHistogram {@link Recorder} behind {@link #snapshot()}.
+ * <p>
+ * The recorders and counters are drained into a fixed window every {@code window-ms}.
+ * {@link #snapshot()} returns the last completed window, so any number of readers see
+ * the same figures and none of them shortens the window for the others.
+ */
+@Component
+@EnableConfigurationProperties(PublishMetricsProperties.class)
+public class PublishMetrics implements MeterBinder {
+
+    public enum Stage {
+        QUEUE,
+        SERIALIZE,
+        BUILD,
+        CHANNEL,
+        SEND,
+        CONFIRM;
+
+        String tag() {
+            return name().toLowerCase();
+        }
+    }
+
+    private static final String OTHER = "other";
+
+    private final PublishMetricsProperties properties;
+    private final Set<String> allowedMethods;
+    private final Map<String, String> methodTags = new ConcurrentHashMap<>();
+    private final Map<StageKey, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> byteCounters = new ConcurrentHashMap<>();
+    private final Map<FailureKey, Counter> failureCounters = new ConcurrentHashMap<>();
+    private final Map<Stage, Recorder> recorders = new EnumMap<>(Stage.class);
+    private final LongAdder published = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+
+    private final LongSupplier nanoClock;
+
+    private volatile MeterRegistry registry;
+    private volatile PublishStats window = new PublishStats(0, 0, 0, 0, Map.of(), Map.of());
+
+    // interval state, only touched by roll()
+    private long windowStartNanos;
+    private long lastPublished;
+    private long lastBytes;
+    private final Map<String, Long> lastFailures = new TreeMap<>();
+
+    @Autowired
+    public PublishMetrics(PublishMetricsProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    PublishMetrics(PublishMetricsProperties properties, LongSupplier nanoClock) {
+        this.properties = properties;
+        this.nanoClock = nanoClock;
+        this.windowStartNanos = nanoClock.getAsLong();
+        this.allowedMethods = Set.copyOf(properties.methods());
+        for (Stage stage : Stage.values()) {
+            recorders.put(stage, new Recorder(3));
+        }
+    }
+
+    public void record(Stage stage, String exchange, String method, long nanos) {
+        if (nanos < 0) {
+            return;
+        }
+        recorders.get(stage).recordValue(nanos);
+        MeterRegistry meters = registry;
+        if (meters != null) {
+            timers.computeIfAbsent(new StageKey(stage, exchange, methodTag(method)), key -> stageTimer(meters, key))
+                    .record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Counts one message handed to the broker.
+     */
+    public void recordPublished(String exchange, int size) {
+        published.increment();
+        bytes.add(size);
+        MeterRegistry meters = registry;
+        if (meters != null) {
+            byteCounters.computeIfAbsent(exchange, key -> Counter.builder("producer.publish.bytes")
+                            .tag("exchange", key)
+                            .baseUnit("bytes")
+                            .description("Message body bytes handed to the broker")
+                            .register(meters))
+                    .increment(size);
+        }
+    }
+
+    /**
+     * @param confirming whether the publish had already been sent and failed waiting for its confirm
+     */
+    public void recordFailure(String exchange, Throwable throwable, boolean confirming) {
+        String cause = cause(throwable, confirming);
+        failures.computeIfAbsent(cause, key -> new LongAdder()).increment();
+        MeterRegistry meters = registry;
+        if (meters != null) {
+            failureCounters.computeIfAbsent(new FailureKey(exchange, cause), key ->
+                            Counter.builder("producer.publish.failures")
+                                    .tag("exchange", key.exchange())
+                                    .tag("cause", key.cause())
+                                    .description("Publishes that failed, by cause")
+                                    .register(meters))
+                    .increment();
+        }
+    }
+
+    static String cause(Throwable throwable, boolean confirming) {
+        for (Throwable current = throwable; current != null; current = current.getCause()) {
+            if (current instanceof RejectedExecutionException) {
+                return "rejected";
+            }
+            if (current instanceof TimeoutException) {
+                return "confirm_timeout";
+            }
+            if (current instanceof AmqpTimeoutException) {
+                return "channel_timeout";
+            }
+            if (current instanceof AmqpConnectException || current instanceof IOException) {
+                return "connection";
+            }
+            if (current instanceof UncheckedIOException) {
+                return "serialization";
+            }
+        }
+        // the confirm tracker fails without a cause when the broker nacks
+        return confirming ? "nack" : "error";
+    }
+
+    private String methodTag(String method) {
+        if (method == null) {
+            return "none";
+        }
+        if (!allowedMethods.isEmpty()) {
+            return allowedMethods.contains(method) ? method : OTHER;
+        }
+        String tag = methodTags.get(method);
+        if (tag != null) {
+            return tag;
+        }
+        if (methodTags.size() >= properties.maxMethods()) {
+            return OTHER;
+        }
+        return methodTags.computeIfAbsent(method, key -> key);
+    }
+
+    private Timer stageTimer(MeterRegistry meters, StageKey key) {
+        return Timer.builder("producer.publish.stage")
+                .tag("stage", key.stage().tag())
+                .tag("exchange", key.exchange())
+                .tag("method", key.method())
+                .description("Time spent in one stage of a publish")
+                .publishPercentiles(properties.percentiles().stream().mapToDouble(Double::doubleValue).toArray())
+                .publishPercentileHistogram(properties.percentileHistogram())
+                .register(meters);
+    }
+
+    /**
+     * @return activity in the last completed window; empty until the first window closes
+     */
+    public PublishStats snapshot() {
+        return window;
+    }
+
+    /**
+     * Closes the current window and starts the next one.
+     */
+    @Scheduled(fixedRateString = "${app.publish.metrics.window-ms:10000}",
+            initialDelayString = "${app.publish.metrics.window-ms:10000}")
+    public synchronized void roll() {
+        long now = nanoClock.getAsLong();
+        double seconds = Math.max(0.001, (now - windowStartNanos) / 1e9);
+        windowStartNanos = now;
+
+        long publishedTotal = published.sum();
+        long bytesTotal = bytes.sum();
+        long publishedDelta = publishedTotal - lastPublished;
+        long bytesDelta = bytesTotal - lastBytes;
+        lastPublished = publishedTotal;
+        lastBytes = bytesTotal;
+
+        Map<String, Long> failureDeltas = new TreeMap<>();
+        failures.forEach((cause, count) -> {
+            long total = count.sum();
+            long delta = total - lastFailures.getOrDefault(cause, 0L);
+            lastFailures.put(cause, total);
+            if (delta > 0) {
+                failureDeltas.put(cause, delta);
+            }
+        });
+
+        Map<String, LatencyPercentiles> stages = new LinkedHashMap<>();
+        for (Stage stage : Stage.values()) {
+            Histogram interval = recorders.get(stage).getIntervalHistogram();
+            if (interval.getTotalCount() > 0) {
+                stages.put(stage.tag(), LatencyPercentiles.of(interval));
+            }
+        }
+        window = new PublishStats(Math.round(seconds * 1000) / 1000.0, publishedDelta,
+                Math.round(publishedDelta / seconds * 10) / 10.0, bytesDelta, failureDeltas, stages);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    private record StageKey(Stage stage, String exchange, String method) {
+    }
+
+    private record FailureKey(String exchange, String cause) {
+    }
+}
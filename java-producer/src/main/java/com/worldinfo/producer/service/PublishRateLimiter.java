@@ -0,0 +1,198 @@
+package com.worldinfo.producer.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionBlockedEvent;
+import org.springframework.amqp.rabbit.connection.ConnectionUnblockedEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.worldinfo.producer.config.RateLimitProperties;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Admission control in front of the publish path.
+ * <p>
+ * Each request must get a token from its route bucket and, if its JSON-RPC method
+ * has a configured limit, from the method bucket; a request the method bucket turns
+ * away gives its route token back. In adaptive mode every bucket's
+ * rate is scaled by a factor that shrinks while the publish latency average is
+ * above target and recovers once it drops back. While RabbitMQ has the connection
+ * blocked, every request is shed. Rejected callers get a retry delay rather
+ * than a queue slot.
+ */
+@Component
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class PublishRateLimiter implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(PublishRateLimiter.class);
+    private static final double EWMA_ALPHA = 0.2;
+
+    private final RateLimitProperties properties;
+    private final Map<String, TokenBucket> routeBuckets = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> methodBuckets = new ConcurrentHashMap<>();
+
+    private volatile double factor = 1.0;
+    private volatile boolean brokerBlocked;
+    private volatile double latencyEwmaNanos;
+
+    private final LongAdder rejectedByRoute = new LongAdder();
+    private final LongAdder rejectedByMethod = new LongAdder();
+    private final LongAdder rejectedBlocked = new LongAdder();
+
+    private MeterRegistry registry;
+
+    public PublishRateLimiter(RateLimitProperties properties) {
+        this.properties = properties;
+        properties.methods().forEach((method, limit) ->
+                methodBuckets.put(method, new TokenBucket(limit.permitsPerSecond(), limit.burst())));
+    }
+
+    public boolean isEnabled() {
+        return properties.enabled();
+    }
+
+    /**
+     * Tries to admit one request.
+     *
+     * @param route  request mapping pattern of the endpoint
+     * @param method JSON-RPC method, or {@code null} when the route has none
+     */
+    public Decision tryAcquire(String route, String method) {
+        if (brokerBlocked) {
+            rejectedBlocked.increment();
+            return Decision.rejected("broker_blocked", properties.adaptive().blockedRetryAfter().toSeconds());
+        }
+
+        double currentFactor = factor;
+        TokenBucket routeBucket = routeBucket(route);
+        long waitNanos = routeBucket.tryAcquire(currentFactor);
+        if (waitNanos > 0) {
+            rejectedByRoute.increment();
+            return Decision.rejected("route_limit", retryAfterSeconds(waitNanos));
+        }
+
+        TokenBucket methodBucket = method != null ? methodBuckets.get(method) : null;
+        if (methodBucket != null) {
+            waitNanos = methodBucket.tryAcquire(currentFactor);
+            if (waitNanos > 0) {
+                routeBucket.refund();
+                rejectedByMethod.increment();
+                return Decision.rejected("method_limit", retryAfterSeconds(waitNanos));
+            }
+        }
+        return Decision.ADMITTED;
+    }
+
+    /**
+     * Feeds one publish latency (hand-off to broker ack) into the adaptive average.
+     */
+    public void recordPublishLatency(long nanos) {
+        double current = latencyEwmaNanos;
+        latencyEwmaNanos = current == 0 ? nanos : current + EWMA_ALPHA * (nanos - current);
+    }
+
+    double getFactor() {
+        return factor;
+    }
+
+    @Scheduled(fixedDelay = 1000)
+    public void adjust() {
+        RateLimitProperties.Adaptive adaptive = properties.adaptive();
+        if (!properties.enabled() || !adaptive.enabled()) {
+            return;
+        }
+        double previous = factor;
+        if (latencyEwmaNanos > adaptive.targetLatency().toNanos()) {
+            factor = Math.max(adaptive.minFactor(), previous * adaptive.decreaseFactor());
+        } else {
+            factor = Math.min(1.0, previous + adaptive.increaseStep());
+        }
+        if (factor < previous) {
+            logger.warn("Publish latency {}ms above target {}ms, scaling rate limits to {}",
+                    TimeUnit.NANOSECONDS.toMillis((long) latencyEwmaNanos),
+                    adaptive.targetLatency().toMillis(), String.format("%.2f", factor));
+        }
+    }
+
+    @EventListener
+    public void onConnectionBlocked(ConnectionBlockedEvent event) {
+        if (properties.adaptive().enabled()) {
+            brokerBlocked = true;
+        }
+        logger.warn("RabbitMQ blocked the connection: {}", event.getReason());
+    }
+
+    @EventListener
+    public void onConnectionUnblocked(ConnectionUnblockedEvent event) {
+        brokerBlocked = false;
+        logger.info("RabbitMQ unblocked the connection");
+    }
+
+    private TokenBucket routeBucket(String route) {
+        return routeBuckets.computeIfAbsent(route, key -> {
+            RateLimitProperties.Limit limit = properties.routes().getOrDefault(key, properties.defaultRoute());
+            TokenBucket bucket = new TokenBucket(limit.permitsPerSecond(), limit.burst());
+            if (registry != null) {
+                bindBucket(registry, "route", key, bucket);
+            }
+            return bucket;
+        });
+    }
+
+    private static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        Gauge.builder("producer.ratelimit.factor", this, limiter -> limiter.factor)
+                .description("Adaptive scale applied to every rate limit")
+                .register(registry);
+        Gauge.builder("producer.ratelimit.broker_blocked", this, limiter -> limiter.brokerBlocked ? 1 : 0)
+                .register(registry);
+        Gauge.builder("producer.ratelimit.publish_latency.ewma", this, limiter -> limiter.latencyEwmaNanos / 1_000_000d)
+                .baseUnit("milliseconds")
+                .register(registry);
+        FunctionCounter.builder("producer.ratelimit.rejected", rejectedByRoute, LongAdder::sum)
+                .tag("reason", "route_limit")
+                .register(registry);
+        FunctionCounter.builder("producer.ratelimit.rejected", rejectedByMethod, LongAdder::sum)
+                .tag("reason", "method_limit")
+                .register(registry);
+        FunctionCounter.builder("producer.ratelimit.rejected", rejectedBlocked, LongAdder::sum)
+                .tag("reason", "broker_blocked")
+                .register(registry);
+        routeBuckets.forEach((route, bucket) -> bindBucket(registry, "route", route, bucket));
+        methodBuckets.forEach((method, bucket) -> bindBucket(registry, "method", method, bucket));
+    }
+
+    private static void bindBucket(MeterRegistry registry, String scope, String key, TokenBucket bucket) {
+        Gauge.builder("producer.ratelimit.tokens", bucket, TokenBucket::available)
+                .tag("scope", scope)
+                .tag("key", key)
+                .description("Tokens currently available in the bucket")
+                .register(registry);
+    }
+
+    public record Decision(boolean admitted, String reason, long retryAfterSeconds) {
+
+        static final Decision ADMITTED = new Decision(true, null, 0);
+
+        static Decision rejected(String reason, long retryAfterSeconds) {
+            return new Decision(false, reason, retryAfterSeconds);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.worldinfo.producer.service;
+
+import com.worldinfo.producer.config.RpcDestination;
+
+/**
+ * Where one message is published.
+ *
+ * @param partition the target partition, or -1 when the topology is not partitioned
+ *                  or the broker picks it by consistent hashing
+ */
+public record PublishRoute(RpcDestination destination, String exchange, String routingKey, int partition) {
+
+    public static PublishRoute of(RpcDestination destination) {
+        return new PublishRoute(destination, destination.exchange(), destination.routingKey(), -1);
+    }
+}
@@ -0,0 +1,42 @@
+package com.worldinfo.producer.service;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+import org.springframework.amqp.core.MessageProperties;
+
+import com.worldinfo.producer.codec.WireFormat;
+import com.worldinfo.producer.config.RpcDestination;
+
+import io.opentelemetry.api.common.Attributes;
+
+/**
+ * Everything about a publish that depends only on its method, resolved once at startup by
+ * {@link MethodRegistry}.
+ *
+ * @param route          where the method's messages go when partitioning does not pick per request
+ * @param executor       the method's priority lane, or the publish executor
+ * @param priority       AMQP priority of the method's messages, or {@code null}
+ * @param spanAttributes publish span attributes that are the same for every call
+ * @param timeout        the method's deadline when the caller does not set one, or {@code null}
+ */
+public record PublishTemplate(
+        RpcDestination destination,
+        String method,
+        PublishRoute route,
+        WireFormat format,
+        Integer priority,
+        Executor executor,
+        Attributes spanAttributes,
+        Duration timeout
+) {
+    /**
+     * @return fresh properties holding the method's defaults, to which the per-message fields are added
+     */
+    public MessageProperties newProperties() {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(format.contentType());
+        properties.setPriority(priority);
+        return properties;
+    }
+}
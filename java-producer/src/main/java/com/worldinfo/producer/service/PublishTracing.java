@@ -0,0 +1,123 @@
+package com.worldinfo.producer.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.UnaryOperator;
+
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import com.worldinfo.producer.config.RpcDestination;
+import com.worldinfo.producer.config.TracingProperties;
+
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanBuilder;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.api.trace.TracerProvider;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.propagation.TextMapPropagator;
+import io.opentelemetry.context.propagation.TextMapSetter;
+
+/**
+ * Decides which spans the publish path creates and how trace context travels
+ * with a message, according to {@code app.tracing.mode}.
+ * <p>
+ * In {@code lean} mode the HTTP and scheduler layers get a no-op tracer, whose
+ * spans only carry the current context, so each message costs at most one
+ * recording span; unsampled messages cost none and still propagate the caller's
+ * context when there is one.
+ */
+@Component
+@EnableConfigurationProperties(TracingProperties.class)
+public class PublishTracing {
+
+    private static final TextMapSetter<MessageProperties> HEADER_SETTER =
+            (properties, key, value) -> properties.setHeader(key, value);
+
+    private final Tracer tracer;
+    private final TracingProperties properties;
+    private final TextMapPropagator propagator;
+    private final Tracer noopTracer = TracerProvider.noop().get("java-producer");
+
+    @Autowired
+    public PublishTracing(Tracer tracer, TracingProperties properties) {
+        this(tracer, properties, GlobalOpenTelemetry.getPropagators().getTextMapPropagator());
+    }
+
+    public PublishTracing(Tracer tracer, TracingProperties properties, TextMapPropagator propagator) {
+        this.tracer = tracer;
+        this.properties = properties;
+        this.propagator = propagator;
+    }
+
+    private boolean lean() {
+        return properties.mode() == TracingProperties.Mode.LEAN;
+    }
+
+    /**
+     * Tracer for spans around the publish (HTTP handlers, scheduler), which only
+     * record in {@code legacy} mode.
+     */
+    public Tracer requestTracer() {
+        return properties.enabled() && !lean() ? tracer : noopTracer;
+    }
+
+    /**
+     * @param parent the caller's context, captured before the publish left its thread
+     * @return the span for one publish (or one batch when {@code method} is {@code null}),
+     *         non-recording when the message is not sampled
+     */
+    public Span startPublishSpan(String name, RpcDestination destination, String method, Context parent,
+                                 UnaryOperator<SpanBuilder> attributes) {
+        if (!properties.enabled() || (lean() && !sampled(destination, method))) {
+            return Span.wrap(Span.fromContext(parent).getSpanContext());
+        }
+        SpanBuilder builder = tracer.spanBuilder(name);
+        if (lean()) {
+            builder.setParent(parent).setSpanKind(SpanKind.PRODUCER);
+        }
+        return attributes.apply(builder).startSpan();
+    }
+
+    private boolean sampled(RpcDestination destination, String method) {
+        double ratio = properties.sampling().ratioFor(destination, method);
+        return ratio >= 1.0 || (ratio > 0.0 && ThreadLocalRandom.current().nextDouble() < ratio);
+    }
+
+    /**
+     * Whether trace and span ids are also written into the JSON-RPC body.
+     */
+    public boolean tracingInBody() {
+        return properties.enabled() && !lean();
+    }
+
+    /**
+     * @return the span's trace id, or {@code null} when it carries no valid context
+     *         (a no-op span in {@code lean} mode without an incoming trace)
+     */
+    public static String traceId(Span span) {
+        return span.getSpanContext().isValid() ? span.getSpanContext().getTraceId() : null;
+    }
+
+    public static String spanId(Span span) {
+        return span.getSpanContext().isValid() ? span.getSpanContext().getSpanId() : null;
+    }
+
+    /**
+     * Adds the message's trace context headers.
+     */
+    public void inject(Span span, Context parent, MessageProperties messageProperties) {
+        if (!properties.enabled() || !span.getSpanContext().isValid()) {
+            return;
+        }
+        if (lean()) {
+            propagator.inject(parent.with(span), messageProperties, HEADER_SETTER);
+        } else {
+            messageProperties.setHeader("trace_id", span.getSpanContext().getTraceId());
+            messageProperties.setHeader("span_id", span.getSpanContext().getSpanId());
+        }
+    }
+}
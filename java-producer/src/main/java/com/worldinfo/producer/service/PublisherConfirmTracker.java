@@ -0,0 +1,190 @@
+package com.worldinfo.producer.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import com.worldinfo.producer.config.PublishConfirmProperties;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Correlates publishes with broker acks.
+ * <p>
+ * Each publish registers a {@link CorrelationData} keyed by its request id. The
+ * future returned by {@link #confirmation(CorrelationData)} completes on the ack
+ * and fails on a nack or after {@code app.publish.confirms.timeout}. At most
+ * {@code max-outstanding} publishes can be unconfirmed at once; beyond that,
+ * {@link #register(String)} waits up to {@code acquire-timeout} and then rejects, and
+ * {@link #register(List)} waits once for a whole batch.
+ */
+@Component
+@EnableConfigurationProperties(PublishConfirmProperties.class)
+public class PublisherConfirmTracker implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(PublisherConfirmTracker.class);
+
+    private final PublishConfirmProperties properties;
+    private final Semaphore window;
+    private final Map<String, CorrelationData> pending = new ConcurrentHashMap<>();
+
+    private final LongAdder acks = new LongAdder();
+    private final LongAdder nacks = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder windowRejections = new LongAdder();
+
+    public PublisherConfirmTracker(PublishConfirmProperties properties, RabbitTemplate rabbitTemplate) {
+        this.properties = properties;
+        this.window = new Semaphore(properties.maxOutstanding());
+        if (properties.enabled() && !rabbitTemplate.getConnectionFactory().isPublisherConfirms()) {
+            throw new IllegalStateException(
+                    "app.publish.confirms.enabled requires spring.rabbitmq.publisher-confirm-type=correlated");
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.enabled();
+    }
+
+    /**
+     * Reserves a slot in the outstanding-confirm window for {@code requestId}.
+     *
+     * @throws RejectedExecutionException if the window stays full for {@code acquire-timeout}
+     */
+    public CorrelationData register(String requestId) {
+        try {
+            if (!window.tryAcquire(properties.acquireTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                windowRejections.increment();
+                throw new RejectedExecutionException(
+                        "Outstanding publisher confirm window full (" + properties.maxOutstanding() + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted waiting for publisher confirm window", e);
+        }
+        CorrelationData correlation = new CorrelationData(requestId);
+        pending.put(requestId, correlation);
+        return correlation;
+    }
+
+    /**
+     * Reserves window slots for a batch of publishes, waiting at most {@code acquire-timeout}
+     * once for the whole batch rather than per message. If the window cannot take them all,
+     * as many as are free now are reserved, in order.
+     *
+     * @return one correlation per request id, {@code null} for those the window rejected
+     */
+    public List<CorrelationData> register(List<String> requestIds) {
+        int wanted = requestIds.size();
+        int granted;
+        try {
+            if (window.tryAcquire(wanted, properties.acquireTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                granted = wanted;
+            } else {
+                int drained = window.drainPermits();
+                granted = Math.min(drained, wanted);
+                window.release(drained - granted);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            granted = 0;
+        }
+        List<CorrelationData> correlations = new ArrayList<>(wanted);
+        for (int i = 0; i < wanted; i++) {
+            if (i < granted) {
+                CorrelationData correlation = new CorrelationData(requestIds.get(i));
+                pending.put(correlation.getId(), correlation);
+                correlations.add(correlation);
+            } else {
+                correlations.add(null);
+            }
+        }
+        if (granted < wanted) {
+            windowRejections.add(wanted - granted);
+        }
+        return correlations;
+    }
+
+    /**
+     * Returns a future that completes with the request id once the broker acks the publish.
+     */
+    public CompletableFuture<String> confirmation(CorrelationData correlation) {
+        String requestId = correlation.getId();
+        return correlation.getFuture()
+                .orTimeout(properties.timeout().toMillis(), TimeUnit.MILLISECONDS)
+                .handle((confirm, throwable) -> {
+                    release(requestId);
+                    if (throwable != null) {
+                        if (throwable instanceof TimeoutException) {
+                            timeouts.increment();
+                            logger.warn("Publisher confirm timed out: id={}", requestId);
+                        }
+                        throw new IllegalStateException("No publisher confirm for request " + requestId, throwable);
+                    }
+                    if (!confirm.isAck()) {
+                        nacks.increment();
+                        throw new IllegalStateException(
+                                "Broker rejected request " + requestId + ": " + confirm.getReason());
+                    }
+                    acks.increment();
+                    return requestId;
+                });
+    }
+
+    /**
+     * Releases the slot of a publish that never reached the broker.
+     */
+    public void abandon(CorrelationData correlation) {
+        release(correlation.getId());
+    }
+
+    public int getMaxOutstanding() {
+        return properties.maxOutstanding();
+    }
+
+    public int getOutstanding() {
+        return pending.size();
+    }
+
+    private void release(String requestId) {
+        if (pending.remove(requestId) != null) {
+            window.release();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("producer.publish.confirms.outstanding", pending, Map::size)
+                .description("Publishes waiting for a broker confirm")
+                .register(registry);
+        FunctionCounter.builder("producer.publish.confirms", acks, LongAdder::sum)
+                .tag("result", "ack")
+                .register(registry);
+        FunctionCounter.builder("producer.publish.confirms", nacks, LongAdder::sum)
+                .tag("result", "nack")
+                .register(registry);
+        FunctionCounter.builder("producer.publish.confirms", timeouts, LongAdder::sum)
+                .tag("result", "timeout")
+                .register(registry);
+        FunctionCounter.builder("producer.publish.confirms.window.rejected", windowRejections, LongAdder::sum)
+                .description("Publishes rejected because the confirm window stayed full")
+                .register(registry);
+    }
+}
@@ -0,0 +1,14 @@
+package com.worldinfo.producer.service;
+
+import java.util.UUID;
+
+/**
+ * Random (version 4) UUIDs from the shared {@code SecureRandom}, as the producer originally used.
+ */
+public class RandomUuidRequestIdGenerator implements RequestIdGenerator {
+
+    @Override
+    public String nextId() {
+        return UUID.randomUUID().toString();
+    }
+}
@@ -0,0 +1,187 @@
+package com.worldinfo.producer.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.worldinfo.producer.config.CoalescingProperties;
+import com.worldinfo.producer.config.RpcDestination;
+import com.worldinfo.producer.model.PublishReceipt;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Lets identical fire-and-forget requests share one publish.
+ * <p>
+ * A request's identity is its destination, method and a SHA-256 over a canonical
+ * form of its params: map keys sorted, values tagged by type, and the names in
+ * {@code ignored-params} (such as {@code timestamp}) left out. The first request
+ * publishes; until the method's TTL runs out, identical requests share its
+ * future, and so the same request id and outcome. Each caller gets its own copy,
+ * so a caller that cancels (a WebFlux client disconnecting, say) leaves the
+ * others and the shared publish alone. A publish that fails is forgotten at once
+ * so the next caller tries again.
+ */
+@Component
+@EnableConfigurationProperties(CoalescingProperties.class)
+public class RequestCoalescer implements MeterBinder {
+
+    private static final int DIGEST_POOL_SIZE = 64;
+
+    private final CoalescingProperties properties;
+    private final Set<String> ignoredParams;
+    private final Cache<Key, CompletableFuture<PublishReceipt>> inFlight;
+    private final BlockingQueue<MessageDigest> digests = new ArrayBlockingQueue<>(DIGEST_POOL_SIZE);
+
+    public RequestCoalescer(CoalescingProperties properties) {
+        this.properties = properties;
+        this.ignoredParams = Set.copyOf(properties.ignoredParams());
+        this.inFlight = Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfter(new Expiry<Key, CompletableFuture<PublishReceipt>>() {
+                    @Override
+                    public long expireAfterCreate(Key key, CompletableFuture<PublishReceipt> value, long currentTime) {
+                        return properties.ttlFor(key.method()).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Key key, CompletableFuture<PublishReceipt> value, long currentTime,
+                                                  long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(Key key, CompletableFuture<PublishReceipt> value, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * @param publish performs the publish when no identical request is inside its window
+     * @return the caller's own view of the shared publish; cancelling it does not cancel the publish
+     */
+    public CompletableFuture<PublishReceipt> coalesce(RpcDestination destination, String method,
+                                                      Map<String, Object> params,
+                                                      Supplier<CompletableFuture<PublishReceipt>> publish) {
+        if (!properties.enabled() || properties.ttlFor(method).compareTo(Duration.ZERO) <= 0) {
+            return publish.get();
+        }
+        Key key = key(destination, method, params);
+        CompletableFuture<PublishReceipt> future = inFlight.get(key, ignored -> publish.get());
+        future.whenComplete((receipt, throwable) -> {
+            if (throwable != null) {
+                inFlight.asMap().remove(key, future);
+            }
+        });
+        return future.copy();
+    }
+
+    private Key key(RpcDestination destination, String method, Map<String, Object> params) {
+        MessageDigest digest = digests.poll();
+        if (digest == null) {
+            digest = newDigest();
+        }
+        try {
+            update(digest, params);
+            ByteBuffer hash = ByteBuffer.wrap(digest.digest());
+            return new Key(destination, method, hash.getLong(), hash.getLong());
+        } finally {
+            digest.reset();
+            digests.offer(digest);
+        }
+    }
+
+    private void update(MessageDigest digest, Object value) {
+        if (value == null) {
+            digest.update((byte) 'z');
+        } else if (value instanceof Map<?, ?> map) {
+            // sorted by key so that parameter order does not change the identity
+            Map<String, Object> sorted = new TreeMap<>();
+            map.forEach((name, entry) -> {
+                String key = String.valueOf(name);
+                if (!ignoredParams.contains(key)) {
+                    sorted.put(key, entry);
+                }
+            });
+            digest.update((byte) 'm');
+            sorted.forEach((name, entry) -> {
+                updateString(digest, name);
+                update(digest, entry);
+            });
+            digest.update((byte) 'M');
+        } else if (value instanceof Collection<?> collection) {
+            digest.update((byte) 'l');
+            collection.forEach(element -> update(digest, element));
+            digest.update((byte) 'L');
+        } else if (value instanceof Number number) {
+            digest.update((byte) 'n');
+            updateString(digest, number.toString());
+        } else if (value instanceof Boolean bool) {
+            digest.update(bool ? (byte) 't' : (byte) 'f');
+        } else {
+            digest.update((byte) 's');
+            updateString(digest, value.toString());
+        }
+    }
+
+    private static void updateString(MessageDigest digest, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(0, bytes.length).array());
+        digest.update(bytes);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("producer.coalescing.requests", inFlight, cache -> cache.stats().missCount())
+                .description("Requests checked against the coalescing cache")
+                .tag("result", "published")
+                .register(registry);
+        FunctionCounter.builder("producer.coalescing.requests", inFlight, cache -> cache.stats().hitCount())
+                .description("Requests checked against the coalescing cache")
+                .tag("result", "coalesced")
+                .register(registry);
+        FunctionCounter.builder("producer.coalescing.evictions", inFlight, cache -> cache.stats().evictionCount())
+                .description("Entries removed from the coalescing cache by expiry or size")
+                .register(registry);
+        Gauge.builder("producer.coalescing.hit.ratio", inFlight, cache -> cache.stats().hitRate())
+                .description("Share of coalescing lookups answered by an earlier identical request")
+                .register(registry);
+        Gauge.builder("producer.coalescing.size", inFlight, Cache::estimatedSize)
+                .description("Requests currently held for coalescing")
+                .register(registry);
+    }
+
+    private record Key(RpcDestination destination, String method, long hashHigh, long hashLow) {
+    }
+}
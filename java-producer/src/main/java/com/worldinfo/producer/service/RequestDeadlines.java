@@ -0,0 +1,163 @@
+package com.worldinfo.producer.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageListener;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import com.worldinfo.producer.config.DeadlineProperties;
+import com.worldinfo.producer.model.JsonRpcError;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Works out when each request stops being worth processing, and counts the ones that
+ * got there first.
+ * <p>
+ * A request's deadline is its arrival plus the caller's {@value #TIMEOUT_HEADER} (milliseconds,
+ * capped at {@code max-timeout}), else its method's {@code timeout}, else
+ * {@code app.publish.deadlines.default-timeout}. It travels as the {@code deadline} field of
+ * the request, as the AMQP {@code expiration} so the broker drops the message once it is
+ * stale, and in the {@value #DEADLINE_HEADER} header so a replay from the outbox can tell.
+ * <p>
+ * Expiry is counted per method wherever it is noticed: before the publish, when the
+ * request waited out its deadline in the producer, and, with the dead-letter queues
+ * enabled, in the broker, from the expired messages this listener consumes.
+ */
+@Component
+@EnableConfigurationProperties(DeadlineProperties.class)
+public class RequestDeadlines implements MessageListener, MeterBinder {
+
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout";
+    public static final String DEADLINE_HEADER = "x-deadline";
+    public static final String METHOD_HEADER = "x-rpc-method";
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestDeadlines.class);
+    private static final String DEATH_REASON_HEADER = "x-first-death-reason";
+
+    private final DeadlineProperties properties;
+    private final Map<CounterKey, Counter> expiredCounters = new ConcurrentHashMap<>();
+    private final Map<CounterKey, Counter> deadLetteredCounters = new ConcurrentHashMap<>();
+    private volatile MeterRegistry registry;
+
+    public RequestDeadlines(DeadlineProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * @param requested the caller's timeout, or {@code null} for the method's
+     * @param received  when the request arrived
+     * @return the deadline, or {@code null} if the request has none
+     * @throws JsonRpcException if {@code requested} is not positive
+     */
+    public Instant deadline(PublishTemplate template, Duration requested, Instant received) {
+        validate(requested);
+        if (!properties.enabled()) {
+            return null;
+        }
+        Duration timeout = requested != null ? requested
+                : template.timeout() != null ? template.timeout()
+                : properties.defaultTimeout();
+        if (timeout == null) {
+            return null;
+        }
+        if (timeout.compareTo(properties.maxTimeout()) > 0) {
+            timeout = properties.maxTimeout();
+        }
+        return received.plus(timeout);
+    }
+
+    /**
+     * @throws JsonRpcException if a caller's timeout is not positive
+     */
+    public static void validate(Duration requested) {
+        if (requested != null && (requested.isNegative() || requested.isZero())) {
+            throw new JsonRpcException(new JsonRpcError(JsonRpcError.invalidRequest().code(),
+                    JsonRpcError.invalidRequest().message(), TIMEOUT_HEADER + " must be positive"));
+        }
+    }
+
+    public static boolean passed(Instant deadline) {
+        return deadline != null && !Instant.now().isBefore(deadline);
+    }
+
+    /**
+     * Gives the message the time left until {@code deadline} as its expiration, at least
+     * one millisecond, since a zero expiration means "deliver now or drop" to RabbitMQ.
+     */
+    public static void apply(MessageProperties properties, String method, Instant deadline) {
+        long remaining = Math.max(1, deadline.toEpochMilli() - System.currentTimeMillis());
+        properties.setExpiration(Long.toString(remaining));
+        properties.setHeader(DEADLINE_HEADER, Long.toString(deadline.toEpochMilli()));
+        properties.setHeader(METHOD_HEADER, method);
+    }
+
+    /**
+     * Counts a request that reached its deadline before it could be published.
+     */
+    public void expiredBeforePublish(String method) {
+        count(method, "producer");
+    }
+
+    /**
+     * Counts a message dead-lettered by the broker. Messages rejected by consumers or
+     * dropped for queue length land in the same queues and are counted apart, by the
+     * broker's reason.
+     */
+    @Override
+    public void onMessage(Message message) {
+        MessageProperties messageProperties = message.getMessageProperties();
+        Object method = messageProperties.getHeader(METHOD_HEADER);
+        Object reason = messageProperties.getHeader(DEATH_REASON_HEADER);
+        String methodName = method != null ? method.toString() : "unknown";
+        if (reason == null || "expired".equals(reason.toString())) {
+            count(methodName, "broker");
+        } else {
+            MeterRegistry meters = registry;
+            if (meters != null) {
+                deadLetteredCounters.computeIfAbsent(new CounterKey(methodName, reason.toString()), key ->
+                                Counter.builder("producer.requests.dead.lettered")
+                                        .tag("method", key.method())
+                                        .tag("reason", key.value())
+                                        .description("Dead-lettered requests that had not expired, by broker reason")
+                                        .register(meters))
+                        .increment();
+            }
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Dead-lettered request: method={}, reason={}, queue={}",
+                    methodName, reason, messageProperties.getConsumerQueue());
+        }
+    }
+
+    private void count(String method, String stage) {
+        MeterRegistry meters = registry;
+        if (meters != null) {
+            expiredCounters.computeIfAbsent(new CounterKey(method, stage), key ->
+                            Counter.builder("producer.requests.expired")
+                                    .tag("method", key.method())
+                                    .tag("stage", key.value())
+                                    .description("Requests dropped because their deadline passed")
+                                    .register(meters))
+                    .increment();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    private record CounterKey(String method, String value) {
+    }
+}
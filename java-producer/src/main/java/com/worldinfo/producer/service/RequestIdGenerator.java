@@ -0,0 +1,9 @@
+package com.worldinfo.producer.service;
+
+/**
+ * Produces the JSON-RPC {@code id} of each published request.
+ */
+public interface RequestIdGenerator {
+
+    String nextId();
+}
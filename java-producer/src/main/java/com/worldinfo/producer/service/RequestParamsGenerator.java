@@ -0,0 +1,88 @@
+package com.worldinfo.producer.service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Randomized, realistic-looking params for each known JSON-RPC method, so that
+ * generated traffic varies in content and size the way client traffic does.
+ */
+@Component
+public class RequestParamsGenerator {
+
+    public static final List<String> WORLD_INFO_METHODS = List.of(
+            "getWeatherInfo", "getTimeInfo", "getLocationInfo", "getCurrencyInfo");
+
+    public static final List<String> EXT_PROVIDER_METHODS = List.of(
+            "fetchWeatherData", "fetchGeoLocation", "fetchImageOfDay", "fetchNewsData");
+
+    private static final List<City> CITIES = List.of(
+            new City("New York", 40.7128, -74.0060, "America/New_York"),
+            new City("London", 51.5074, -0.1278, "Europe/London"),
+            new City("Tokyo", 35.6762, 139.6503, "Asia/Tokyo"),
+            new City("Sao Paulo", -23.5505, -46.6333, "America/Sao_Paulo"),
+            new City("Sydney", -33.8688, 151.2093, "Australia/Sydney"),
+            new City("Nairobi", -1.2921, 36.8219, "Africa/Nairobi"),
+            new City("Mumbai", 19.0760, 72.8777, "Asia/Kolkata"),
+            new City("Berlin", 52.5200, 13.4050, "Europe/Berlin"));
+
+    private static final List<String> CURRENCIES = List.of("USD", "EUR", "GBP", "JPY", "BRL", "INR", "AUD", "KES");
+    private static final List<String> NEWS_CATEGORIES = List.of("technology", "science", "business", "world", "sports");
+    private static final List<String> IMAGE_CATEGORIES = List.of("nature", "space", "architecture", "animals");
+    private static final List<String> RESOLUTIONS = List.of("1280x720", "1920x1080", "3840x2160");
+
+    private record City(String name, double lat, double lon, String timezone) {
+    }
+
+    public Map<String, Object> generate(String method) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        City city = pick(CITIES, random);
+        String timestamp = Instant.now().toString();
+        return switch (method) {
+            case "getWeatherInfo", "fetchWeatherData" -> Map.of(
+                    "location", city.name(),
+                    "units", random.nextBoolean() ? "metric" : "imperial",
+                    "timestamp", timestamp
+            );
+            case "getTimeInfo" -> Map.of(
+                    "timezone", city.timezone(),
+                    "format", "ISO8601",
+                    "timestamp", timestamp
+            );
+            case "getLocationInfo", "fetchGeoLocation" -> Map.of(
+                    "lat", city.lat() + (random.nextGaussian() * 0.1),
+                    "lon", city.lon() + (random.nextGaussian() * 0.1),
+                    "timestamp", timestamp
+            );
+            case "getCurrencyInfo" -> Map.of(
+                    "from", pick(CURRENCIES, random),
+                    "to", pick(CURRENCIES, random),
+                    "amount", Math.round(random.nextDouble(1, 10_000) * 100) / 100.0,
+                    "timestamp", timestamp
+            );
+            case "fetchImageOfDay" -> Map.of(
+                    "category", pick(IMAGE_CATEGORIES, random),
+                    "resolution", pick(RESOLUTIONS, random),
+                    "timestamp", timestamp
+            );
+            case "fetchNewsData" -> Map.of(
+                    "category", pick(NEWS_CATEGORIES, random),
+                    "location", city.name(),
+                    "limit", 5 + random.nextInt(46),
+                    "timestamp", timestamp
+            );
+            default -> Map.of(
+                    "timestamp", timestamp,
+                    "source", "generated"
+            );
+        };
+    }
+
+    private static <T> T pick(List<T> values, ThreadLocalRandom random) {
+        return values.get(random.nextInt(values.size()));
+    }
+}
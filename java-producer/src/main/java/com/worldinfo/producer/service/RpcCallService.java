@@ -0,0 +1,163 @@
+package com.worldinfo.producer.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.worldinfo.producer.config.RpcCallProperties;
+import com.worldinfo.producer.config.RpcDestination;
+import com.worldinfo.producer.model.JsonRpcResponse;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Request/response over RabbitMQ.
+ * <p>
+ * Calls are published with {@code reply_to} set to this instance's reply queue and
+ * {@code correlation_id} set to the request id. Pending calls live in a
+ * {@link ConcurrentHashMap} keyed by request id; the reply listener removes the
+ * entry and completes its future with the deserialized {@link JsonRpcResponse}.
+ * Every call has a timeout, and at most {@code max-pending} calls can wait at once.
+ */
+@Service
+@ConditionalOnProperty(name = "app.rpc.call.enabled", havingValue = "true", matchIfMissing = true)
+public class RpcCallService implements MessageListener, MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(RpcCallService.class);
+
+    private final WorldInfoProducerService producerService;
+    private final ObjectMapper objectMapper;
+    private final RpcCallProperties properties;
+    private final RequestIdGenerator requestIdGenerator;
+    private final String replyQueue;
+
+    private final Map<String, CompletableFuture<JsonRpcResponse>> pending = new ConcurrentHashMap<>();
+    private final Semaphore capacity;
+
+    private final LongAdder replies = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder unmatched = new LongAdder();
+
+    public RpcCallService(WorldInfoProducerService producerService,
+                          ObjectMapper objectMapper,
+                          RpcCallProperties properties,
+                          RequestIdGenerator requestIdGenerator,
+                          AnonymousQueue rpcReplyQueue) {
+        this.producerService = producerService;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.requestIdGenerator = requestIdGenerator;
+        this.replyQueue = rpcReplyQueue.getName();
+        this.capacity = new Semaphore(properties.maxPending());
+    }
+
+    /**
+     * Publishes {@code method} and completes with the consumer's reply.
+     *
+     * @param timeout reply timeout, or {@code null} for the configured default
+     */
+    public CompletableFuture<JsonRpcResponse> call(RpcDestination destination,
+                                                   String method,
+                                                   Map<String, Object> params,
+                                                   Duration timeout) {
+        if (!capacity.tryAcquire()) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(new RejectedExecutionException(
+                    "Too many pending RPC calls (" + properties.maxPending() + ")"));
+        }
+
+        String requestId = requestIdGenerator.nextId();
+        CompletableFuture<JsonRpcResponse> reply = new CompletableFuture<>();
+        pending.put(requestId, reply);
+
+        long timeoutMillis = effectiveTimeout(timeout).toMillis();
+        reply.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+                .whenComplete((response, throwable) -> {
+                    if (pending.remove(requestId) != null && throwable instanceof TimeoutException) {
+                        timeouts.increment();
+                        logger.warn("RPC call timed out: id={}, method={}, timeout={}ms",
+                                requestId, method, timeoutMillis);
+                    }
+                    capacity.release();
+                });
+
+        // the request is worth processing only as long as the caller waits for its reply
+        producerService.sendWithReplyTo(destination, requestId, method, params, replyQueue,
+                        Duration.ofMillis(timeoutMillis))
+                .whenComplete((receipt, throwable) -> {
+                    if (throwable != null) {
+                        reply.completeExceptionally(throwable);
+                    }
+                });
+
+        return reply;
+    }
+
+    @Override
+    public void onMessage(Message message) {
+        String correlationId = message.getMessageProperties().getCorrelationId();
+        CompletableFuture<JsonRpcResponse> reply = correlationId != null ? pending.remove(correlationId) : null;
+        if (reply == null) {
+            unmatched.increment();
+            logger.debug("Discarding reply with no pending call: correlation_id={}", correlationId);
+            return;
+        }
+        try {
+            reply.complete(objectMapper.readValue(message.getBody(), JsonRpcResponse.class));
+            replies.increment();
+        } catch (IOException e) {
+            logger.error("Failed to deserialize RPC reply: correlation_id={}", correlationId, e);
+            reply.completeExceptionally(e);
+        }
+    }
+
+    public String getReplyQueue() {
+        return replyQueue;
+    }
+
+    private Duration effectiveTimeout(Duration requested) {
+        if (requested == null || requested.isNegative() || requested.isZero()) {
+            return properties.defaultTimeout();
+        }
+        return requested.compareTo(properties.maxTimeout()) > 0 ? properties.maxTimeout() : requested;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("producer.rpc.calls.pending", pending, Map::size)
+                .description("RPC calls waiting for a reply")
+                .register(registry);
+        FunctionCounter.builder("producer.rpc.calls", replies, LongAdder::sum)
+                .tag("outcome", "reply")
+                .register(registry);
+        FunctionCounter.builder("producer.rpc.calls", timeouts, LongAdder::sum)
+                .tag("outcome", "timeout")
+                .register(registry);
+        FunctionCounter.builder("producer.rpc.calls", rejected, LongAdder::sum)
+                .tag("outcome", "rejected")
+                .register(registry);
+        FunctionCounter.builder("producer.rpc.replies.unmatched", unmatched, LongAdder::sum)
+                .description("Replies that arrived after their call timed out")
+                .register(registry);
+    }
+}
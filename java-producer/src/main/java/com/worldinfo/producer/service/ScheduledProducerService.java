@@ -1,8 +1,8 @@
 package com.worldinfo.producer.service;
 
-import java.time.Instant;
+import java.util.List;
 import java.util.Map;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,19 +21,13 @@ public class ScheduledProducerService {
 
     private final WorldInfoProducerService producerService;
     private final Tracer tracer;
-    private final Random random = new Random();
+    private final RequestParamsGenerator paramsGenerator;
 
-    private final String[] worldInfoMethods = {
-            "getWeatherInfo", "getTimeInfo", "getLocationInfo", "getCurrencyInfo"
-    };
-
-    private final String[] extProviderMethods = {
-            "fetchWeatherData", "fetchGeoLocation", "fetchImageOfDay", "fetchNewsData"
-    };
-
-    public ScheduledProducerService(WorldInfoProducerService producerService, Tracer tracer) {
+    public ScheduledProducerService(WorldInfoProducerService producerService, PublishTracing tracing,
+                                    RequestParamsGenerator paramsGenerator) {
         this.producerService = producerService;
-        this.tracer = tracer;
+        this.tracer = tracing.requestTracer();
+        this.paramsGenerator = paramsGenerator;
     }
 
     @Scheduled(fixedDelay = 30000, initialDelay = 10000) // Every 30 seconds
@@ -44,30 +38,31 @@ public class ScheduledProducerService {
                 .startSpan();
 
         try {
-            String method = worldInfoMethods[random.nextInt(worldInfoMethods.length)];
-            Map<String, Object> params = generateParams(method);
+            String method = pick(RequestParamsGenerator.WORLD_INFO_METHODS);
+            Map<String, Object> params = paramsGenerator.generate(method);
 
             logger.info("Scheduled task: sending world info request - method: {}", method);
 
             span.addEvent("sending_request");
             producerService.sendWorldInfoRequest(method, params)
-                    .whenComplete((requestId, throwable) -> {
+                    .whenComplete((receipt, throwable) -> {
                         if (throwable != null) {
                             span.recordException(throwable);
                             span.setStatus(io.opentelemetry.api.trace.StatusCode.ERROR, throwable.getMessage());
                             logger.error("Scheduled world info request failed", throwable);
                         } else {
                             span.setStatus(io.opentelemetry.api.trace.StatusCode.OK);
-                            logger.info("Scheduled world info request sent successfully: {}", requestId);
+                            logger.info("Scheduled world info request sent successfully: {} ({})",
+                                    receipt.requestId(), receipt.status());
                         }
+                        span.end();
                     });
 
         } catch (Exception e) {
             span.recordException(e);
             span.setStatus(io.opentelemetry.api.trace.StatusCode.ERROR, e.getMessage());
-            logger.error("Error in scheduled world info task", e);
-        } finally {
             span.end();
+            logger.error("Error in scheduled world info task", e);
         }
     }
 
@@ -79,70 +74,35 @@ public class ScheduledProducerService {
                 .startSpan();
 
         try {
-            String method = extProviderMethods[random.nextInt(extProviderMethods.length)];
-            Map<String, Object> params = generateParams(method);
+            String method = pick(RequestParamsGenerator.EXT_PROVIDER_METHODS);
+            Map<String, Object> params = paramsGenerator.generate(method);
 
             logger.info("Scheduled task: sending ext provider request - method: {}", method);
 
             span.addEvent("sending_request");
             producerService.sendExtProviderRequest(method, params)
-                    .whenComplete((requestId, throwable) -> {
+                    .whenComplete((receipt, throwable) -> {
                         if (throwable != null) {
                             span.recordException(throwable);
                             span.setStatus(io.opentelemetry.api.trace.StatusCode.ERROR, throwable.getMessage());
                             logger.error("Scheduled ext provider request failed", throwable);
                         } else {
                             span.setStatus(io.opentelemetry.api.trace.StatusCode.OK);
-                            logger.info("Scheduled ext provider request sent successfully: {}", requestId);
+                            logger.info("Scheduled ext provider request sent successfully: {} ({})",
+                                    receipt.requestId(), receipt.status());
                         }
+                        span.end();
                     });
 
         } catch (Exception e) {
             span.recordException(e);
             span.setStatus(io.opentelemetry.api.trace.StatusCode.ERROR, e.getMessage());
-            logger.error("Error in scheduled ext provider task", e);
-        } finally {
             span.end();
+            logger.error("Error in scheduled ext provider task", e);
         }
     }
 
-    private Map<String, Object> generateParams(String method) {
-        return switch (method) {
-            case "getWeatherInfo", "fetchWeatherData" -> Map.of(
-                    "location", "New York",
-                    "units", "metric",
-                    "timestamp", Instant.now().toString()
-            );
-            case "getTimeInfo" -> Map.of(
-                    "timezone", "UTC",
-                    "format", "ISO8601",
-                    "timestamp", Instant.now().toString()
-            );
-            case "getLocationInfo", "fetchGeoLocation" -> Map.of(
-                    "lat", 40.7128 + (random.nextGaussian() * 0.1),
-                    "lon", -74.0060 + (random.nextGaussian() * 0.1),
-                    "timestamp", Instant.now().toString()
-            );
-            case "getCurrencyInfo" -> Map.of(
-                    "from", "USD",
-                    "to", "EUR",
-                    "amount", 100.0,
-                    "timestamp", Instant.now().toString()
-            );
-            case "fetchImageOfDay" -> Map.of(
-                    "category", "nature",
-                    "resolution", "1920x1080",
-                    "timestamp", Instant.now().toString()
-            );
-            case "fetchNewsData" -> Map.of(
-                    "category", "technology",
-                    "limit", 10,
-                    "timestamp", Instant.now().toString()
-            );
-            default -> Map.of(
-                    "timestamp", Instant.now().toString(),
-                    "source", "scheduled-task"
-            );
-        };
+    private static String pick(List<String> methods) {
+        return methods.get(ThreadLocalRandom.current().nextInt(methods.size()));
     }
 }
@@ -0,0 +1,83 @@
+package com.worldinfo.producer.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Version 7 UUIDs (RFC 9562) that sort by creation time and need no {@code SecureRandom}.
+ * <p>
+ * Layout: 48-bit Unix epoch milliseconds, version, a 12-bit sequence in
+ * {@code rand_a}, variant, then {@code rand_b} made of a 16-bit node id, a 6-bit
+ * stripe and 40 random bits from {@link ThreadLocalRandom}.
+ * <p>
+ * Each stripe keeps its own (millisecond, sequence) clock in one CAS slot, and
+ * threads pick a stripe by thread id, so concurrent publishers rarely touch the
+ * same slot. A stripe that issues more than 4096 ids in one millisecond borrows
+ * from the next one, so ids within a stripe never repeat or go backwards. The
+ * node id keeps ids from different producer instances apart.
+ */
+public class TimeOrderedRequestIdGenerator implements RequestIdGenerator {
+
+    private static final int STRIPES = 64;
+    private static final int STRIDE = 8; // one clock per 64-byte cache line
+    private static final int SEQUENCE_BITS = 12;
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private final long node;
+    private final AtomicLongArray clocks = new AtomicLongArray(STRIPES * STRIDE);
+
+    public TimeOrderedRequestIdGenerator(int nodeId) {
+        if (nodeId < 0 || nodeId > 0xFFFF) {
+            throw new IllegalArgumentException("Node id must fit in 16 bits: " + nodeId);
+        }
+        this.node = nodeId;
+    }
+
+    @Override
+    public String nextId() {
+        int stripe = (int) (Thread.currentThread().threadId() & (STRIPES - 1));
+        long clock = tick(stripe * STRIDE);
+        long millis = clock >>> SEQUENCE_BITS;
+        long sequence = clock & ((1L << SEQUENCE_BITS) - 1);
+
+        long msb = (millis << 16) | (0x7L << 12) | sequence;
+        long lsb = (0x2L << 62)
+                | (node << 46)
+                | ((long) stripe << 40)
+                | (ThreadLocalRandom.current().nextLong() & 0xFF_FFFF_FFFFL);
+        return format(msb, lsb);
+    }
+
+    private long tick(int slot) {
+        long now = System.currentTimeMillis() << SEQUENCE_BITS;
+        while (true) {
+            long current = clocks.get(slot);
+            long next = now > current ? now : current + 1;
+            if (clocks.compareAndSet(slot, current, next)) {
+                return next;
+            }
+        }
+    }
+
+    private static String format(long msb, long lsb) {
+        byte[] chars = new byte[36];
+        hex(chars, 0, msb >>> 32, 8);
+        chars[8] = '-';
+        hex(chars, 9, msb >>> 16, 4);
+        chars[13] = '-';
+        hex(chars, 14, msb, 4);
+        chars[18] = '-';
+        hex(chars, 19, lsb >>> 48, 4);
+        chars[23] = '-';
+        hex(chars, 24, lsb, 12);
+        return new String(chars, StandardCharsets.US_ASCII);
+    }
+
+    private static void hex(byte[] chars, int offset, long value, int digits) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            chars[i] = HEX[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.worldinfo.producer.service;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket whose refill rate can be scaled at call time.
+ */
+final class TokenBucket {
+
+    private final double permitsPerSecond;
+    private final double capacity;
+    private final LongSupplier nanoClock;
+
+    private double tokens;
+    private long lastRefillNanos;
+
+    TokenBucket(double permitsPerSecond, long burst) {
+        this(permitsPerSecond, burst, System::nanoTime);
+    }
+
+    TokenBucket(double permitsPerSecond, long burst, LongSupplier nanoClock) {
+        this.permitsPerSecond = permitsPerSecond;
+        this.capacity = Math.max(1, burst);
+        this.nanoClock = nanoClock;
+        this.tokens = capacity;
+        this.lastRefillNanos = nanoClock.getAsLong();
+    }
+
+    /**
+     * Takes one token at {@code factor} times the configured rate.
+     *
+     * @return 0 if a token was taken, otherwise the nanoseconds until one will be available
+     */
+    synchronized long tryAcquire(double factor) {
+        double rate = permitsPerSecond * factor;
+        long now = nanoClock.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * rate / 1_000_000_000d);
+        lastRefillNanos = now;
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return rate > 0 ? (long) Math.ceil((1 - tokens) / rate * 1_000_000_000d) : Long.MAX_VALUE;
+    }
+
+    /**
+     * Gives back a token taken by a request that was then rejected elsewhere.
+     */
+    synchronized void refund() {
+        tokens = Math.min(capacity, tokens + 1);
+    }
+
+    synchronized double available() {
+        return tokens;
+    }
+}
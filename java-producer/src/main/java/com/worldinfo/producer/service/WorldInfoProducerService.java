@@ -1,24 +1,38 @@
 package com.worldinfo.producer.service;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.core.Message;
-import org.springframework.amqp.core.MessageBuilder;
 import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.stereotype.Service;
 
-import com.worldinfo.producer.config.RabbitMQConfig;
+import com.worldinfo.producer.claimcheck.ClaimCheck;
+import com.worldinfo.producer.codec.JsonRpcRequestWriter;
+import com.worldinfo.producer.codec.PayloadCompressor;
+import com.worldinfo.producer.codec.WireFormat;
+import com.worldinfo.producer.config.RpcDestination;
+import com.worldinfo.producer.model.BatchItemResult;
+import com.worldinfo.producer.model.BatchRequestItem;
 import com.worldinfo.producer.model.JsonRpcRequest;
+import com.worldinfo.producer.model.PublishReceipt;
+import com.worldinfo.producer.model.PublishStatus;
+import com.worldinfo.producer.outbox.PublishOutbox;
 
 import io.opentelemetry.api.trace.Span;
-import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
 
 @Service
 public class WorldInfoProducerService {
@@ -26,120 +40,495 @@ public class WorldInfoProducerService {
     private static final Logger logger = LoggerFactory.getLogger(WorldInfoProducerService.class);
 
     private final RabbitTemplate rabbitTemplate;
-    private final Tracer tracer;
+    private final PublishTracing tracing;
+    private final PriorityLanes priorityLanes;
+    private final PublisherConfirmTracker confirmTracker;
+    private final BatchPublisher batchPublisher;
+    private final JsonRpcRequestWriter requestWriter;
+    private final RequestIdGenerator requestIdGenerator;
+    private final PublishRateLimiter rateLimiter;
+    private final PublishOutbox outbox;
+    private final PayloadCompressor compressor;
+    private final PartitionRouter partitionRouter;
+    private final PublishLog publishLog;
+    private final RequestCoalescer coalescer;
+    private final PublishMetrics metrics;
+    private final MethodRegistry methodRegistry;
+    private final BrokerNodes brokerNodes;
+    private final ClaimCheck claimCheck;
+    private final RequestDeadlines deadlines;
 
-    public WorldInfoProducerService(RabbitTemplate rabbitTemplate, Tracer tracer) {
+    public WorldInfoProducerService(RabbitTemplate rabbitTemplate,
+                                    PublishTracing tracing,
+                                    PriorityLanes priorityLanes,
+                                    PublisherConfirmTracker confirmTracker,
+                                    BatchPublisher batchPublisher,
+                                    JsonRpcRequestWriter requestWriter,
+                                    RequestIdGenerator requestIdGenerator,
+                                    PublishRateLimiter rateLimiter,
+                                    PublishOutbox outbox,
+                                    PayloadCompressor compressor,
+                                    PartitionRouter partitionRouter,
+                                    PublishLog publishLog,
+                                    RequestCoalescer coalescer,
+                                    PublishMetrics metrics,
+                                    MethodRegistry methodRegistry,
+                                    BrokerNodes brokerNodes,
+                                    ClaimCheck claimCheck,
+                                    RequestDeadlines deadlines) {
         this.rabbitTemplate = rabbitTemplate;
-        this.tracer = tracer;
+        this.tracing = tracing;
+        this.priorityLanes = priorityLanes;
+        this.confirmTracker = confirmTracker;
+        this.batchPublisher = batchPublisher;
+        this.requestWriter = requestWriter;
+        this.requestIdGenerator = requestIdGenerator;
+        this.rateLimiter = rateLimiter;
+        this.outbox = outbox;
+        this.compressor = compressor;
+        this.partitionRouter = partitionRouter;
+        this.publishLog = publishLog;
+        this.coalescer = coalescer;
+        this.metrics = metrics;
+        this.methodRegistry = methodRegistry;
+        this.brokerNodes = brokerNodes;
+        this.claimCheck = claimCheck;
+        this.deadlines = deadlines;
     }
 
-    public CompletableFuture<String> sendWorldInfoRequest(String method, Map<String, Object> params) {
-        return CompletableFuture.supplyAsync(() -> {
-            Span span = tracer.spanBuilder("world_info.rpc.send")
-                    .setAttribute("rpc.service", "world_info")
-                    .setAttribute("rpc.method", method)
-                    .setAttribute("messaging.system", "rabbitmq")
-                    .setAttribute("messaging.destination", RabbitMQConfig.WORLD_INFO_QUEUE)
-                    .setAttribute("messaging.destination_kind", "queue")
-                    .startSpan();
+    /**
+     * Identical requests inside their coalescing window share one publish; see {@link RequestCoalescer}.
+     * Methods the {@link MethodRegistry} does not accept fail with a {@link JsonRpcException}.
+     */
+    public CompletableFuture<PublishReceipt> sendWorldInfoRequest(String method, Map<String, Object> params) {
+        return sendWorldInfoRequest(method, params, null);
+    }
 
-            try {
-                String requestId = UUID.randomUUID().toString();
-                
-                // Create JSON-RPC request with tracing context
-                JsonRpcRequest request = JsonRpcRequest.of(requestId, method, params)
-                        .withTracing(span.getSpanContext().getTraceId(), span.getSpanContext().getSpanId());
-
-                // Add tracing headers to message
-                Message message = MessageBuilder
-                        .withBody(serializeRequest(request))
-                        .setContentType(MessageProperties.CONTENT_TYPE_JSON)
-                        .setHeader("trace_id", span.getSpanContext().getTraceId())
-                        .setHeader("span_id", span.getSpanContext().getSpanId())
-                        .setTimestamp(Date.from(Instant.now()))
-                        .build();
-
-                span.addEvent("sending_message");
-                
-                logger.info("Sending JSON-RPC request: id={}, method={}, trace_id={}", 
-                           requestId, method, span.getSpanContext().getTraceId());
-
-                rabbitTemplate.send(RabbitMQConfig.WORLD_INFO_EXCHANGE, 
-                                  RabbitMQConfig.WORLD_INFO_ROUTING_KEY, 
-                                  message);
-
-                span.addEvent("message_sent");
+    /**
+     * @param timeout how long the request stays worth processing, or {@code null} for its method's
+     *                deadline; see {@link RequestDeadlines}
+     */
+    public CompletableFuture<PublishReceipt> sendWorldInfoRequest(String method, Map<String, Object> params,
+                                                                  Duration timeout) {
+        return sendRequest(RpcDestination.WORLD_INFO, method, params, timeout);
+    }
+
+    public CompletableFuture<PublishReceipt> sendExtProviderRequest(String method, Map<String, Object> params) {
+        return sendExtProviderRequest(method, params, null);
+    }
+
+    public CompletableFuture<PublishReceipt> sendExtProviderRequest(String method, Map<String, Object> params,
+                                                                    Duration timeout) {
+        return sendRequest(RpcDestination.EXT_PROVIDER, method, params, timeout);
+    }
+
+    /**
+     * Coalesced requests share the deadline of the one that is actually published.
+     */
+    private CompletableFuture<PublishReceipt> sendRequest(RpcDestination destination, String method,
+                                                          Map<String, Object> params, Duration timeout) {
+        Instant received = Instant.now();
+        PublishTemplate template;
+        Instant deadline;
+        try {
+            template = methodRegistry.resolve(destination, method, params);
+            deadline = deadlines.deadline(template, timeout, received);
+        } catch (JsonRpcException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return coalescer.coalesce(destination, method, params,
+                () -> send(template, requestIdGenerator.nextId(), params, null, deadline));
+    }
+
+    /**
+     * Publishes a request whose JSON-RPC reply is expected on {@code replyTo},
+     * correlated by {@code requestId}.
+     *
+     * @param timeout how long the caller waits for the reply; the request expires with it
+     */
+    public CompletableFuture<PublishReceipt> sendWithReplyTo(RpcDestination destination,
+                                                             String requestId,
+                                                             String method,
+                                                             Map<String, Object> params,
+                                                             String replyTo,
+                                                             Duration timeout) {
+        PublishTemplate template;
+        Instant deadline;
+        try {
+            template = methodRegistry.resolve(destination, method, params);
+            deadline = deadlines.deadline(template, timeout, Instant.now());
+        } catch (JsonRpcException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return send(template, requestId, params, replyTo, deadline);
+    }
+
+    public CompletableFuture<List<BatchItemResult>> sendWorldInfoBatch(List<BatchRequestItem> items) {
+        return sendWorldInfoBatch(items, null);
+    }
+
+    /**
+     * @param timeout deadline for every item, or {@code null} for each item's method's
+     */
+    public CompletableFuture<List<BatchItemResult>> sendWorldInfoBatch(List<BatchRequestItem> items,
+                                                                       Duration timeout) {
+        return sendBatch(RpcDestination.WORLD_INFO, items, timeout);
+    }
+
+    public CompletableFuture<List<BatchItemResult>> sendExtProviderBatch(List<BatchRequestItem> items) {
+        return sendExtProviderBatch(items, null);
+    }
+
+    public CompletableFuture<List<BatchItemResult>> sendExtProviderBatch(List<BatchRequestItem> items,
+                                                                         Duration timeout) {
+        return sendBatch(RpcDestination.EXT_PROVIDER, items, timeout);
+    }
+
+    public int getMaxBatchItems() {
+        return batchPublisher.getMaxItems();
+    }
+
+    /**
+     * Publishes on the publish executor. With confirms enabled the returned future
+     * completes only once the broker has acked the message; the publish thread is
+     * released as soon as the message is written. With partitions, a publish waits
+     * for the previous one sharing its partition key, see {@link PartitionRouter#inKeyOrder}.
+     */
+    private CompletableFuture<PublishReceipt> send(PublishTemplate template,
+                                                   String requestId,
+                                                   Map<String, Object> params,
+                                                   String replyTo,
+                                                   Instant deadline) {
+        long startNanos = System.nanoTime();
+        Context parent = Context.current();
+        return partitionRouter.inKeyOrder(requestId, template.method(), params,
+                        () -> submit(template, requestId, params, replyTo, deadline, parent, startNanos))
+                .whenComplete((receipt, throwable) ->
+                        rateLimiter.recordPublishLatency(System.nanoTime() - startNanos));
+    }
+
+    private CompletableFuture<PublishReceipt> submit(PublishTemplate template,
+                                                     String requestId,
+                                                     Map<String, Object> params,
+                                                     String replyTo,
+                                                     Instant deadline,
+                                                     Context parent,
+                                                     long startNanos) {
+        RpcDestination destination = template.destination();
+        try {
+            return CompletableFuture.supplyAsync(
+                            () -> publish(template, requestId, params, replyTo, deadline, parent, startNanos),
+                            template.executor())
+                    .thenCompose(Function.identity());
+        } catch (RejectedExecutionException e) {
+            publishLog.record(destination, null);
+            metrics.recordFailure(destination.exchange(), e, false);
+            if (publishLog.sample()) {
+                logger.warn("Publish executor saturated, rejecting {} request: method={}", destination.service(),
+                        template.method());
+            }
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private CompletableFuture<PublishReceipt> publish(PublishTemplate template,
+                                                      String requestId,
+                                                      Map<String, Object> params,
+                                                      String replyTo,
+                                                      Instant deadline,
+                                                      Context parent,
+                                                      long submittedNanos) {
+        RpcDestination destination = template.destination();
+        String method = template.method();
+        metrics.record(PublishMetrics.Stage.QUEUE, destination.exchange(), method, System.nanoTime() - submittedNanos);
+        if (RequestDeadlines.passed(deadline)) {
+            // waited out its deadline in the publish queue; nobody wants the answer any more
+            deadlines.expiredBeforePublish(method);
+            publishLog.record(destination, null);
+            return CompletableFuture.failedFuture(
+                    new TimeoutException("Deadline passed before publish: id=" + requestId));
+        }
+        PublishRoute route = route(template, requestId, params);
+        Span span = tracing.startPublishSpan(destination.spanName(), destination, method, parent, builder -> builder
+                .setAllAttributes(template.spanAttributes())
+                .setAttribute("messaging.destination", route.partition() >= 0
+                        ? destination.partitionQueue(route.partition())
+                        : destination.queue())
+                .setAttribute("messaging.rabbitmq.routing_key", route.routingKey()));
+
+        // calls wait on a reply queue of this instance, so they are never spooled
+        boolean spoolable = outbox.isEnabled() && replyTo == null;
+        CorrelationData correlation = null;
+        Message message = null;
+        try {
+            message = buildMessage(template, requestId, params, span, parent, replyTo, deadline);
+
+            if (spoolable && outbox.hasBacklog()) {
+                // keep order behind messages still waiting in the outbox
+                return completeSpan(destination, requestId, span,
+                        CompletableFuture.completedFuture(spool(route, requestId, message, span, null)));
+            }
+
+            span.addEvent("sending_message");
+
+            if (publishLog.sample()) {
+                logger.info("Sending {} JSON-RPC request: id={}, method={}, trace_id={}",
+                        destination.service(), requestId, method, span.getSpanContext().getTraceId());
+            }
+
+            // calls go to the node their reply queue is on; partitioned publishes to their key's node,
+            // so that a key's requests all reach the same partition queue
+            boolean keyed = partitionRouter.isEnabled() || brokerNodes.usesKey();
+            BrokerNodes.Node node = replyTo != null
+                    ? brokerNodes.primary()
+                    : brokerNodes.select(keyed ? partitionRouter.partitionKey(requestId, method, params) : null,
+                            partitionRouter.isEnabled());
+            span.setAttribute("messaging.rabbitmq.node", node.name());
+            if (confirmTracker.isEnabled()) {
+                correlation = confirmTracker.register(requestId);
+            }
+            CorrelationData outgoingCorrelation = correlation;
+            Message outgoing = message;
+            PublishConnectionPool.takeCheckoutNanos();
+            long sendStart = System.nanoTime();
+            brokerNodes.send(node, () ->
+                    rabbitTemplate.send(route.exchange(), route.routingKey(), outgoing, outgoingCorrelation));
+            long sentNanos = System.nanoTime();
+            long checkoutNanos = PublishConnectionPool.takeCheckoutNanos();
+            metrics.record(PublishMetrics.Stage.CHANNEL, destination.exchange(), method, checkoutNanos);
+            metrics.record(PublishMetrics.Stage.SEND, destination.exchange(), method,
+                    sentNanos - sendStart - checkoutNanos);
+            metrics.recordPublished(destination.exchange(), message.getBody().length);
+
+            span.addEvent("message_sent");
+
+            CompletableFuture<PublishReceipt> receipt = correlation != null
+                    ? confirmTracker.confirmation(correlation).thenApply(confirmedId -> {
+                        metrics.record(PublishMetrics.Stage.CONFIRM, destination.exchange(), method,
+                                System.nanoTime() - sentNanos);
+                        return PublishReceipt.confirmed(confirmedId);
+                    })
+                    : CompletableFuture.completedFuture(PublishReceipt.sent(requestId));
+            receipt = receipt.whenComplete((result, throwable) ->
+                    node.completed(throwable, System.nanoTime() - sendStart));
+
+            if (spoolable) {
+                receipt = receipt.exceptionally(throwable -> spool(route, requestId, outgoing, span, throwable));
+            }
+            return completeSpan(destination, requestId, span, receipt);
+
+        } catch (Exception e) {
+            if (correlation != null) {
+                confirmTracker.abandon(correlation);
+            }
+            if (message != null && spoolable && !(e instanceof RejectedExecutionException)) {
+                try {
+                    return completeSpan(destination, requestId, span,
+                            CompletableFuture.completedFuture(spool(route, requestId, message, span, e)));
+                } catch (RuntimeException spoolFailure) {
+                    e.addSuppressed(spoolFailure);
+                }
+            }
+            span.recordException(e);
+            span.setStatus(io.opentelemetry.api.trace.StatusCode.ERROR, e.getMessage());
+            span.end();
+            publishLog.record(destination, null);
+            metrics.recordFailure(destination.exchange(), e, false);
+            logger.error("Failed to send {} request", destination.service(), e);
+            throw new RuntimeException("Failed to send request", e);
+        }
+    }
+
+    private CompletableFuture<PublishReceipt> completeSpan(RpcDestination destination,
+                                                           String requestId,
+                                                           Span span,
+                                                           CompletableFuture<PublishReceipt> receipt) {
+        return receipt.whenComplete((result, throwable) -> {
+            publishLog.record(destination, throwable == null ? result.status() : null);
+            if (throwable != null) {
+                metrics.recordFailure(destination.exchange(), throwable, true);
+                span.recordException(throwable);
+                span.setStatus(io.opentelemetry.api.trace.StatusCode.ERROR, throwable.getMessage());
+                logger.error("{} request was not confirmed: id={}", destination.service(), requestId, throwable);
+            } else {
+                if (result.status() == PublishStatus.CONFIRMED) {
+                    span.addEvent("message_confirmed");
+                }
                 span.setStatus(io.opentelemetry.api.trace.StatusCode.OK);
-                
-                return requestId;
-                
-            } catch (Exception e) {
-                span.recordException(e);
-                span.setStatus(io.opentelemetry.api.trace.StatusCode.ERROR, e.getMessage());
-                logger.error("Failed to send world info request", e);
-                throw new RuntimeException("Failed to send request", e);
-            } finally {
-                span.end();
             }
+            span.end();
         });
     }
 
-    public CompletableFuture<String> sendExtProviderRequest(String method, Map<String, Object> params) {
-        return CompletableFuture.supplyAsync(() -> {
-            Span span = tracer.spanBuilder("ext_provider.rpc.send")
-                    .setAttribute("rpc.service", "world_info.ext_provider")
-                    .setAttribute("rpc.method", method)
-                    .setAttribute("messaging.system", "rabbitmq")
-                    .setAttribute("messaging.destination", RabbitMQConfig.EXT_PROVIDER_QUEUE)
-                    .setAttribute("messaging.destination_kind", "queue")
-                    .startSpan();
+    /**
+     * Writes the message to the outbox instead of failing the publish.
+     * {@code cause} is the broker failure, or {@code null} when spooling only to keep order.
+     */
+    private PublishReceipt spool(PublishRoute route, String requestId, Message message, Span span,
+                                 Throwable cause) {
+        outbox.append(route.exchange(), route.routingKey(), message);
+        span.addEvent("message_spooled");
+        if (cause != null) {
+            logger.warn("Spooled {} request to outbox after publish failure: id={}, cause={}",
+                    route.destination().service(), requestId, cause.getMessage());
+        }
+        return PublishReceipt.spooled(requestId);
+    }
+
+    /**
+     * Publishes every item through the {@link BatchPublisher}, under one span for the whole batch.
+     * Items that cannot be prepared fail individually; the others are still sent.
+     */
+    private CompletableFuture<List<BatchItemResult>> sendBatch(RpcDestination destination, List<BatchRequestItem> items,
+                                                               Duration timeout) {
+        Instant received = Instant.now();
+        try {
+            RequestDeadlines.validate(timeout);
+        } catch (JsonRpcException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        Context parent = Context.current();
+        try {
+            return CompletableFuture.supplyAsync(() -> publishBatch(destination, items, timeout, received, parent),
+                            priorityLanes.executor(null))
+                    .thenCompose(Function.identity());
+        } catch (RejectedExecutionException e) {
+            logger.warn("Publish executor saturated, rejecting {} batch of {} items", destination.service(), items.size());
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 
+    private CompletableFuture<List<BatchItemResult>> publishBatch(RpcDestination destination,
+                                                                  List<BatchRequestItem> items,
+                                                                  Duration timeout,
+                                                                  Instant received,
+                                                                  Context parent) {
+        Span span = tracing.startPublishSpan(destination.spanName() + "_batch", destination, null, parent,
+                builder -> builder
+                        .setAttribute("rpc.service", destination.service())
+                        .setAttribute("messaging.system", "rabbitmq")
+                        .setAttribute("messaging.destination", destination.queue())
+                        .setAttribute("messaging.destination_kind", "queue")
+                        .setAttribute("messaging.batch.message_count", items.size()));
+
+        List<CompletableFuture<BatchItemResult>> results = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            int index = i;
+            BatchRequestItem item = items.get(i);
+            String requestId = requestIdGenerator.nextId();
+            if (item == null || item.method() == null || item.method().isBlank()) {
+                results.add(CompletableFuture.completedFuture(
+                        BatchItemResult.failed(index, null, null, "method is required")));
+                continue;
+            }
             try {
-                String requestId = UUID.randomUUID().toString();
-                
-                JsonRpcRequest request = JsonRpcRequest.of(requestId, method, params)
-                        .withTracing(span.getSpanContext().getTraceId(), span.getSpanContext().getSpanId());
-
-                Message message = MessageBuilder
-                        .withBody(serializeRequest(request))
-                        .setContentType(MessageProperties.CONTENT_TYPE_JSON)
-                        .setHeader("trace_id", span.getSpanContext().getTraceId())
-                        .setHeader("span_id", span.getSpanContext().getSpanId())
-                        .setTimestamp(Date.from(Instant.now()))
-                        .build();
-
-                span.addEvent("sending_message");
-                
-                logger.info("Sending ext provider JSON-RPC request: id={}, method={}, trace_id={}", 
-                           requestId, method, span.getSpanContext().getTraceId());
-
-                rabbitTemplate.send(RabbitMQConfig.EXT_PROVIDER_EXCHANGE, 
-                                  RabbitMQConfig.EXT_PROVIDER_ROUTING_KEY, 
-                                  message);
-
-                span.addEvent("message_sent");
-                span.setStatus(io.opentelemetry.api.trace.StatusCode.OK);
-                
-                return requestId;
-                
+                Map<String, Object> params = item.params() != null ? item.params() : Map.of();
+                PublishTemplate template = methodRegistry.resolve(destination, item.method(), params);
+                Instant deadline = deadlines.deadline(template, timeout, received);
+                if (RequestDeadlines.passed(deadline)) {
+                    deadlines.expiredBeforePublish(item.method());
+                    results.add(CompletableFuture.completedFuture(BatchItemResult.failed(index, requestId,
+                            item.method(), "Deadline passed before publish")));
+                    continue;
+                }
+                Message message = buildMessage(template, requestId, params, span, parent, null, deadline);
+                PublishRoute route = route(template, requestId, params);
+                results.add(batchPublisher.enqueue(route, requestId, message)
+                        .handle((receipt, throwable) -> {
+                            if (throwable != null) {
+                                metrics.recordFailure(destination.exchange(), throwable, false);
+                                return BatchItemResult.failed(index, requestId, item.method(), throwable.getMessage());
+                            }
+                            metrics.recordPublished(destination.exchange(), message.getBody().length);
+                            return BatchItemResult.published(index, item.method(), receipt);
+                        }));
             } catch (Exception e) {
-                span.recordException(e);
-                span.setStatus(io.opentelemetry.api.trace.StatusCode.ERROR, e.getMessage());
-                logger.error("Failed to send ext provider request", e);
-                throw new RuntimeException("Failed to send request", e);
-            } finally {
-                span.end();
+                results.add(CompletableFuture.completedFuture(
+                        BatchItemResult.failed(index, requestId, item.method(), e.getMessage())));
             }
-        });
+        }
+
+        if (publishLog.sample()) {
+            logger.info("Sending {} JSON-RPC batch: items={}, trace_id={}",
+                    destination.service(), items.size(), span.getSpanContext().getTraceId());
+        }
+        span.addEvent("batch_enqueued");
+
+        return CompletableFuture.allOf(results.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> {
+                    List<BatchItemResult> outcome = results.stream().map(CompletableFuture::join).toList();
+                    outcome.forEach(result -> publishLog.record(destination, result.status()));
+                    long failed = outcome.stream().filter(result -> !result.success()).count();
+                    span.setAttribute("messaging.batch.failed_count", failed);
+                    span.setStatus(failed == 0
+                            ? io.opentelemetry.api.trace.StatusCode.OK
+                            : io.opentelemetry.api.trace.StatusCode.ERROR);
+                    span.end();
+                    return outcome;
+                });
     }
 
-    private byte[] serializeRequest(JsonRpcRequest request) {
-        try {
-            return rabbitTemplate.getMessageConverter()
-                    .toMessage(request, new MessageProperties())
-                    .getBody();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to serialize request", e);
+    /**
+     * The template's precomputed route, unless partitioning picks one per message.
+     */
+    private PublishRoute route(PublishTemplate template, String requestId, Map<String, Object> params) {
+        if (!partitionRouter.isEnabled()) {
+            return template.route();
+        }
+        return priorityLanes.route(
+                partitionRouter.route(template.destination(), requestId, template.method(), params),
+                template.method());
+    }
+
+    /**
+     * Builds the one {@link Message} of a publish: the body comes straight from
+     * {@link JsonRpcRequestWriter} in the destination's or method's {@link WireFormat},
+     * compressed when {@link PayloadCompressor} says so, with the params swapped for a
+     * {@link ClaimCheck} reference when it is still too large, and the properties are set directly.
+     * Trace context goes where {@link PublishTracing} puts it for the configured mode, and a
+     * deadline goes into both the body and the message's expiration.
+     */
+    private Message buildMessage(PublishTemplate template, String requestId, Map<String, Object> params,
+                                 Span span, Context parent, String replyTo, Instant deadline) {
+        RpcDestination destination = template.destination();
+        String method = template.method();
+        long buildStart = System.nanoTime();
+        JsonRpcRequest request = JsonRpcRequest.of(requestId, method, params);
+        if (deadline != null) {
+            request = request.withDeadline(deadline);
+        }
+        if (tracing.tracingInBody()) {
+            request = request.withTracing(span.getSpanContext().getTraceId(), span.getSpanContext().getSpanId());
+        }
+
+        WireFormat format = template.format();
+        MessageProperties properties = template.newProperties();
+        tracing.inject(span, parent, properties);
+        properties.setTimestamp(Date.from(request.timestamp()));
+        if (deadline != null) {
+            RequestDeadlines.apply(properties, method, deadline);
+        }
+        if (replyTo != null) {
+            properties.setReplyTo(replyTo);
+            properties.setCorrelationId(requestId);
+        }
+        long serializeStart = System.nanoTime();
+        PayloadCompressor.EncodedBody body = requestWriter.write(request, format, compressor);
+        if (claimCheck.exceeds(body.body().length)) {
+            ClaimCheck.Offloaded offloaded = claimCheck.offload(request);
+            if (offloaded != null) {
+                body = requestWriter.write(offloaded.request(), format, compressor);
+                properties.setHeader(ClaimCheck.HEADER, offloaded.sha256());
+            }
+        }
+        long serializeNanos = System.nanoTime() - serializeStart;
+        if (body.contentEncoding() != null) {
+            properties.setContentEncoding(body.contentEncoding());
         }
+        Message message = new Message(body.body(), properties);
+        metrics.record(PublishMetrics.Stage.SERIALIZE, destination.exchange(), method, serializeNanos);
+        metrics.record(PublishMetrics.Stage.BUILD, destination.exchange(), method,
+                System.nanoTime() - buildStart - serializeNanos);
+        return message;
     }
 }
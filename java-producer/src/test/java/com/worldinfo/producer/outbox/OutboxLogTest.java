@@ -0,0 +1,155 @@
+package com.worldinfo.producer.outbox;
+
+import static com.worldinfo.producer.outbox.OutboxSegmentTest.bytes;
+import static com.worldinfo.producer.outbox.OutboxSegmentTest.overwrite;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.worldinfo.producer.config.OutboxProperties.Fsync;
+
+class OutboxLogTest {
+
+    private static final int SEGMENT_SIZE = 64;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void resumesFromTheCheckpointAfterReopening() throws IOException {
+        try (OutboxLog log = open(1024)) {
+            append(log, "a", "b", "c");
+            List<OutboxLog.Record> records = log.read(10);
+            assertThat(payloads(records)).containsExactly("a", "b", "c");
+            log.commit(records.get(0).nextOffset());
+        }
+
+        try (OutboxLog log = open(1024)) {
+            assertThat(payloads(log.read(10))).containsExactly("b", "c");
+            assertThat(log.hasBacklog()).isTrue();
+        }
+    }
+
+    @Test
+    void recoversAfterACrashThatTornTheLastRecord() throws IOException {
+        long torn;
+        try (OutboxLog log = open(1024)) {
+            append(log, "a", "b");
+            torn = log.writeOffset();
+            append(log, "c");
+        }
+        // payload byte of "c" changed after its length was written: a partial write
+        overwrite(directory.resolve(OutboxSegment.fileName(0)), torn + OutboxSegment.HEADER_SIZE, bytes("X"));
+
+        try (OutboxLog log = open(1024)) {
+            assertThat(log.writeOffset()).isEqualTo(torn);
+            append(log, "d");
+            assertThat(payloads(log.read(10))).containsExactly("a", "b", "d");
+        }
+    }
+
+    @Test
+    void rollsToANewSegmentWhenTheActiveOneIsFull() throws IOException {
+        try (OutboxLog log = open(1024)) {
+            // 8-byte header + 20-byte payload: two records per 64-byte segment
+            for (int i = 0; i < 5; i++) {
+                log.append(record(i));
+            }
+            assertThat(log.segmentCount()).isEqualTo(3);
+
+            List<OutboxLog.Record> records = log.read(10);
+            assertThat(records).hasSize(5);
+            assertThat(records.get(2).offset()).isEqualTo(SEGMENT_SIZE);
+            for (int i = 0; i < 5; i++) {
+                assertThat(records.get(i).payload()).isEqualTo(record(i));
+            }
+
+            log.commit(records.get(3).offset());
+            assertThat(log.segmentCount()).isEqualTo(2);
+            assertThat(segmentFiles()).hasSize(2);
+            assertThat(log.read(10)).extracting(OutboxLog.Record::payload).containsExactly(record(3), record(4));
+        }
+    }
+
+    @Test
+    void dropsTheOldestUndrainedSegmentsPastTheSizeLimit() throws IOException {
+        try (OutboxLog log = open(2 * SEGMENT_SIZE)) {
+            for (int i = 0; i < 8; i++) {
+                log.append(record(i));
+            }
+
+            assertThat(log.segmentCount()).isEqualTo(2);
+            assertThat(segmentFiles()).hasSize(2);
+            assertThat(log.droppedSegments()).isEqualTo(2);
+            assertThat(log.readOffset()).isEqualTo(2L * SEGMENT_SIZE);
+            assertThat(log.read(10)).extracting(OutboxLog.Record::payload)
+                    .containsExactly(record(4), record(5), record(6), record(7));
+        }
+    }
+
+    @Test
+    void skipsTheRestOfASealedSegmentPastADamagedRecord() throws IOException {
+        try (OutboxLog log = open(1024)) {
+            for (int i = 0; i < 4; i++) {
+                log.append(record(i));
+            }
+            // damage the first record of the first, sealed segment
+            overwrite(directory.resolve(OutboxSegment.fileName(0)), OutboxSegment.HEADER_SIZE, bytes("X"));
+
+            List<OutboxLog.Record> records = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> log.read(10));
+
+            assertThat(records).extracting(OutboxLog.Record::payload).containsExactly(record(2), record(3));
+            assertThat(log.damagedSegments()).isEqualTo(1);
+            assertThat(log.readOffset()).isEqualTo(SEGMENT_SIZE);
+        }
+    }
+
+    @Test
+    void rollsPastADamagedRecordInTheActiveSegment() throws IOException {
+        try (OutboxLog log = open(1024)) {
+            log.append(record(0));
+            overwrite(directory.resolve(OutboxSegment.fileName(0)), OutboxSegment.HEADER_SIZE, bytes("X"));
+
+            assertThat(assertTimeoutPreemptively(Duration.ofSeconds(5), () -> log.read(10))).isEmpty();
+            assertThat(log.damagedSegments()).isEqualTo(1);
+            assertThat(log.hasBacklog()).isFalse();
+
+            log.append(record(1));
+            assertThat(log.read(10)).extracting(OutboxLog.Record::payload).containsExactly(record(1));
+        }
+    }
+
+    private OutboxLog open(long maxBytes) throws IOException {
+        return OutboxLog.open(directory, SEGMENT_SIZE, maxBytes, Fsync.NEVER);
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".log")).toList();
+        }
+    }
+
+    private static void append(OutboxLog log, String... payloads) throws IOException {
+        for (String payload : payloads) {
+            log.append(bytes(payload));
+        }
+    }
+
+    private static List<String> payloads(List<OutboxLog.Record> records) {
+        return records.stream().map(record -> new String(record.payload(), StandardCharsets.UTF_8)).toList();
+    }
+
+    private static byte[] record(int index) {
+        return String.format("record-%013d", index).getBytes(StandardCharsets.UTF_8);
+    }
+}
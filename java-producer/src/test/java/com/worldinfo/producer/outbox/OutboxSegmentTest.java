@@ -0,0 +1,110 @@
+package com.worldinfo.producer.outbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class OutboxSegmentTest {
+
+    private static final int CAPACITY = 256;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsBackAppendedRecordsInOrder() throws IOException {
+        OutboxSegment segment = OutboxSegment.create(directory, 0, CAPACITY);
+
+        int first = segment.append(bytes("first"));
+        int second = segment.append(bytes("second"));
+
+        assertThat(first).isZero();
+        assertThat(second).isEqualTo(OutboxSegment.HEADER_SIZE + 5);
+        assertThat(segment.read(first)).isEqualTo(bytes("first"));
+        assertThat(segment.read(second)).isEqualTo(bytes("second"));
+        assertThat(segment.read(segment.committed())).isNull();
+        segment.close();
+    }
+
+    @Test
+    void refusesRecordsThatDoNotFit() throws IOException {
+        OutboxSegment segment = OutboxSegment.create(directory, 0, CAPACITY);
+
+        // leaves room for exactly one 10-byte record
+        assertThat(segment.append(new byte[CAPACITY - 2 * OutboxSegment.HEADER_SIZE - 10])).isZero();
+        assertThat(segment.append(new byte[10])).isEqualTo(CAPACITY - OutboxSegment.HEADER_SIZE - 10);
+        assertThat(segment.append(new byte[1])).isEqualTo(-1);
+        segment.close();
+    }
+
+    @Test
+    void recoversEveryIntactRecordAfterReopening() throws IOException {
+        OutboxSegment segment = OutboxSegment.create(directory, 512, CAPACITY);
+        segment.append(bytes("one"));
+        segment.append(bytes("two"));
+        int committed = segment.committed();
+        segment.close();
+
+        OutboxSegment recovered = OutboxSegment.recover(directory.resolve(OutboxSegment.fileName(512)), CAPACITY);
+
+        assertThat(recovered.baseOffset()).isEqualTo(512);
+        assertThat(recovered.committed()).isEqualTo(committed);
+        assertThat(recovered.read(0)).isEqualTo(bytes("one"));
+        recovered.close();
+    }
+
+    @Test
+    void recoveryCutsTheLogAtTheFirstRecordFailingItsCrc() throws IOException {
+        OutboxSegment segment = OutboxSegment.create(directory, 0, CAPACITY);
+        segment.append(bytes("kept"));
+        int damaged = segment.append(bytes("damaged"));
+        segment.append(bytes("lost"));
+        segment.close();
+        Path path = directory.resolve(OutboxSegment.fileName(0));
+        overwrite(path, damaged + OutboxSegment.HEADER_SIZE, bytes("X"));
+
+        OutboxSegment recovered = OutboxSegment.recover(path, CAPACITY);
+
+        assertThat(recovered.committed()).isEqualTo(damaged);
+        assertThat(recovered.read(0)).isEqualTo(bytes("kept"));
+        assertThat(recovered.read(damaged)).isNull();
+        // the next append reuses the space of the damaged tail
+        assertThat(recovered.append(bytes("after"))).isEqualTo(damaged);
+        assertThat(recovered.read(damaged)).isEqualTo(bytes("after"));
+        recovered.close();
+    }
+
+    @Test
+    void recoveryDropsATornWriteWhoseLengthRunsPastTheSegment() throws IOException {
+        OutboxSegment segment = OutboxSegment.create(directory, 0, CAPACITY);
+        segment.append(bytes("kept"));
+        int torn = segment.committed();
+        segment.close();
+        Path path = directory.resolve(OutboxSegment.fileName(0));
+        overwrite(path, torn, ByteBuffer.allocate(4).putInt(0, CAPACITY).array());
+
+        OutboxSegment recovered = OutboxSegment.recover(path, CAPACITY);
+
+        assertThat(recovered.committed()).isEqualTo(torn);
+        assertThat(recovered.read(torn)).isNull();
+        recovered.close();
+    }
+
+    static void overwrite(Path path, long position, byte[] data) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(data), position);
+        }
+    }
+
+    static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
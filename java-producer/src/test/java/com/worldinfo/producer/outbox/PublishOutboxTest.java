@@ -0,0 +1,141 @@
+package com.worldinfo.producer.outbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.util.unit.DataSize;
+
+import com.worldinfo.producer.config.OutboxProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PublishOutboxTest {
+
+    private static final String POISON = "poison";
+
+    @TempDir
+    Path directory;
+
+    private final RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+    private final List<String> sent = new CopyOnWriteArrayList<>();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private PublishOutbox outbox;
+
+    @BeforeEach
+    void brokerNacksOnlyThePoisonMessage() {
+        ConnectionFactory connectionFactory = mock(ConnectionFactory.class);
+        when(connectionFactory.isPublisherConfirms()).thenReturn(true);
+        when(rabbitTemplate.getConnectionFactory()).thenReturn(connectionFactory);
+        RabbitOperations operations = mock(RabbitOperations.class);
+        doAnswer(invocation -> {
+            Message message = invocation.getArgument(2);
+            CorrelationData correlation = invocation.getArgument(3);
+            String id = message.getMessageProperties().getMessageId();
+            sent.add(id);
+            correlation.getFuture().complete(new CorrelationData.Confirm(!POISON.equals(id), null));
+            return null;
+        }).when(operations).send(anyString(), anyString(), any(Message.class), nullable(CorrelationData.class));
+        when(rabbitTemplate.invoke(any())).thenAnswer(invocation ->
+                invocation.<RabbitOperations.OperationsCallback<?>>getArgument(0).doInRabbit(operations));
+    }
+
+    @AfterEach
+    void stop() throws Exception {
+        if (outbox != null) {
+            outbox.destroy();
+        }
+    }
+
+    @Test
+    void discardsAMessageTheBrokerKeepsNackingAndDrainsTheRest() {
+        outbox = outbox(1024);
+        outbox.append("world_info", "world_info.request", message(POISON));
+        outbox.append("world_info", "world_info.request", message("good"));
+
+        awaitDrained();
+
+        assertThat(sent.stream().filter(POISON::equals)).hasSize(3);
+        assertThat(sent).contains("good");
+        assertThat(registry.get("producer.outbox.discarded").tag("reason", "nacked").functionCounter().count())
+                .isEqualTo(1);
+        assertThat(registry.get("producer.outbox.replayed").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void discardsARecordThatDoesNotDecode() throws IOException {
+        try (OutboxLog log = OutboxLog.open(directory, 1024, DataSize.ofMegabytes(1).toBytes(),
+                OutboxProperties.Fsync.NEVER)) {
+            log.append("not a record".getBytes(StandardCharsets.UTF_8));
+        }
+        outbox = outbox(1024);
+        outbox.append("world_info", "world_info.request", message("good"));
+
+        awaitDrained();
+
+        assertThat(sent).containsExactly("good");
+        assertThat(registry.get("producer.outbox.discarded").tag("reason", "unreadable").functionCounter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void rejectsSegmentsTooSmallToBeUseful() {
+        assertThatThrownBy(() -> outbox(512))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("between 1KB and 2GB");
+    }
+
+    private PublishOutbox outbox(long segmentSize) {
+        PublishOutbox created = new PublishOutbox(new OutboxProperties(true, directory.toString(),
+                DataSize.ofBytes(segmentSize), OutboxProperties.Fsync.NEVER, 1000, DataSize.ofMegabytes(1), 100,
+                Duration.ofSeconds(1), 3, Duration.ofMillis(200)), rabbitTemplate);
+        created.bindTo(registry);
+        return created;
+    }
+
+    private void awaitDrained() {
+        await(() -> !outbox.hasBacklog());
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition within 10s").isLessThan(deadline);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+        }
+    }
+
+    private static Message message(String id) {
+        MessageProperties properties = new MessageProperties();
+        properties.setMessageId(id);
+        return new Message(id.getBytes(StandardCharsets.UTF_8), properties);
+    }
+}
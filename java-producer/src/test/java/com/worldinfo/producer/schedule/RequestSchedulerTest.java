@@ -0,0 +1,181 @@
+package com.worldinfo.producer.schedule;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.worldinfo.producer.config.RpcDestination;
+import com.worldinfo.producer.config.ScheduleProperties;
+import com.worldinfo.producer.model.BatchItemResult;
+import com.worldinfo.producer.model.BatchRequestItem;
+import com.worldinfo.producer.model.Schedule;
+import com.worldinfo.producer.model.ScheduleRequest;
+import com.worldinfo.producer.service.MethodRegistry;
+import com.worldinfo.producer.service.WorldInfoProducerService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RequestSchedulerTest {
+
+    private static final long TICK_MILLIS = 10;
+    private static final long INTERVAL_MILLIS = 500;
+
+    @TempDir
+    Path directory;
+
+    private final AtomicLong clock = new AtomicLong(Instant.parse("2026-01-01T00:00:00Z").toEpochMilli());
+    private final List<Long> sentAt = new ArrayList<>();
+    private final WorldInfoProducerService producerService = mock(WorldInfoProducerService.class);
+    private final MethodRegistry methodRegistry = mock(MethodRegistry.class);
+    private SimpleMeterRegistry registry;
+    private RequestScheduler scheduler;
+
+    @BeforeEach
+    void recordSends() {
+        when(producerService.getMaxBatchItems()).thenReturn(100);
+        when(producerService.sendWorldInfoBatch(anyList())).thenAnswer(invocation -> {
+            List<BatchRequestItem> items = invocation.getArgument(0);
+            items.forEach(item -> sentAt.add(clock.get()));
+            return CompletableFuture.completedFuture(items.stream()
+                    .map(item -> BatchItemResult.failed(0, "", item.method(), "not sent"))
+                    .toList());
+        });
+    }
+
+    @AfterEach
+    void stop() {
+        if (scheduler != null) {
+            scheduler.destroy();
+        }
+    }
+
+    @Test
+    void recurringScheduleRunsAtAFixedRate() {
+        scheduler = scheduler();
+        long firstRun = clock.get() + INTERVAL_MILLIS;
+        scheduler.register(recurring(firstRun));
+
+        advanceAndTick(INTERVAL_MILLIS - TICK_MILLIS);
+        assertThat(sentAt).isEmpty();
+        for (int run = 0; run < 3; run++) {
+            advanceAndTick(TICK_MILLIS);
+            advanceAndTick(INTERVAL_MILLIS - TICK_MILLIS);
+        }
+
+        assertThat(sentAt).containsExactly(firstRun, firstRun + INTERVAL_MILLIS, firstRun + 2 * INTERVAL_MILLIS);
+        assertThat(skipped()).isZero();
+    }
+
+    @Test
+    void recurringRunsMissedWhileBehindAreSkipped() {
+        scheduler = scheduler();
+        long firstRun = clock.get() + INTERVAL_MILLIS;
+        scheduler.register(recurring(firstRun));
+        advanceAndTick(INTERVAL_MILLIS);
+
+        // the next tick comes one and a half intervals late: the overdue run goes out then, the one after is dropped
+        advanceAndTick(INTERVAL_MILLIS * 5 / 2);
+        assertThat(sentAt).containsExactly(firstRun, firstRun + 5 * INTERVAL_MILLIS / 2);
+        assertThat(skipped()).isEqualTo(1);
+
+        advanceAndTick(INTERVAL_MILLIS / 2 - TICK_MILLIS);
+        assertThat(sentAt).hasSize(2);
+        advanceAndTick(TICK_MILLIS);
+        assertThat(sentAt).last().isEqualTo(firstRun + 3 * INTERVAL_MILLIS);
+    }
+
+    @Test
+    void restoreSkipsRecurringRunsMissedWhileStopped() {
+        RequestScheduler first = scheduler();
+        long firstRun = clock.get() + INTERVAL_MILLIS;
+        Schedule registered = first.register(recurring(firstRun));
+        first.destroy();
+
+        // stopped through four runs, restarting just after the last of them
+        clock.addAndGet(4 * INTERVAL_MILLIS + 50);
+        scheduler = scheduler();
+
+        Schedule restored = scheduler.get(registered.id());
+        assertThat(restored).isNotNull();
+        assertThat(restored.nextRunAt()).isEqualTo(Instant.ofEpochMilli(firstRun + 4 * INTERVAL_MILLIS));
+        assertThat(skipped()).isEqualTo(4);
+
+        // nothing fires on the first tick, then one run per interval
+        scheduler.tick();
+        advanceAndTick(INTERVAL_MILLIS - 50 - TICK_MILLIS);
+        assertThat(sentAt).isEmpty();
+        advanceAndTick(TICK_MILLIS);
+        advanceAndTick(INTERVAL_MILLIS);
+        assertThat(sentAt).containsExactly(firstRun + 4 * INTERVAL_MILLIS, firstRun + 5 * INTERVAL_MILLIS);
+        assertThat(skipped()).isEqualTo(4);
+    }
+
+    @Test
+    void restoreKeepsOneShotSchedulesThatNeverRan() {
+        RequestScheduler first = scheduler();
+        Schedule registered = first.register(new ScheduleRequest(RpcDestination.WORLD_INFO, "getTimeInfo",
+                Map.of("timezone", "UTC"), Instant.ofEpochMilli(clock.get()).plusSeconds(3600), null, null));
+        first.destroy();
+        clock.addAndGet(Duration.ofMinutes(10).toMillis());
+
+        scheduler = scheduler();
+
+        Schedule restored = scheduler.get(registered.id());
+        assertThat(restored).isNotNull();
+        assertThat(restored.nextRunAt()).isEqualTo(registered.nextRunAt());
+    }
+
+    @Test
+    void oneShotScheduleRunsOnceAndIsRemoved() {
+        scheduler = scheduler();
+        long runAt = clock.get() + 2 * TICK_MILLIS;
+        Schedule registered = scheduler.register(new ScheduleRequest(RpcDestination.WORLD_INFO, "getTimeInfo",
+                Map.of("timezone", "UTC"), Instant.ofEpochMilli(runAt), null, null));
+
+        advanceAndTick(2 * TICK_MILLIS);
+        advanceAndTick(INTERVAL_MILLIS);
+
+        assertThat(sentAt).containsExactly(runAt);
+        assertThat(scheduler.get(registered.id())).isNull();
+    }
+
+    private ScheduleRequest recurring(long firstRun) {
+        return new ScheduleRequest(RpcDestination.WORLD_INFO, "getTimeInfo", Map.of("timezone", "UTC"),
+                Instant.ofEpochMilli(firstRun), INTERVAL_MILLIS, null);
+    }
+
+    private void advanceAndTick(long millis) {
+        clock.addAndGet(millis);
+        scheduler.tick();
+    }
+
+    private double skipped() {
+        return registry.get("producer.schedules.runs").tag("result", "skipped").functionCounter().count();
+    }
+
+    private RequestScheduler scheduler() {
+        ScheduleProperties properties = new ScheduleProperties(true, Duration.ofMillis(TICK_MILLIS), 64, 3, 1000,
+                Duration.ofMillis(INTERVAL_MILLIS), directory.resolve("schedules.bin").toString(), 5000);
+        RequestScheduler created = new RequestScheduler(properties, producerService, methodRegistry,
+                new ObjectMapper().findAndRegisterModules(), clock::get, false);
+        registry = new SimpleMeterRegistry();
+        created.bindTo(registry);
+        return created;
+    }
+}
@@ -0,0 +1,127 @@
+package com.worldinfo.producer.schedule;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class TimingWheelTest {
+
+    // wheel size 4, 3 levels: level 0 spans 4 ticks, level 1 16, level 2 64
+    private static final int WHEEL_SIZE = 4;
+    private static final int LEVELS = 3;
+    private static final long START = 170_000_000_003L;
+
+    @Test
+    void firesTimersOnTheirTickAcrossEveryLevel() {
+        TimingWheel<Long> wheel = new TimingWheel<>(WHEEL_SIZE, LEVELS, START);
+        long[] deadlines = {1, 3, 4, 5, 15, 16, 17, 40, 63};
+        for (long deadline : deadlines) {
+            wheel.schedule(START + deadline, START + deadline);
+        }
+
+        Map<Long, Long> firedAt = stepTo(wheel, START + 64);
+
+        assertThat(firedAt).hasSize(deadlines.length);
+        firedAt.forEach((deadline, tick) -> assertThat(tick).as("timer due at %d", deadline).isEqualTo(deadline));
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void randomTimersFireExactlyOnTimeWhenSteppedOrJumped() {
+        Random random = new Random(42);
+        for (int trial = 0; trial < 50; trial++) {
+            TimingWheel<Long> wheel = new TimingWheel<>(WHEEL_SIZE, LEVELS, START);
+            List<Long> deadlines = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                long deadline = START + 1 + random.nextInt(300);
+                deadlines.add(deadline);
+                wheel.schedule(deadline, deadline);
+            }
+
+            List<Long> fired = new ArrayList<>();
+            long tick = START;
+            while (tick < START + 301) {
+                tick += 1 + random.nextInt(20);
+                long now = tick;
+                wheel.advance(now, deadline -> {
+                    assertThat(deadline).as("fired early").isLessThanOrEqualTo(now);
+                    fired.add(deadline);
+                });
+                assertThat(fired).as("every due timer fired by tick %d", now)
+                        .containsAll(deadlines.stream().filter(deadline -> deadline <= now).toList());
+            }
+            assertThat(fired).hasSameSizeAs(deadlines);
+        }
+    }
+
+    @Test
+    void timersBeyondTheTopLevelWaitUntilTheirTick() {
+        TimingWheel<Long> wheel = new TimingWheel<>(WHEEL_SIZE, LEVELS, START);
+        long[] deadlines = {64, 65, 200, 1000};
+        for (long deadline : deadlines) {
+            wheel.schedule(START + deadline, START + deadline);
+        }
+
+        Map<Long, Long> firedAt = stepTo(wheel, START + 1000);
+
+        assertThat(firedAt).hasSize(deadlines.length);
+        firedAt.forEach((deadline, tick) -> assertThat(tick).as("timer due at %d", deadline).isEqualTo(deadline));
+    }
+
+    @Test
+    void timersAlreadyDueFireOnTheNextAdvance() {
+        TimingWheel<Long> wheel = new TimingWheel<>(WHEEL_SIZE, LEVELS, START);
+        wheel.schedule(START - 10, START - 10);
+        wheel.schedule(START, START);
+
+        List<Long> fired = new ArrayList<>();
+        wheel.advance(START, fired::add);
+
+        assertThat(fired).containsExactly(START - 10, START);
+    }
+
+    @Test
+    void cancelledTimersNeverFire() {
+        TimingWheel<Long> wheel = new TimingWheel<>(WHEEL_SIZE, LEVELS, START);
+        TimingWheel.Timeout<Long> soon = wheel.schedule(START + 2, START + 2);
+        TimingWheel.Timeout<Long> cascaded = wheel.schedule(START + 30, START + 30);
+        TimingWheel.Timeout<Long> overflow = wheel.schedule(START + 500, START + 500);
+        wheel.schedule(START + 31, START + 31);
+
+        wheel.cancel(soon);
+        // the level 2 bucket holding START + 30 has moved down by now
+        Map<Long, Long> firedBefore = stepTo(wheel, START + 29);
+        wheel.cancel(cascaded);
+        wheel.cancel(overflow);
+        wheel.cancel(overflow);
+        Map<Long, Long> firedAfter = stepTo(wheel, START + 600);
+
+        assertThat(firedBefore).isEmpty();
+        assertThat(firedAfter).containsOnlyKeys(START + 31);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void rejectsASingleLevel() {
+        assertThatThrownBy(() -> new TimingWheel<>(WHEEL_SIZE, 1, START))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TimingWheel<>(3, LEVELS, START))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Map<Long, Long> stepTo(TimingWheel<Long> wheel, long end) {
+        Map<Long, Long> firedAt = new HashMap<>();
+        for (long tick = START; tick <= end; tick++) {
+            long now = tick;
+            wheel.advance(now, deadline -> firedAt.put(deadline, now));
+        }
+        return firedAt;
+    }
+}
@@ -0,0 +1,271 @@
+package com.worldinfo.producer.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+
+import com.worldinfo.producer.config.BrokerProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class BrokerNodesTest {
+
+    private static final int FAILURE_THRESHOLD = 3;
+    private static final Duration SLOW_THRESHOLD = Duration.ofSeconds(2);
+    private static final Duration EJECTION_TIME = Duration.ofSeconds(10);
+    private static final Duration MAX_EJECTION_TIME = Duration.ofMinutes(1);
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+    private BrokerNodes brokerNodes;
+
+    @AfterEach
+    void close() {
+        if (brokerNodes != null) {
+            brokerNodes.destroy();
+        }
+    }
+
+    @Test
+    void consecutiveFailuresEjectANode() {
+        brokerNodes = nodes(BrokerProperties.Selection.LEAST_OUTSTANDING, 50, "a", "b", "c");
+
+        fail(node("b"), FAILURE_THRESHOLD - 1);
+        publish(node("b"), Duration.ofMillis(5));
+        fail(node("b"), FAILURE_THRESHOLD - 1);
+        assertThat(selectable()).containsExactlyInAnyOrder("a", "b", "c");
+
+        fail(node("b"), 1);
+        assertThat(selectable()).containsExactlyInAnyOrder("a", "c");
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        brokerNodes.bindTo(registry);
+        assertThat(registry.get("producer.broker.node.ejections").tag("node", "b").functionCounter().count())
+                .isEqualTo(1);
+        assertThat(registry.get("producer.broker.node.admitted").tag("node", "b").gauge().value()).isZero();
+    }
+
+    @Test
+    void failuresThatSayNothingAboutTheNodeDoNotEjectIt() {
+        brokerNodes = nodes(BrokerProperties.Selection.LEAST_OUTSTANDING, 50, "a", "b");
+        BrokerNodes.Node node = node("b");
+
+        for (int i = 0; i < FAILURE_THRESHOLD * 2; i++) {
+            brokerNodes.send(node, () -> {
+            });
+            node.completed(new RejectedExecutionException("window full"), 0);
+        }
+
+        assertThat(selectable()).containsExactlyInAnyOrder("a", "b");
+    }
+
+    @Test
+    void slowAverageLatencyEjectsANode() {
+        brokerNodes = nodes(BrokerProperties.Selection.LEAST_OUTSTANDING, 50, "a", "b", "c");
+
+        BrokerNodes.Node node = node("c");
+
+        // the average moves a fifth of the way to each sample: one slow publish is not enough
+        publish(node, Duration.ofMillis(10));
+        publish(node, Duration.ofSeconds(5));
+        assertThat(selectable()).contains("c");
+
+        for (int i = 0; i < 5; i++) {
+            publish(node, Duration.ofSeconds(5));
+        }
+        assertThat(selectable()).containsExactlyInAnyOrder("a", "b");
+    }
+
+    @Test
+    void ejectedNodeIsReadmittedWithACleanSlate() {
+        brokerNodes = nodes(BrokerProperties.Selection.LEAST_OUTSTANDING, 50, "a", "b", "c");
+        BrokerNodes.Node node = node("a");
+
+        fail(node, FAILURE_THRESHOLD);
+        advance(EJECTION_TIME.minusMillis(1));
+        assertThat(selectable()).doesNotContain("a");
+
+        advance(Duration.ofMillis(1));
+        assertThat(selectable()).contains("a");
+        // its failure count started over, so one more failure does not eject it again
+        fail(node, FAILURE_THRESHOLD - 1);
+        assertThat(selectable()).contains("a");
+    }
+
+    @Test
+    void repeatedEjectionsLastLongerUpToTheMaximum() {
+        brokerNodes = nodes(BrokerProperties.Selection.LEAST_OUTSTANDING, 50, "a", "b", "c");
+        BrokerNodes.Node node = node("a");
+
+        for (int ejection = 1; ejection <= 8; ejection++) {
+            fail(node, FAILURE_THRESHOLD);
+            Duration expected = EJECTION_TIME.multipliedBy(ejection);
+            if (expected.compareTo(MAX_EJECTION_TIME) > 0) {
+                expected = MAX_EJECTION_TIME;
+            }
+            advance(expected.minusMillis(1));
+            assertThat(selectable()).as("ejection %d", ejection).doesNotContain("a");
+            advance(Duration.ofMillis(1));
+            assertThat(selectable()).as("ejection %d", ejection).contains("a");
+        }
+    }
+
+    @Test
+    void ejectionsSpacedFurtherThanTheMaximumStartOverAtTheFirstDuration() {
+        brokerNodes = nodes(BrokerProperties.Selection.LEAST_OUTSTANDING, 50, "a", "b", "c");
+        BrokerNodes.Node node = node("a");
+
+        fail(node, FAILURE_THRESHOLD);
+        advance(EJECTION_TIME);
+        assertThat(selectable()).contains("a");
+        advance(MAX_EJECTION_TIME.plusMillis(1));
+
+        fail(node, FAILURE_THRESHOLD);
+        advance(EJECTION_TIME);
+        assertThat(selectable()).contains("a");
+    }
+
+    @Test
+    void maxEjectedPercentKeepsEnoughNodesAdmitted() {
+        // 50% of three nodes rounds down to one ejected node
+        brokerNodes = nodes(BrokerProperties.Selection.LEAST_OUTSTANDING, 50, "a", "b", "c");
+
+        fail(node("a"), FAILURE_THRESHOLD);
+        fail(node("b"), FAILURE_THRESHOLD);
+        assertThat(selectable()).containsExactlyInAnyOrder("b", "c");
+
+        // once the first is back another may go
+        advance(EJECTION_TIME);
+        fail(node("b"), 1);
+        assertThat(selectable()).containsExactlyInAnyOrder("a", "c");
+    }
+
+    @Test
+    void theLastAdmittedNodeIsNeverEjected() {
+        brokerNodes = nodes(BrokerProperties.Selection.LEAST_OUTSTANDING, 100, "a", "b");
+
+        fail(node("a"), FAILURE_THRESHOLD);
+        fail(node("b"), FAILURE_THRESHOLD);
+
+        assertThat(selectable()).containsExactly("b");
+    }
+
+    @Test
+    void partitionKeyKeepsKeysOnTheirNodeAndOnlyMovesTheEjectedNodesKeys() {
+        brokerNodes = nodes(BrokerProperties.Selection.PARTITION_KEY, 50, "a", "b", "c");
+        assertThat(brokerNodes.usesKey()).isTrue();
+        Map<String, String> before = new HashMap<>();
+        for (int i = 0; i < 300; i++) {
+            String key = "location-" + i;
+            before.put(key, brokerNodes.select(key).name());
+            assertThat(brokerNodes.select(key).name()).isEqualTo(before.get(key));
+        }
+        assertThat(new HashSet<>(before.values())).containsExactlyInAnyOrder("a", "b", "c");
+
+        fail(node("b"), FAILURE_THRESHOLD);
+
+        before.forEach((key, node) -> {
+            String after = brokerNodes.select(key).name();
+            if (node.equals("b")) {
+                assertThat(after).isIn("a", "c");
+            } else {
+                assertThat(after).as(key).isEqualTo(node);
+            }
+        });
+
+        advance(EJECTION_TIME);
+        before.forEach((key, node) -> assertThat(brokerNodes.select(key).name()).as(key).isEqualTo(node));
+    }
+
+    @Test
+    void orderedPublishesPickTheirNodeByKeyInAnySelection() {
+        brokerNodes = nodes(BrokerProperties.Selection.LEAST_OUTSTANDING, 50, "a", "b", "c");
+        assertThat(brokerNodes.usesKey()).isFalse();
+        Set<String> chosen = new HashSet<>();
+        for (int i = 0; i < 300; i++) {
+            String key = "location-" + i;
+            String node = brokerNodes.select(key, true).name();
+            // a publish outstanding elsewhere does not move the key
+            brokerNodes.send(brokerNodes.select(null), () -> {
+            });
+            assertThat(brokerNodes.select(key, true).name()).isEqualTo(node);
+            chosen.add(node);
+        }
+        assertThat(chosen).containsExactlyInAnyOrder("a", "b", "c");
+    }
+
+    @Test
+    void singleNodeIsAlwaysSelected() {
+        brokerNodes = nodes(BrokerProperties.Selection.PARTITION_KEY, 100, "only");
+
+        fail(brokerNodes.select("key"), FAILURE_THRESHOLD * 2);
+
+        assertThat(brokerNodes.usesKey()).isFalse();
+        assertThat(brokerNodes.select("key").name()).isEqualTo("only");
+        assertThat(brokerNodes.select(null).name()).isEqualTo("only");
+        assertThat(brokerNodes.primary().name()).isEqualTo("only");
+    }
+
+    private BrokerNodes nodes(BrokerProperties.Selection selection, int maxEjectedPercent, String... names) {
+        Map<String, PublishConnectionPool> pools = new LinkedHashMap<>();
+        for (String name : names) {
+            // never connects: nothing here opens a connection
+            pools.put(name, new PublishConnectionPool(name, List.of(new CachingConnectionFactory())));
+        }
+        BrokerProperties properties = new BrokerProperties(List.of(), selection, new BrokerProperties.Health(
+                FAILURE_THRESHOLD, SLOW_THRESHOLD, EJECTION_TIME, MAX_EJECTION_TIME, maxEjectedPercent));
+        return new BrokerNodes(properties, pools, clock::get);
+    }
+
+    /**
+     * Finds a node by name: with nothing outstanding, least-outstanding selection cycles through the admitted nodes.
+     */
+    private BrokerNodes.Node node(String name) {
+        for (int i = 0; i < 16; i++) {
+            BrokerNodes.Node node = brokerNodes.select(null);
+            if (node.name().equals(name)) {
+                return node;
+            }
+        }
+        throw new AssertionError("Node " + name + " is not admitted");
+    }
+
+    private Set<String> selectable() {
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < 16; i++) {
+            names.add(brokerNodes.select(null).name());
+        }
+        return names;
+    }
+
+    private void fail(BrokerNodes.Node node, int times) {
+        for (int i = 0; i < times; i++) {
+            brokerNodes.send(node, () -> {
+            });
+            node.completed(new AmqpConnectException(new ConnectException("refused")), 0);
+        }
+    }
+
+    private void publish(BrokerNodes.Node node, Duration latency) {
+        brokerNodes.send(node, () -> {
+        });
+        node.completed(null, latency.toNanos());
+    }
+
+    private void advance(Duration duration) {
+        clock.addAndGet(duration.toNanos());
+    }
+}
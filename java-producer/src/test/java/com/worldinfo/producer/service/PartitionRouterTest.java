@@ -0,0 +1,108 @@
+package com.worldinfo.producer.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+
+import com.worldinfo.producer.config.PartitionProperties;
+import com.worldinfo.producer.config.RpcDestination;
+
+class PartitionRouterTest {
+
+    private final List<String> started = new ArrayList<>();
+
+    @Test
+    void requestsSharingAKeyGoToOnePartition() {
+        PartitionRouter router = router(PartitionProperties.Key.PARAM);
+
+        PublishRoute first = router.route(RpcDestination.WORLD_INFO, "id-1", "getWeatherInfo", params("Seoul"));
+        PublishRoute second = router.route(RpcDestination.WORLD_INFO, "id-2", "getTimeInfo", params("Seoul"));
+
+        assertThat(first.partition()).isBetween(0, 3);
+        assertThat(second).isEqualTo(first);
+        assertThat(first.routingKey()).isEqualTo(RpcDestination.WORLD_INFO.partitionRoutingKey(first.partition()));
+    }
+
+    @Test
+    void publishWaitsForThePreviousOneSharingItsKey() {
+        PartitionRouter router = router(PartitionProperties.Key.PARAM);
+        CompletableFuture<String> firstPublish = new CompletableFuture<>();
+        CompletableFuture<String> secondPublish = new CompletableFuture<>();
+
+        CompletableFuture<String> first = inKeyOrder(router, "id-1", "Seoul", firstPublish);
+        CompletableFuture<String> second = inKeyOrder(router, "id-2", "Seoul", secondPublish);
+        CompletableFuture<String> third = inKeyOrder(router, "id-3", "Seoul", CompletableFuture.completedFuture("id-3"));
+        assertThat(started).containsExactly("id-1");
+
+        firstPublish.complete("id-1");
+        assertThat(started).containsExactly("id-1", "id-2");
+        assertThat(third).isNotDone();
+
+        secondPublish.complete("id-2");
+        assertThat(started).containsExactly("id-1", "id-2", "id-3");
+        assertThat(first.join()).isEqualTo("id-1");
+        assertThat(second.join()).isEqualTo("id-2");
+        assertThat(third.join()).isEqualTo("id-3");
+    }
+
+    @Test
+    void failedPublishStillReleasesTheNextOne() {
+        PartitionRouter router = router(PartitionProperties.Key.PARAM);
+        CompletableFuture<String> firstPublish = new CompletableFuture<>();
+
+        CompletableFuture<String> first = inKeyOrder(router, "id-1", "Seoul", firstPublish);
+        CompletableFuture<String> second = inKeyOrder(router, "id-2", "Seoul", CompletableFuture.completedFuture("id-2"));
+        firstPublish.completeExceptionally(new IllegalStateException("nacked"));
+
+        assertThat(first).isCompletedExceptionally();
+        assertThat(second.join()).isEqualTo("id-2");
+    }
+
+    @Test
+    void otherKeysAreNotHeldBack() {
+        PartitionRouter router = router(PartitionProperties.Key.PARAM);
+
+        inKeyOrder(router, "id-1", "Seoul", new CompletableFuture<>());
+        inKeyOrder(router, "id-2", "Busan", new CompletableFuture<>());
+        // without the parameter the request id is the key, which has no order to keep
+        inKeyOrder(router, "id-3", null, new CompletableFuture<>());
+
+        assertThat(started).containsExactly("id-1", "id-2", "id-3");
+    }
+
+    @Test
+    void requestIdPartitioningAndDisabledPartitionsNeverWait() {
+        PartitionRouter byRequestId = router(PartitionProperties.Key.REQUEST_ID);
+        inKeyOrder(byRequestId, "id-1", "Seoul", new CompletableFuture<>());
+        inKeyOrder(byRequestId, "id-2", "Seoul", new CompletableFuture<>());
+
+        PartitionRouter disabled = new PartitionRouter(new PartitionProperties(false, 4,
+                PartitionProperties.Mode.ROUTING_KEY, PartitionProperties.Key.METHOD, "location"));
+        inKeyOrder(disabled, "id-3", "Seoul", new CompletableFuture<>());
+        inKeyOrder(disabled, "id-4", "Seoul", new CompletableFuture<>());
+
+        assertThat(started).containsExactly("id-1", "id-2", "id-3", "id-4");
+    }
+
+    private CompletableFuture<String> inKeyOrder(PartitionRouter router, String requestId, String location,
+                                                 CompletableFuture<String> publish) {
+        return router.inKeyOrder(requestId, "getWeatherInfo", params(location), () -> {
+            started.add(requestId);
+            return publish;
+        });
+    }
+
+    private static Map<String, Object> params(String location) {
+        return location != null ? Map.of("location", location) : Map.of();
+    }
+
+    private static PartitionRouter router(PartitionProperties.Key key) {
+        return new PartitionRouter(new PartitionProperties(true, 4, PartitionProperties.Mode.ROUTING_KEY, key,
+                "location"));
+    }
+}
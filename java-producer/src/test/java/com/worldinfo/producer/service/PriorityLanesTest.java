@@ -0,0 +1,189 @@
+package com.worldinfo.producer.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.worldinfo.producer.config.PriorityProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PriorityLanesTest {
+
+    private static final int LANE_CAPACITY = 200;
+
+    private final ManualExecutorService delegate = new ManualExecutorService();
+    private final List<String> ran = Collections.synchronizedList(new ArrayList<>());
+
+    @Test
+    void busyLanesShareTheSlotsByWeight() {
+        PriorityLanes priorityLanes = lanes(1);
+        submit(priorityLanes, "urgent", 100);
+        submit(priorityLanes, "bulk", 100);
+        // the first urgent request took the only slot before anything else was waiting
+        runNext(1);
+        ran.clear();
+
+        runNext(90);
+
+        assertThat(count("urgent")).isEqualTo(80);
+        assertThat(count("bulk")).isEqualTo(10);
+        // smooth round robin spreads the light lane out instead of running it in a burst
+        for (int i = 0; i + 9 <= ran.size(); i += 9) {
+            assertThat(ran.subList(i, i + 9)).as("dispatches %d to %d", i, i + 9).containsOnlyOnce("bulk");
+        }
+    }
+
+    @Test
+    void idleLaneSharesGoToTheBusyLanes() {
+        PriorityLanes priorityLanes = lanes(1);
+        submit(priorityLanes, "bulk", 50);
+        submit(priorityLanes, "status", 50);
+        runNext(1);
+        ran.clear();
+
+        // urgent has nothing waiting, so its weight of 8 is not held for it
+        runNext(30);
+
+        assertThat(count("status")).isEqualTo(20);
+        assertThat(count("bulk")).isEqualTo(10);
+        assertThat(delegate.pending).hasSize(1);
+    }
+
+    @Test
+    void concurrencyCapsTheRunningPublishes() {
+        PriorityLanes priorityLanes = lanes(3);
+        submit(priorityLanes, "urgent", 5);
+        submit(priorityLanes, "bulk", 5);
+
+        assertThat(delegate.pending).hasSize(3);
+        runNext(1);
+        assertThat(delegate.pending).hasSize(3);
+        runNext(9);
+        assertThat(delegate.pending).isEmpty();
+        assertThat(ran).hasSize(10);
+    }
+
+    @Test
+    void rejectedRequestGoesBackToTheHeadOfItsLane() {
+        PriorityLanes priorityLanes = lanes(1);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        priorityLanes.bindTo(registry);
+        delegate.rejectNext.set(2);
+
+        priorityLanes.executor("bulk").execute(() -> ran.add("first"));
+        // dispatching for the second request takes the first from the head of the lane, and is rejected again
+        priorityLanes.executor("bulk").execute(() -> ran.add("second"));
+        assertThat(delegate.pending).isEmpty();
+        assertThat(registry.get("producer.priority.lane.depth").tag("lane", "low").gauge().value()).isEqualTo(2);
+
+        // nothing else arrives: the scheduled retry dispatches it
+        await().atMost(Duration.ofSeconds(2)).until(() -> !delegate.pending.isEmpty());
+        runNext(2);
+
+        assertThat(ran).containsExactly("first", "second");
+        assertThat(registry.get("producer.priority.executor.rejected").functionCounter().count()).isEqualTo(2);
+        assertThat(registry.get("producer.priority.lane.dispatched").tag("lane", "low").functionCounter().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void fullLaneRejectsNewRequests() {
+        PriorityLanes priorityLanes = lanes(1);
+        submit(priorityLanes, "bulk", 1 + LANE_CAPACITY);
+
+        Executor bulk = priorityLanes.executor("bulk");
+        assertThatThrownBy(() -> bulk.execute(() -> ran.add("bulk")))
+                .isInstanceOf(RejectedExecutionException.class)
+                .hasMessageContaining("low");
+        // the other lanes still take requests
+        priorityLanes.executor("urgent").execute(() -> ran.add("urgent"));
+    }
+
+    private PriorityLanes lanes(int concurrency) {
+        PriorityProperties properties = new PriorityProperties(true, PriorityProperties.Topology.MAX_PRIORITY, 10,
+                Map.of("high", new PriorityProperties.Lane(8, 9),
+                        "normal", new PriorityProperties.Lane(2, 5),
+                        "low", new PriorityProperties.Lane(1, 0)),
+                Map.of("urgent", "high", "bulk", "low"),
+                "normal", concurrency, LANE_CAPACITY);
+        return new PriorityLanes(properties, new PublishExecutor("manual", delegate));
+    }
+
+    /**
+     * Submits {@code count} requests of {@code method}; each records its method when it runs.
+     */
+    private void submit(PriorityLanes priorityLanes, String method, int count) {
+        Executor executor = priorityLanes.executor(method);
+        for (int i = 0; i < count; i++) {
+            executor.execute(() -> ran.add(method));
+        }
+    }
+
+    private void runNext(int count) {
+        for (int i = 0; i < count; i++) {
+            Runnable task = delegate.pending.poll();
+            assertThat(task).as("publish %d of %d", i + 1, count).isNotNull();
+            task.run();
+        }
+    }
+
+    private long count(String method) {
+        return ran.stream().filter(method::equals).count();
+    }
+
+    /**
+     * Holds submitted publishes until the test runs them, so every slot stays taken until it does.
+     */
+    private static final class ManualExecutorService extends AbstractExecutorService {
+
+        final ConcurrentLinkedDeque<Runnable> pending = new ConcurrentLinkedDeque<>();
+        final AtomicInteger rejectNext = new AtomicInteger();
+
+        @Override
+        public void execute(Runnable command) {
+            if (rejectNext.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                throw new RejectedExecutionException("saturated");
+            }
+            pending.offer(command);
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return List.of();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.worldinfo.producer.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.worldinfo.producer.config.PublishMetricsProperties;
+import com.worldinfo.producer.model.PublishStats;
+
+class PublishMetricsTest {
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+    private final PublishMetrics metrics = new PublishMetrics(
+            new PublishMetricsProperties(50, List.of(), List.of(0.5, 0.99), true, 10_000), clock::get);
+
+    @Test
+    void snapshotIsEmptyUntilTheFirstWindowCloses() {
+        metrics.recordPublished("world.info", 100);
+
+        PublishStats stats = metrics.snapshot();
+
+        assertThat(stats.windowSeconds()).isZero();
+        assertThat(stats.published()).isZero();
+        assertThat(stats.stages()).isEmpty();
+    }
+
+    @Test
+    void readingTheSnapshotDoesNotResetTheWindow() {
+        for (int i = 0; i < 20; i++) {
+            metrics.recordPublished("world.info", 100);
+            metrics.record(PublishMetrics.Stage.SEND, "world.info", "getWeatherInfo", Duration.ofMillis(2).toNanos());
+        }
+        metrics.recordFailure("world.info", new ConnectException("refused"), false);
+        advance(Duration.ofSeconds(10));
+        metrics.roll();
+
+        PublishStats first = metrics.snapshot();
+        PublishStats second = metrics.snapshot();
+
+        assertThat(second).isEqualTo(first);
+        assertThat(first.windowSeconds()).isEqualTo(10.0);
+        assertThat(first.published()).isEqualTo(20);
+        assertThat(first.publishRate()).isEqualTo(2.0);
+        assertThat(first.bytes()).isEqualTo(2000);
+        assertThat(first.failures()).containsEntry("connection", 1L);
+        assertThat(first.stages()).containsOnlyKeys("send");
+    }
+
+    @Test
+    void eachWindowReportsOnlyItsOwnActivity() {
+        metrics.recordPublished("world.info", 100);
+        metrics.record(PublishMetrics.Stage.SEND, "world.info", "getWeatherInfo", Duration.ofMillis(2).toNanos());
+        advance(Duration.ofSeconds(10));
+        metrics.roll();
+
+        metrics.recordPublished("world.info", 50);
+        metrics.recordPublished("world.info", 50);
+        advance(Duration.ofSeconds(5));
+        metrics.roll();
+
+        PublishStats stats = metrics.snapshot();
+        assertThat(stats.windowSeconds()).isEqualTo(5.0);
+        assertThat(stats.published()).isEqualTo(2);
+        assertThat(stats.bytes()).isEqualTo(100);
+        assertThat(stats.failures()).isEmpty();
+        assertThat(stats.stages()).isEmpty();
+    }
+
+    private void advance(Duration duration) {
+        clock.addAndGet(duration.toNanos());
+    }
+}
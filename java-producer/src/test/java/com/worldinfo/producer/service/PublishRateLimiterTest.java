@@ -0,0 +1,115 @@
+package com.worldinfo.producer.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.connection.Connection;
+import org.springframework.amqp.rabbit.connection.ConnectionBlockedEvent;
+import org.springframework.amqp.rabbit.connection.ConnectionUnblockedEvent;
+
+import com.worldinfo.producer.config.RateLimitProperties;
+import com.worldinfo.producer.config.RateLimitProperties.Adaptive;
+import com.worldinfo.producer.config.RateLimitProperties.Limit;
+
+class PublishRateLimiterTest {
+
+    private static final String ROUTE = "/api/v1/world-info/send";
+    private static final String BATCH_ROUTE = "/api/v1/world-info/send-batch";
+    // slow enough that nothing refills during a test
+    private static final double TRICKLE = 0.001;
+
+    @Test
+    void routesWithoutTheirOwnLimitShareTheDefault() {
+        PublishRateLimiter limiter = limiter(adaptive(true));
+
+        assertThat(limiter.tryAcquire(ROUTE, null).admitted()).isTrue();
+        assertThat(limiter.tryAcquire(ROUTE, null).admitted()).isTrue();
+        PublishRateLimiter.Decision rejected = limiter.tryAcquire(ROUTE, null);
+        assertThat(rejected.admitted()).isFalse();
+        assertThat(rejected.reason()).isEqualTo("route_limit");
+        assertThat(rejected.retryAfterSeconds()).isPositive();
+
+        assertThat(limiter.tryAcquire(BATCH_ROUTE, null).admitted()).isTrue();
+        assertThat(limiter.tryAcquire(BATCH_ROUTE, null).admitted()).isFalse();
+    }
+
+    @Test
+    void methodRejectionGivesTheRouteTokenBack() {
+        PublishRateLimiter limiter = limiter(adaptive(true));
+
+        assertThat(limiter.tryAcquire(ROUTE, "getWeatherInfo").admitted()).isTrue();
+        PublishRateLimiter.Decision rejected = limiter.tryAcquire(ROUTE, "getWeatherInfo");
+        assertThat(rejected.admitted()).isFalse();
+        assertThat(rejected.reason()).isEqualTo("method_limit");
+
+        // one route token spent by the admitted request; the rejected one was refunded
+        assertThat(limiter.tryAcquire(ROUTE, "getTimeInfo").admitted()).isTrue();
+        assertThat(limiter.tryAcquire(ROUTE, "getTimeInfo").reason()).isEqualTo("route_limit");
+    }
+
+    @Test
+    void factorShrinksWhileLatencyIsAboveTargetAndRecoversAfter() {
+        PublishRateLimiter limiter = limiter(adaptive(true));
+
+        limiter.recordPublishLatency(TimeUnit.SECONDS.toNanos(1));
+        limiter.adjust();
+        assertThat(limiter.getFactor()).isCloseTo(0.7, within(1e-9));
+        limiter.adjust();
+        assertThat(limiter.getFactor()).isCloseTo(0.49, within(1e-9));
+        for (int i = 0; i < 20; i++) {
+            limiter.adjust();
+        }
+        assertThat(limiter.getFactor()).isCloseTo(0.05, within(1e-9));
+
+        for (int i = 0; i < 100; i++) {
+            limiter.recordPublishLatency(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        limiter.adjust();
+        assertThat(limiter.getFactor()).isCloseTo(0.10, within(1e-9));
+        for (int i = 0; i < 30; i++) {
+            limiter.adjust();
+        }
+        assertThat(limiter.getFactor()).isEqualTo(1.0);
+    }
+
+    @Test
+    void factorStaysPutWhenAdaptiveScalingIsOff() {
+        PublishRateLimiter limiter = limiter(adaptive(false));
+
+        limiter.recordPublishLatency(TimeUnit.SECONDS.toNanos(1));
+        limiter.adjust();
+        assertThat(limiter.getFactor()).isEqualTo(1.0);
+    }
+
+    @Test
+    void shedsEverythingWhileTheBrokerBlocks() {
+        PublishRateLimiter limiter = limiter(adaptive(true));
+        Connection connection = mock(Connection.class);
+
+        limiter.onConnectionBlocked(new ConnectionBlockedEvent(connection, "low on memory"));
+        PublishRateLimiter.Decision rejected = limiter.tryAcquire(BATCH_ROUTE, null);
+        assertThat(rejected.reason()).isEqualTo("broker_blocked");
+        assertThat(rejected.retryAfterSeconds()).isEqualTo(5);
+
+        limiter.onConnectionUnblocked(new ConnectionUnblockedEvent(connection));
+        assertThat(limiter.tryAcquire(BATCH_ROUTE, null).admitted()).isTrue();
+    }
+
+    private static PublishRateLimiter limiter(Adaptive adaptive) {
+        return new PublishRateLimiter(new RateLimitProperties(true,
+                new Limit(TRICKLE, 2),
+                Map.of(BATCH_ROUTE, new Limit(TRICKLE, 1)),
+                Map.of("getWeatherInfo", new Limit(TRICKLE, 1)),
+                adaptive));
+    }
+
+    private static Adaptive adaptive(boolean enabled) {
+        return new Adaptive(enabled, Duration.ofMillis(250), 0.7, 0.05, 0.05, Duration.ofSeconds(5));
+    }
+}
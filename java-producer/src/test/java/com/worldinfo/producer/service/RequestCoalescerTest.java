@@ -0,0 +1,74 @@
+package com.worldinfo.producer.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.worldinfo.producer.config.CoalescingProperties;
+import com.worldinfo.producer.config.RpcDestination;
+import com.worldinfo.producer.model.PublishReceipt;
+
+class RequestCoalescerTest {
+
+    private static final Map<String, Object> PARAMS = Map.of("location", "Seoul", "timestamp", 1);
+
+    private final RequestCoalescer coalescer = new RequestCoalescer(
+            new CoalescingProperties(true, Duration.ofMinutes(1), Map.of(), 100, List.of("timestamp")));
+    private final AtomicInteger publishes = new AtomicInteger();
+    private final CompletableFuture<PublishReceipt> publish = new CompletableFuture<>();
+
+    @Test
+    void identicalRequestsShareOnePublish() {
+        CompletableFuture<PublishReceipt> first = coalesce(PARAMS);
+        CompletableFuture<PublishReceipt> second = coalesce(Map.of("timestamp", 2, "location", "Seoul"));
+        CompletableFuture<PublishReceipt> other = coalesce(Map.of("location", "Busan"));
+
+        publish.complete(PublishReceipt.sent("id-1"));
+
+        assertThat(publishes).hasValue(2);
+        assertThat(first.join()).isEqualTo(PublishReceipt.sent("id-1"));
+        assertThat(second.join()).isEqualTo(PublishReceipt.sent("id-1"));
+        assertThat(other.join()).isEqualTo(PublishReceipt.sent("id-1"));
+    }
+
+    @Test
+    void oneCallerCancellingLeavesTheOthersTheirReceipt() {
+        CompletableFuture<PublishReceipt> cancelled = coalesce(PARAMS);
+        CompletableFuture<PublishReceipt> waiting = coalesce(PARAMS);
+
+        // what Mono.fromFuture does when the client disconnects
+        cancelled.cancel(true);
+        CompletableFuture<PublishReceipt> later = coalesce(PARAMS);
+        publish.complete(PublishReceipt.confirmed("id-1"));
+
+        assertThat(publish).isNotCancelled();
+        assertThat(cancelled).isCancelled();
+        assertThat(waiting.join()).isEqualTo(PublishReceipt.confirmed("id-1"));
+        // the entry was not evicted by the cancel, so the later caller joined the same publish
+        assertThat(later.join()).isEqualTo(PublishReceipt.confirmed("id-1"));
+        assertThat(publishes).hasValue(1);
+    }
+
+    @Test
+    void failedPublishIsForgottenSoTheNextCallerRetries() {
+        CompletableFuture<PublishReceipt> first = coalesce(PARAMS);
+        publish.completeExceptionally(new IllegalStateException("connection lost"));
+
+        assertThat(first).isCompletedExceptionally();
+        coalesce(PARAMS);
+        assertThat(publishes).hasValue(2);
+    }
+
+    private CompletableFuture<PublishReceipt> coalesce(Map<String, Object> params) {
+        return coalescer.coalesce(RpcDestination.WORLD_INFO, "getWeatherInfo", params, () -> {
+            publishes.incrementAndGet();
+            return publish;
+        });
+    }
+}
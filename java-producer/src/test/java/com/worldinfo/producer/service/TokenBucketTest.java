@@ -0,0 +1,77 @@
+package com.worldinfo.producer.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class TokenBucketTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+
+    @Test
+    void startsFullAndRejectsOnceTheBurstIsSpent() {
+        TokenBucket bucket = new TokenBucket(10, 3, clock::get);
+
+        assertThat(bucket.tryAcquire(1.0)).isZero();
+        assertThat(bucket.tryAcquire(1.0)).isZero();
+        assertThat(bucket.tryAcquire(1.0)).isZero();
+        assertThat(bucket.tryAcquire(1.0)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test
+    void refillsAtTheConfiguredRateUpToTheBurst() {
+        TokenBucket bucket = new TokenBucket(10, 3, clock::get);
+        drain(bucket);
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(250));
+        assertThat(bucket.tryAcquire(1.0)).isZero();
+        assertThat(bucket.tryAcquire(1.0)).isZero();
+        assertThat(bucket.tryAcquire(1.0)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(60));
+        assertThat(bucket.tryAcquire(1.0)).isZero();
+        assertThat(bucket.tryAcquire(1.0)).isZero();
+        assertThat(bucket.tryAcquire(1.0)).isZero();
+        assertThat(bucket.tryAcquire(1.0)).isPositive();
+    }
+
+    @Test
+    void factorScalesTheRefillRate() {
+        TokenBucket bucket = new TokenBucket(10, 1, clock::get);
+        drain(bucket);
+
+        assertThat(bucket.tryAcquire(0.5)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(200));
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(bucket.tryAcquire(0.5)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(bucket.tryAcquire(0.5)).isZero();
+    }
+
+    @Test
+    void zeroFactorNeverRefills() {
+        TokenBucket bucket = new TokenBucket(10, 1, clock::get);
+        drain(bucket);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertThat(bucket.tryAcquire(0)).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void refundReturnsATokenWithoutPassingTheBurst() {
+        TokenBucket bucket = new TokenBucket(10, 2, clock::get);
+
+        bucket.tryAcquire(1.0);
+        bucket.refund();
+        bucket.refund();
+        assertThat(bucket.available()).isEqualTo(2.0);
+    }
+
+    private static void drain(TokenBucket bucket) {
+        while (bucket.tryAcquire(1.0) == 0) {
+            // spend the burst
+        }
+    }
+}